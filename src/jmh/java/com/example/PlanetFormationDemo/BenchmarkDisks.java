@@ -0,0 +1,41 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reproducible simulations shared by the benchmarks: a fixed view size and seed, and a body
+ * budget large enough that coalescing never kicks in during a measurement.
+ */
+final class BenchmarkDisks {
+    /** View size every benchmark disk is laid out for. */
+    static final int WIDTH = 1920;
+    static final int HEIGHT = 1080;
+    /** Seed for the disk layout and all physics randomness. */
+    static final long SEED = 20_240_611L;
+    /** Clumps in a clustered disk. */
+    static final int CLUSTERS = 24;
+
+    private BenchmarkDisks() {
+    }
+
+    /**
+     * Build a sun plus {@code bodies} grains.
+     *
+     * @param bodies    grains in the disk
+     * @param clustered gather grains into {@link #CLUSTERS} clumps instead of spreading them evenly
+     */
+    static Simulation disk(int bodies, boolean clustered) {
+        Simulation sim = new Simulation(WIDTH, HEIGHT, false, SEED);
+        sim.setBodyBudget(Math.max(Simulation.DEFAULT_BODY_BUDGET, bodies * 2));
+        sim.seedDisk(bodies, clustered ? CLUSTERS : 0);
+        return sim;
+    }
+
+    /**
+     * Run a task inside a pool so the parallel streams it starts use the pool's threads rather
+     * than the common pool.
+     */
+    static void runIn(ForkJoinPool pool, Runnable task) {
+        pool.submit(task).join();
+    }
+}
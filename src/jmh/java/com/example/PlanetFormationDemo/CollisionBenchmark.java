@@ -0,0 +1,58 @@
+package com.example.PlanetFormationDemo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collision resolution on uniform and clustered disks. Each invocation starts from freshly
+ * bucketed bodies (bucketing is excluded from the measurement); the disk is rebuilt per
+ * iteration so merges do not accumulate. Resolution is single-threaded, so there is no thread
+ * count parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class CollisionBenchmark {
+    /** Grains in the disk. */
+    @Param({"10000", "100000", "500000", "2000000"})
+    int bodies;
+
+    /** Disk shape: "uniform" or "clustered". */
+    @Param({"uniform", "clustered"})
+    String layout;
+
+    /** Disk under test. */
+    private Simulation sim;
+
+    @Setup(Level.Iteration)
+    public void seed() {
+        sim = BenchmarkDisks.disk(bodies, layout.equals("clustered"));
+    }
+
+    @Setup(Level.Invocation)
+    public void bucket() {
+        sim.compact();
+        sim.clearGrid();
+        sim.bucketBodies(1);
+    }
+
+    @Benchmark
+    public void resolveCollisions() {
+        sim.resolveCollisions(1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.PlanetFormationDemo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collision resolution with {@link NeighborList}s against the full grid sweep. Unlike
+ * {@link CollisionBenchmark}, each invocation follows a real step of gravity and bucketing
+ * (excluded from the measurement), since the lists only pay off across consecutive ticks. The disk
+ * settles before each iteration; a turbulent disk also gets a gust of wind and a burst of dust
+ * every step, at points circling the sun.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class NeighborListBenchmark {
+    /** Steps a fresh disk runs before measuring, long enough for the first merges to die down. */
+    private static final int SETTLE_STEPS = 300;
+    /** Skin of the neighbor lists, in pixels. */
+    private static final float SKIN = 2f;
+    /** Distance from the sun of the turbulent disk's gusts. */
+    private static final float GUST_RADIUS = 300f;
+    /** Dust added per step to a turbulent disk. */
+    private static final int DUST_PER_STEP = 40;
+
+    /** Grains seeded, before settling. */
+    @Param({"100000", "500000"})
+    int bodies;
+
+    /** Disk state: "settled" or "turbulent". */
+    @Param({"settled", "turbulent"})
+    String disk;
+
+    /** Collision checks: "grid" sweeps every cell, "lists" uses neighbor lists. */
+    @Param({"grid", "lists"})
+    String neighbors;
+
+    /** Disk under test. */
+    private Simulation sim;
+    /** Steps since the disk settled. */
+    private int tick;
+
+    @Setup(Level.Iteration)
+    public void settle() {
+        sim = BenchmarkDisks.disk(bodies, false);
+        for (int i = 0; i < SETTLE_STEPS; i++) sim.step();
+        sim.setNeighborSkin(neighbors.equals("lists") ? SKIN : 0f);
+        tick = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void advance() {
+        sim.compact();
+        if (disk.equals("turbulent")) {
+            Body sun = sim.bodyList().get(0);
+            double angle = tick * 0.05;
+            float dx = (float) (GUST_RADIUS * Math.cos(angle));
+            float dy = (float) (GUST_RADIUS * Math.sin(angle));
+            sim.applyWind(sun.x + dx, sun.y + dy, 1f);
+            sim.sprinkleDust(sun.x - dx, sun.y - dy, DUST_PER_STEP);
+        }
+        tick++;
+        sim.integrate(Simulation.PhysicsQuality.FULL.giants());
+        sim.clearGrid();
+        sim.bucketBodies(1);
+    }
+
+    @Benchmark
+    public void resolveCollisions() {
+        sim.resolveCollisions(1);
+    }
+}
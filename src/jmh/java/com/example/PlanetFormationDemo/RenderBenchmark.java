@@ -0,0 +1,76 @@
+package com.example.PlanetFormationDemo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offscreen frame composition: the same {@link FrameComposer} path {@link RenderPanel} paints
+ * through, into a full-HD image, from a published snapshot. Splatting runs its strips in
+ * parallel, so the thread count matters there.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+    /** Grains in the disk. */
+    @Param({"10000", "100000", "500000", "2000000"})
+    int bodies;
+
+    /** Worker threads for parallel splatting. */
+    @Param({"1", "4", "8"})
+    int threads;
+
+    /** Dust draw mode. */
+    @Param({"VECTOR", "SPLAT"})
+    DustMode dustMode;
+
+    /** Pool composition runs in. */
+    private ForkJoinPool pool;
+    /** Composer under test. */
+    private FrameComposer composer;
+    /** Target frame and its graphics. */
+    private BufferedImage frame;
+    private Graphics2D g2;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        Simulation sim = BenchmarkDisks.disk(bodies, false);
+        sim.publishFrame();
+        composer = new FrameComposer(sim, new CaptionManager(sim.timers()), () -> ToolMode.STAR_WAND, () -> false);
+        if (dustMode == DustMode.SPLAT) composer.toggleDustMode();
+        frame = new BufferedImage(BenchmarkDisks.WIDTH, BenchmarkDisks.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2 = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2.dispose();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BufferedImage compose() {
+        BenchmarkDisks.runIn(pool, () -> composer.compose(g2, null, BenchmarkDisks.WIDTH, BenchmarkDisks.HEIGHT));
+        return frame;
+    }
+}
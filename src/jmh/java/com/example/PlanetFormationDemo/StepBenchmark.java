@@ -0,0 +1,120 @@
+package com.example.PlanetFormationDemo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Simulation#step()} end to end and its phases one at a time, plus {@link Simulation#snapshot()}.
+ * The disk is rebuilt for every iteration so merges during one iteration do not shrink the next.
+ * Phases that only read or reorder state (gravity, bucketing, compaction) can be repeated
+ * back to back. Grid clearing and recentering would do nothing the second time, so each of their
+ * invocations starts from a bucketed grid or a disk drifted off center (set up untimed);
+ * collisions have their own benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class StepBenchmark {
+    /** Grains in the disk. */
+    @Param({"10000", "100000", "500000", "2000000"})
+    int bodies;
+
+    /** Worker threads for the parallel gravity pass. */
+    @Param({"1", "4", "8"})
+    int threads;
+
+    /** Pool the parallel phases run in. */
+    private ForkJoinPool pool;
+    /** Disk under test. */
+    private Simulation sim;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @Setup(Level.Iteration)
+    public void seed() {
+        sim = BenchmarkDisks.disk(bodies, false);
+        // Bucket once so compaction and snapshot see the state a real step leaves behind
+        sim.clearGrid();
+        sim.bucketBodies(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void step() {
+        BenchmarkDisks.runIn(pool, sim::step);
+    }
+
+    @Benchmark
+    public void gravity() {
+        BenchmarkDisks.runIn(pool, () -> sim.integrate(Simulation.PhysicsQuality.FULL.giants()));
+    }
+
+    /** Fills the grid before each invocation, so every clear has a full grid to empty. */
+    @State(Scope.Thread)
+    public static class Bucketed {
+        @Setup(Level.Invocation)
+        public void bucket(StepBenchmark bench) {
+            bench.sim.clearGrid();
+            bench.sim.bucketBodies(1);
+        }
+    }
+
+    /** Moves the disk a pixel off center before each invocation, as a step's drift would. */
+    @State(Scope.Thread)
+    public static class Drifted {
+        @Setup(Level.Invocation)
+        public void drift(StepBenchmark bench) {
+            for (Body b : bench.sim.bodyList()) b.x += 1f;
+        }
+    }
+
+    @Benchmark
+    public void gridClear(Bucketed bucketed) {
+        sim.clearGrid();
+    }
+
+    @Benchmark
+    public void bucketing() {
+        sim.clearGrid();
+        sim.bucketBodies(1);
+    }
+
+    @Benchmark
+    public void compaction() {
+        sim.compact();
+    }
+
+    @Benchmark
+    public void recenter(Drifted drifted) {
+        sim.recenter();
+    }
+
+    @Benchmark
+    public SimulationSnapshot snapshot() {
+        return sim.snapshot();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.PlanetFormationDemo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One mouse event's worth of tool work on a disk: the wind push and the gravity glove pull
+ * (without spawning, so the disk does not grow). Both scan every body on the caller's thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ToolBenchmark {
+    /** Grains in the disk. */
+    @Param({"10000", "100000", "500000", "2000000"})
+    int bodies;
+
+    /** Disk under test. */
+    private Simulation sim;
+    /** Tool position: on the disk, right of the sun. */
+    private float x;
+    private float y;
+
+    @Setup(Level.Iteration)
+    public void seed() {
+        sim = BenchmarkDisks.disk(bodies, false);
+        x = BenchmarkDisks.WIDTH / 2f + BenchmarkDisks.HEIGHT * 0.3f;
+        y = BenchmarkDisks.HEIGHT / 2f;
+    }
+
+    @Benchmark
+    public void applyWind() {
+        sim.applyWind(x, y, 1f);
+    }
+
+    @Benchmark
+    public void applyGravityGlove() {
+        sim.applyGravityGlove(x, y, 1f, 0);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.PlanetFormationDemo;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Software mixer on one long-lived thread: keeps a single {@link SourceDataLine} open and mixes a
+ * fixed pool of voices into it in small chunks, writing silence when idle so the line never
+ * underruns. Cues are queued through a bounded ring buffer, so a burst of triggers costs a few
+ * array writes on the caller's thread and nothing else; no threads or lines are created per cue.
+ */
+public class AudioMixer {
+    /** Samples mixed per chunk (~5.8 ms at 44.1 kHz). */
+    private static final int CHUNK = 256;
+    /** Line buffer in chunks; bounds output latency to roughly this many chunks. */
+    private static final int LINE_CHUNKS = 4;
+    /** Voices that can sound at once; the oldest is stolen when a new cue needs a slot. */
+    private static final int MAX_VOICES = 8;
+    /** Pending cue slots; triggers beyond this between two chunks are dropped. */
+    private static final int QUEUE_SIZE = 32;
+    /** Output format: 16-bit signed little-endian mono. */
+    private static final AudioFormat FORMAT = new AudioFormat(Sound.SAMPLE_RATE, 16, 1, true, false);
+
+    /** Pending cue samples (ring buffer guarded by {@code this}). */
+    private final short[][] queued = new short[QUEUE_SIZE][];
+    /** Trigger time of each pending cue. */
+    private final long[] queuedAt = new long[QUEUE_SIZE];
+    /** Ring read index and pending count. */
+    private int queueHead;
+    private int queueCount;
+    /** Cues dropped because the ring was full. */
+    private long dropped;
+
+    /** Samples per active voice, or null for a free slot (mixer thread only). */
+    private final short[][] voices = new short[MAX_VOICES][];
+    /** Next sample index per voice. */
+    private final int[] voicePos = new int[MAX_VOICES];
+    /** Start order per voice, for stealing the oldest. */
+    private final long[] voiceStarted = new long[MAX_VOICES];
+    /** Voices started so far. */
+    private long started;
+    /** Voices cut short to make room for a newer cue. */
+    private volatile long stolen;
+
+    /** Trigger-to-output latency of started voices. */
+    private final LoadMeter latencyMeter = new LoadMeter();
+    /** Mix accumulator and output bytes, reused every chunk. */
+    private final int[] mix = new int[CHUNK];
+    private final byte[] out = new byte[CHUNK * 2];
+
+    /** Mixer thread, or null when stopped. */
+    private volatile Thread thread;
+
+    /**
+     * Open the output line and start the mixer thread. Leaves the mixer silent (cues are ignored)
+     * if no audio device is available.
+     */
+    public void start() {
+        if (thread != null) return;
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, CHUNK * 2 * LINE_CHUNKS);
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            return; // keep silent if audio unavailable
+        }
+        Thread t = new Thread(() -> run(line), "AudioMixer");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    /** Stop the mixer thread; it closes the line on exit. */
+    public void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t != null) t.interrupt();
+    }
+
+    /**
+     * Queue a cue to start on the next chunk. Never blocks; drops the cue if the queue is full
+     * or the mixer is not running.
+     *
+     * @param samples precomputed sample bank (shared, never modified)
+     */
+    public void play(short[] samples) {
+        if (thread == null) return;
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (queueCount == QUEUE_SIZE) {
+                dropped++;
+                return;
+            }
+            int slot = (queueHead + queueCount) % QUEUE_SIZE;
+            queued[slot] = samples;
+            queuedAt[slot] = now;
+            queueCount++;
+        }
+    }
+
+    /** @return smoothed time from {@link #play} to the cue's first sample leaving the line buffer. */
+    public LoadMeter latencyMeter() {
+        return latencyMeter;
+    }
+
+    /** @return cues dropped because the queue was full. */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /** @return voices cut short by newer cues. */
+    public long getStolen() {
+        return stolen;
+    }
+
+    /**
+     * Mixer loop: start queued cues, mix one chunk, write it. The blocking write paces the loop
+     * to the sound card.
+     */
+    private void run(SourceDataLine line) {
+        line.start();
+        int bytesPerSecond = (int) (Sound.SAMPLE_RATE * 2);
+        try {
+            while (thread == Thread.currentThread()) {
+                // audio already buffered ahead of the chunk we are about to write
+                long bufferedNanos = (line.getBufferSize() - line.available()) * 1_000_000_000L / bytesPerSecond;
+                startQueued(bufferedNanos);
+                mixChunk();
+                line.write(out, 0, out.length);
+            }
+        } finally {
+            line.stop();
+            line.flush();
+            line.close();
+        }
+    }
+
+    /**
+     * Move queued cues into voice slots, stealing the oldest voice when none is free.
+     */
+    private void startQueued(long bufferedNanos) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            while (queueCount > 0) {
+                int slot = freeOrOldestVoice();
+                if (voices[slot] != null) stolen++;
+                voices[slot] = queued[queueHead];
+                voicePos[slot] = 0;
+                voiceStarted[slot] = started++;
+                latencyMeter.record(now - queuedAt[queueHead] + bufferedNanos);
+                queued[queueHead] = null;
+                queueHead = (queueHead + 1) % QUEUE_SIZE;
+                queueCount--;
+            }
+        }
+    }
+
+    /** @return index of a free voice slot, or of the longest-playing voice. */
+    private int freeOrOldestVoice() {
+        int oldest = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voices[v] == null) return v;
+            if (voiceStarted[v] < voiceStarted[oldest]) oldest = v;
+        }
+        return oldest;
+    }
+
+    /**
+     * Sum active voices into the accumulator, retire finished ones, and pack clamped samples.
+     */
+    private void mixChunk() {
+        java.util.Arrays.fill(mix, 0);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            short[] samples = voices[v];
+            if (samples == null) continue;
+            int pos = voicePos[v];
+            int n = Math.min(CHUNK, samples.length - pos);
+            for (int i = 0; i < n; i++) mix[i] += samples[pos + i];
+            voicePos[v] = pos + n;
+            if (voicePos[v] >= samples.length) voices[v] = null;
+        }
+        for (int i = 0; i < CHUNK; i++) {
+            int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[2 * i] = (byte) s;
+            out[2 * i + 1] = (byte) (s >> 8);
+        }
+    }
+}
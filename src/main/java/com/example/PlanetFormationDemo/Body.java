@@ -1,11 +1,11 @@
 package com.example.PlanetFormationDemo;
 
-import java.awt.Color;
-
 /**
  * Mutable simulation entity representing dust, planets, or the sun.
  */
 public class Body {
+    /** Identifier, unique within a simulation and increasing in creation order. */
+    public int id;
     /** x-position in simulation space. */
     public float x, y;
     /** Velocity components. */
@@ -16,8 +16,6 @@ public class Body {
     public float radius;
     /** Current stage used for coloring. */
     public Stage stage = Stage.ROCK;
-    /** Render color for this body. */
-    public Color color;
     /** Friendly name once assigned. */
     public String name;
     /** True if this is the sun. */
@@ -28,4 +26,8 @@ public class Body {
     public long particleCount;
     /** True if this body should be rendered with a comet tail. */
     public boolean isComet;
+    /** True for a read-only copy of a body owned by another sector (see {@link SectorWorker}); dropped after each step. */
+    public boolean ghost;
+    /** Slot in the simulation's {@link NeighborList} while tracked there; stale or -1 otherwise. */
+    public int neighborSlot = -1;
 }
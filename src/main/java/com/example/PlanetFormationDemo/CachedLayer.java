@@ -0,0 +1,101 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * One cached frame layer. Backed by a VolatileImage when a GraphicsConfiguration is available
+ * (on-screen compositing) and by a BufferedImage otherwise (software frames, headless). The owner
+ * redraws it only when {@link #prepare} reports that the contents are stale.
+ */
+public class CachedLayer {
+    /** Transparency of the layer surface. */
+    private final int transparency;
+    /** Backing surface, or null before first use. */
+    private Image image;
+    /** Set when the owner's inputs changed since the last redraw. */
+    private boolean dirty = true;
+
+    /**
+     * @param transparency {@link Transparency#OPAQUE} or {@link Transparency#TRANSLUCENT}
+     */
+    public CachedLayer(int transparency) {
+        this.transparency = transparency;
+    }
+
+    /** Mark the contents stale so the next {@link #prepare} asks for a redraw. */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Make sure a surface of the right kind and size exists.
+     *
+     * @param gc graphics configuration for a volatile surface, or null for a BufferedImage
+     * @param w  layer width
+     * @param h  layer height
+     * @return true if the caller must redraw the contents before using {@link #image()}
+     */
+    public boolean prepare(GraphicsConfiguration gc, int w, int h) {
+        w = Math.max(1, w);
+        h = Math.max(1, h);
+        boolean wantVolatile = gc != null;
+        boolean mismatch = image == null
+                || (image instanceof VolatileImage) != wantVolatile
+                || image.getWidth(null) != w || image.getHeight(null) != h;
+        if (mismatch) {
+            if (image != null) image.flush();
+            image = wantVolatile
+                    ? gc.createCompatibleVolatileImage(w, h, transparency)
+                    : new BufferedImage(w, h, transparency == Transparency.OPAQUE
+                            ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            dirty = true;
+        } else if (image instanceof VolatileImage vi) {
+            int status = vi.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                vi.flush();
+                image = gc.createCompatibleVolatileImage(w, h, transparency);
+                dirty = true;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                dirty = true;
+            }
+        }
+        boolean redraw = dirty;
+        dirty = false;
+        return redraw;
+    }
+
+    /**
+     * Graphics for redrawing; translucent layers are cleared first.
+     */
+    public Graphics2D createGraphics() {
+        Graphics2D g2 = (Graphics2D) image.getGraphics();
+        if (transparency != Transparency.OPAQUE) {
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, image.getWidth(null), image.getHeight(null));
+            g2.setComposite(AlphaComposite.SrcOver);
+        }
+        return g2;
+    }
+
+    /** @return the backing surface (valid after {@link #prepare}). */
+    public Image image() {
+        return image;
+    }
+
+    /**
+     * @return true if a volatile surface lost its contents since the last prepare; redraw and retry.
+     */
+    public boolean contentsLost() {
+        if (image instanceof VolatileImage vi && vi.contentsLost()) {
+            dirty = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -2,14 +2,15 @@ package com.example.PlanetFormationDemo;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Manages current caption from simulation events with fallback rotation.
+ * Manages current caption from simulation events with fallback rotation. Each caption's expiry is
+ * an entry on the simulation's {@link TickScheduler}, so captions last simulated time and a paused
+ * disk keeps its caption.
  */
 public class CaptionManager implements SimulationListener {
+    /** How long a fallback caption stays up before the next one. */
+    private static final int FALLBACK_MS = 5000;
     /** Default captions that cycle when no new events arrive. */
     private final List<String> fallback = Arrays.asList(
             "Dust bumping dust...",
@@ -21,19 +22,29 @@ public class CaptionManager implements SimulationListener {
     );
     /** Current caption text. */
     private volatile String caption = "";
-    /** Time until caption expires (ms epoch). */
-    private volatile long captionUntil = 0L;
-    /** Scheduler for fallback captions. */
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "CaptionTimer"));
+    /** Wheel the expiry entries run on. */
+    private final TickScheduler timers;
+    /** Expiry of the current caption, or null when none is scheduled (guarded by this). */
+    private TickScheduler.Timeout expiry;
+    /** Whether a fallback caption replaces one that expires. */
+    private volatile boolean rotating;
+
+    /** @param timers wheel of the simulation whose events are captioned */
+    public CaptionManager(TickScheduler timers) {
+        this.timers = timers;
+    }
 
     /** Begin rotating fallback captions. */
-    public void start() {
-        scheduler.scheduleAtFixedRate(this::tick, 5, 5, TimeUnit.SECONDS);
+    public synchronized void start() {
+        rotating = true;
+        if (expiry == null || !expiry.isPending()) expireAfter(FALLBACK_MS);
     }
 
-    /** Stop the caption scheduler. */
-    public void stop() {
-        scheduler.shutdownNow();
+    /** Stop rotating fallback captions. */
+    public synchronized void stop() {
+        rotating = false;
+        if (expiry != null) expiry.cancel();
+        expiry = null;
     }
 
     /** @return current caption text. */
@@ -43,9 +54,9 @@ public class CaptionManager implements SimulationListener {
 
     /** Receive caption events from the simulation. */
     @Override
-    public void onCaption(String text, int durationMs) {
+    public synchronized void onCaption(String text, int durationMs) {
         caption = text;
-        captionUntil = System.currentTimeMillis() + durationMs;
+        expireAfter(durationMs);
     }
 
     /** Sound events are ignored by the caption manager. */
@@ -54,12 +65,18 @@ public class CaptionManager implements SimulationListener {
         // no-op
     }
 
-    /** Periodic tick to refresh captions when expired. */
-    private void tick() {
-        long now = System.currentTimeMillis();
-        if (now > captionUntil) {
-            String next = fallback.get((int) (Math.random() * fallback.size()));
-            onCaption(next, 4000);
-        }
+    /** Replace the current caption's expiry entry. Caller holds this. */
+    private void expireAfter(int durationMs) {
+        if (expiry != null) expiry.cancel();
+        expiry = timers.schedule(TickScheduler.ticks(durationMs), this::expired);
+    }
+
+    /** Expiry entry: the caption stays up until a fallback replaces it. */
+    private synchronized void expired() {
+        // a newer caption since this entry fired has its own expiry
+        if (expiry == null || expiry.isPending()) return;
+        expiry = null;
+        if (!rotating) return;
+        onCaption(fallback.get((int) (Math.random() * fallback.size())), FALLBACK_MS);
     }
 }
@@ -0,0 +1,36 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.Color;
+
+/**
+ * Fixed-size cache of Color instances keyed by packed ARGB, so paint loops can switch colors
+ * without allocating. A slot collision simply replaces the older entry. Safe to share between
+ * threads: a slot is only trusted if the Color it holds has the requested value.
+ */
+public final class ColorCache {
+    /** Number of slots (power of two). */
+    private static final int SIZE = 1024;
+
+    /** Cached colors by slot. */
+    private final Color[] colors = new Color[SIZE];
+
+    /**
+     * @return a Color for the packed ARGB value (allocated only on a cache miss)
+     */
+    public Color get(int argb) {
+        int slot = (argb ^ (argb >>> 11) ^ (argb >>> 21)) & (SIZE - 1);
+        Color c = colors[slot];
+        if (c == null || c.getRGB() != argb) {
+            c = new Color(argb, true);
+            colors[slot] = c;
+        }
+        return c;
+    }
+
+    /**
+     * @return a Color for an opaque RGB value with the given alpha
+     */
+    public Color get(int rgb, int alpha) {
+        return get((alpha << 24) | (rgb & 0xFFFFFF));
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Optional conservation diagnostics. Every few ticks the step reduces the body list in parallel
+ * to total mass, kinetic and potential energy, linear momentum and angular momentum about the
+ * sun, and compares them with the previous sample:
+ * <ul>
+ *   <li>mass must match the previous total plus what tools, comets and clean-up added or removed,
+ *       so any leak in merging or coalescing shows up exactly;</li>
+ *   <li>angular momentum is conserved by the sun's central pull and by merges, so after
+ *       correcting for drag what remains is integration and approximation error;</li>
+ *   <li>energy drifts with drag and inelastic merges, so its per-tick drift is reported as a
+ *       rate to compare between quality settings rather than held to zero.</li>
+ * </ul>
+ * Linear momentum is reported but not checked: the pinned sun absorbs it every tick. Intervals in
+ * which a tool or a shake pushed bodies are marked disturbed and skip the drift checks. Exceeding
+ * a threshold queues a {@code Conservation:} warning once, when the quantity goes out of bounds;
+ * the step prints queued warnings with {@link #printWarnings()} after releasing the bodies lock.
+ */
+public class ConservationMonitor {
+    /** Largest tolerated relative mass error. */
+    public static final double MASS_TOLERANCE = 1e-5;
+    /** Largest tolerated drag-corrected angular momentum drift, relative, per tick. */
+    public static final double ANGULAR_TOLERANCE = 2e-4;
+    /** Largest tolerated energy drift, relative, per tick. */
+    public static final double ENERGY_TOLERANCE = 2e-3;
+    /** Samples kept. */
+    private static final int HISTORY = 600;
+
+    /** Gravitational constant, softening and per-tick velocity drag of the step. */
+    private final double g;
+    private final double softening;
+    private final double drag;
+
+    /**
+     * One diagnostics sample.
+     *
+     * @param tick            physics tick
+     * @param quality         physics quality in force (to tie drift to approximation settings)
+     * @param bodies          bodies reduced, sun included
+     * @param mass            total mass, sun excluded
+     * @param massError       relative difference from the mass expected by the ledger, or 0 without a baseline
+     * @param kinetic         kinetic energy
+     * @param potential       potential energy in the sun's softened field
+     * @param px              linear momentum, x
+     * @param py              linear momentum, y
+     * @param angular         angular momentum about the sun
+     * @param energyDrift     relative energy change per tick since the last sample
+     * @param angularDrift    drag-corrected relative angular momentum change per tick
+     * @param disturbed       whether tools or external pushes acted since the last sample (drifts are 0 then)
+     */
+    public record Sample(long tick, Simulation.PhysicsQuality quality, int bodies, double mass, double massError,
+                         double kinetic, double potential, double px, double py, double angular,
+                         double energyDrift, double angularDrift, boolean disturbed) {
+        /** @return kinetic plus potential energy. */
+        public double energy() {
+            return kinetic + potential;
+        }
+    }
+
+    /** Running sums of one reduction; one per worker, combined at the end. */
+    private static final class Sums {
+        double mass;
+        double kinetic;
+        double potential;
+        double px;
+        double py;
+        double angular;
+
+        void combine(Sums o) {
+            mass += o.mass;
+            kinetic += o.kinetic;
+            potential += o.potential;
+            px += o.px;
+            py += o.py;
+            angular += o.angular;
+        }
+    }
+
+    /** Previous sample, or null before a baseline. */
+    private Sample last;
+    /** Mass added minus mass removed by outside actions since the last sample. */
+    private double massLedger;
+    /** Whether anything outside the step changed velocities since the last sample. */
+    private boolean disturbed;
+    /** Quantities currently out of bounds, to warn once per excursion. */
+    private boolean massWarned;
+    private boolean angularWarned;
+    private boolean energyWarned;
+    /** Latest sample, for readers on other threads. */
+    private volatile Sample latest;
+    /** Samples, oldest first (guarded by itself). */
+    private final ArrayDeque<Sample> history = new ArrayDeque<>();
+    /** Warnings not yet printed (guarded by itself). */
+    private final List<String> warnings = new ArrayList<>();
+
+    /**
+     * @param g         gravitational constant of the step
+     * @param softening softening added to squared distances
+     * @param drag      velocity multiplier applied each tick
+     */
+    public ConservationMonitor(double g, double softening, double drag) {
+        this.g = g;
+        this.softening = softening;
+        this.drag = drag;
+    }
+
+    /** Drop the baseline (the disk was rebuilt). Called with the bodies lock held. */
+    void reset() {
+        last = null;
+        massLedger = 0;
+        disturbed = false;
+    }
+
+    /**
+     * Account for a body entering (positive mass) or leaving (negative) the disk from outside the
+     * step; it also brings or takes energy and momentum, so the interval counts as disturbed.
+     */
+    void external(double mass) {
+        massLedger += mass;
+        disturbed = true;
+    }
+
+    /** Note that something outside the step changed velocities. */
+    void disturbed() {
+        disturbed = true;
+    }
+
+    /**
+     * Reduce the bodies, compare with the last sample and queue warnings on drift. Called with the bodies lock held.
+     *
+     * @param bodies  every body, sun first
+     * @param tick    physics tick just completed
+     * @param quality physics quality in force
+     * @return the new sample
+     */
+    Sample sample(List<Body> bodies, long tick, Simulation.PhysicsQuality quality) {
+        Body sun = bodies.get(0);
+        double sx = sun.x;
+        double sy = sun.y;
+        double gm = g * sun.mass;
+        Sums sums = IntStream.range(1, bodies.size()).parallel().collect(Sums::new, (acc, i) -> {
+            Body b = bodies.get(i);
+            double m = b.mass;
+            double dx = b.x - sx;
+            double dy = b.y - sy;
+            acc.mass += m;
+            acc.kinetic += 0.5 * m * (b.vx * (double) b.vx + b.vy * (double) b.vy);
+            acc.potential -= gm * m / Math.sqrt(dx * dx + dy * dy + softening);
+            acc.px += m * b.vx;
+            acc.py += m * b.vy;
+            acc.angular += m * (dx * b.vy - dy * b.vx);
+        }, Sums::combine);
+
+        Sample prev = last;
+        double massError = 0;
+        double energyDrift = 0;
+        double angularDrift = 0;
+        boolean quiet = prev != null && !disturbed;
+        if (prev != null) {
+            double expected = prev.mass() + massLedger;
+            massError = expected == 0 ? 0 : (sums.mass - expected) / expected;
+        }
+        if (quiet) {
+            long ticks = Math.max(1, tick - prev.tick());
+            double e0 = prev.energy();
+            double e1 = sums.kinetic + sums.potential;
+            energyDrift = e0 == 0 ? 0 : (e1 - e0) / Math.abs(e0) / ticks;
+            double expectedL = prev.angular() * Math.pow(drag, ticks);
+            angularDrift = expectedL == 0 ? 0 : (sums.angular - expectedL) / Math.abs(expectedL) / ticks;
+        }
+        Sample s = new Sample(tick, quality, bodies.size(), sums.mass, massError, sums.kinetic, sums.potential,
+                sums.px, sums.py, sums.angular, energyDrift, angularDrift, !quiet);
+        massWarned = check(massWarned, Math.abs(massError) > MASS_TOLERANCE, "mass", massError, s);
+        if (quiet) {
+            angularWarned = check(angularWarned, Math.abs(angularDrift) > ANGULAR_TOLERANCE,
+                    "angular momentum drift/tick", angularDrift, s);
+            energyWarned = check(energyWarned, Math.abs(energyDrift) > ENERGY_TOLERANCE,
+                    "energy drift/tick", energyDrift, s);
+        }
+        last = s;
+        latest = s;
+        massLedger = 0;
+        disturbed = false;
+        synchronized (history) {
+            if (history.size() == HISTORY) history.removeFirst();
+            history.addLast(s);
+        }
+        return s;
+    }
+
+    /** @return the latest sample, or null before the first; safe from any thread. */
+    public Sample latest() {
+        return latest;
+    }
+
+    /** @return samples, oldest first. */
+    public List<Sample> history() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    /** Print and drop queued warnings. Called by the step without the bodies lock. */
+    void printWarnings() {
+        List<String> out;
+        synchronized (warnings) {
+            if (warnings.isEmpty()) return;
+            out = new ArrayList<>(warnings);
+            warnings.clear();
+        }
+        for (String line : out) System.out.println(line);
+    }
+
+    /**
+     * Queue a warning when a quantity goes out of bounds, and a notice when it comes back.
+     *
+     * @return whether the quantity is out of bounds now
+     */
+    private boolean check(boolean warned, boolean outOfBounds, String what, double value, Sample s) {
+        String line = null;
+        if (outOfBounds && !warned) {
+            line = String.format("Conservation: %s %.3g at tick %d exceeds tolerance (giants=%d, stride=%d)",
+                    what, value, s.tick(), s.quality().giants(), s.quality().collisionStride());
+        } else if (!outOfBounds && warned) {
+            line = String.format("Conservation: %s back within tolerance at tick %d", what, s.tick());
+        }
+        if (line != null) {
+            synchronized (warnings) {
+                warnings.add(line);
+            }
+        }
+        return outOfBounds;
+    }
+}
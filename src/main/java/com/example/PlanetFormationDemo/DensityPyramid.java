@@ -0,0 +1,140 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * Mip pyramid of dust density over a snapshot's spatial grid. Level 0 has one tile per grid cell;
+ * each further level sums 2x2 tiles of the level below. Zoomed-out views draw dense tiles as a
+ * single aggregated patch instead of thousands of overlapping grains.
+ */
+public final class DensityPyramid {
+    /** Approximate screen area of one grain in world px^2 (mean radius ~0.9). */
+    private static final float GRAIN_AREA = 2.5f;
+
+    /** Grid cell size (level-0 tile edge) in world px. */
+    private int cellSize;
+    /** Tile columns per level. */
+    private final int[] cols;
+    /** Tile rows per level. */
+    private final int[] rows;
+    /** Grain count per tile, per level. */
+    private final int[][] counts;
+    /** Summed red/green/blue per tile, per level. */
+    private final int[][] red;
+    private final int[][] green;
+    private final int[][] blue;
+
+    /**
+     * Create an empty pyramid; call {@link #build} before reading it.
+     *
+     * @param maxLevel highest level to build (0 builds only the per-cell level)
+     */
+    public DensityPyramid(int maxLevel) {
+        int levels = maxLevel + 1;
+        this.cols = new int[levels];
+        this.rows = new int[levels];
+        this.counts = new int[levels][];
+        this.red = new int[levels][];
+        this.green = new int[levels][];
+        this.blue = new int[levels][];
+    }
+
+    /**
+     * Rebuild every level from a grid-sorted dust field, reusing the level arrays while the grid
+     * size stays the same.
+     */
+    public void build(SimulationSnapshot.DustField dust) {
+        this.cellSize = dust.cellSize();
+        cols[0] = dust.cols();
+        rows[0] = dust.rows();
+        for (int l = 1; l < counts.length; l++) {
+            cols[l] = (cols[l - 1] + 1) / 2;
+            rows[l] = (rows[l - 1] + 1) / 2;
+        }
+        for (int l = 0; l < counts.length; l++) {
+            int n = cols[l] * rows[l];
+            if (counts[l] == null || counts[l].length != n) {
+                counts[l] = new int[n];
+                red[l] = new int[n];
+                green[l] = new int[n];
+                blue[l] = new int[n];
+            } else if (l > 0) {
+                java.util.Arrays.fill(counts[l], 0);
+                java.util.Arrays.fill(red[l], 0);
+                java.util.Arrays.fill(green[l], 0);
+                java.util.Arrays.fill(blue[l], 0);
+            }
+        }
+
+        int cells = cols[0] * rows[0];
+        int[] start = dust.cellStart();
+        int[] rgb = dust.rgb();
+        for (int c = 0; c < cells; c++) {
+            int r = 0, g = 0, b = 0;
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                int p = rgb[i];
+                r += (p >> 16) & 0xFF;
+                g += (p >> 8) & 0xFF;
+                b += p & 0xFF;
+            }
+            counts[0][c] = start[c + 1] - start[c];
+            red[0][c] = r;
+            green[0][c] = g;
+            blue[0][c] = b;
+        }
+
+        for (int l = 1; l < counts.length; l++) {
+            int pc = cols[l - 1];
+            int pr = rows[l - 1];
+            for (int row = 0; row < pr; row++) {
+                for (int col = 0; col < pc; col++) {
+                    int src = row * pc + col;
+                    int dst = (row / 2) * cols[l] + col / 2;
+                    counts[l][dst] += counts[l - 1][src];
+                    red[l][dst] += red[l - 1][src];
+                    green[l][dst] += green[l - 1][src];
+                    blue[l][dst] += blue[l - 1][src];
+                }
+            }
+        }
+    }
+
+    /** @return number of levels built. */
+    public int levels() {
+        return counts.length;
+    }
+
+    /** @return tile edge length in world px at a level. */
+    public int tileSize(int level) {
+        return cellSize << level;
+    }
+
+    /** @return tile columns at a level. */
+    public int cols(int level) {
+        return cols[level];
+    }
+
+    /** @return tile rows at a level. */
+    public int rows(int level) {
+        return rows[level];
+    }
+
+    /** @return grain count in a tile. */
+    public int count(int level, int col, int row) {
+        return counts[level][row * cols[level] + col];
+    }
+
+    /**
+     * Fraction of the tile area covered by its grains (may exceed 1 when they overlap).
+     */
+    public float coverage(int level, int col, int row) {
+        float size = tileSize(level);
+        return count(level, col, row) * GRAIN_AREA / (size * size);
+    }
+
+    /** @return mean grain color of a tile as packed RGB, or 0 if empty. */
+    public int averageRgb(int level, int col, int row) {
+        int idx = row * cols[level] + col;
+        int n = counts[level][idx];
+        if (n == 0) return 0;
+        return ((red[level][idx] / n) << 16) | ((green[level][idx] / n) << 8) | (blue[level][idx] / n);
+    }
+}
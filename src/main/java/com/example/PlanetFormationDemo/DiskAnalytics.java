@@ -0,0 +1,343 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Disk statistics kept up to date by the physics step instead of recomputed by readers. Body
+ * counters (particles, bodies per {@link Stage}, mass histogram, largest body) change only on
+ * add, merge and removal. Spatial counters (radial density profile, dust crowding the sun) depend
+ * on every body's position, so they are gathered inside the bucketing pass the step already
+ * makes. Once per tick the counters are copied into an immutable {@link Stats} that any thread
+ * reads without locking; every {@link #SAMPLE_TICKS} ticks one is kept for the time series
+ * export. Mutators are called by {@link Simulation} with the bodies lock held.
+ */
+public class DiskAnalytics {
+    /** Log2 mass bins: bin {@code k} holds masses in {@code [2^(k-2), 2^(k-1))}, the last bin everything above. */
+    public static final int MASS_BINS = 24;
+    /** Rings in the radial profile, out to 60% of the view's smaller side; the last ring holds everything beyond. */
+    public static final int RADIAL_BINS = 32;
+    /** Ticks between time series samples (about one a second at the default physics rate). */
+    public static final int SAMPLE_TICKS = 60;
+    /** Time series samples kept (an hour at one a second). */
+    private static final int HISTORY = 3600;
+    /** Weight of the newest tick in the merge rate average. */
+    private static final double MERGE_ALPHA = 0.05;
+
+    /**
+     * Immutable statistics for one tick. Arrays are owned by the record and must not be mutated.
+     *
+     * @param tick          physics tick
+     * @param timeMillis    wall-clock time of the tick
+     * @param bodies        live bodies excluding the sun
+     * @param particles     particles over every non-sun body
+     * @param stageCounts   bodies per {@link Stage}, by ordinal
+     * @param massHistogram bodies per log2 mass bin (see {@link #MASS_BINS})
+     * @param radialProfile bodies per ring around the sun (see {@link #RADIAL_BINS})
+     * @param denseNearSun  bodies within 18% of the view's smaller side from the sun
+     * @param mergesPerTick moving average of merges per tick
+     * @param largestMass   mass of the heaviest non-sun body, 0 if none
+     * @param largestName   its name, or null if unnamed
+     * @param planets       named planets alive
+     * @param firstPlanetTick tick by which the first planet was named, or -1 if none has been yet
+     */
+    public record Stats(long tick, long timeMillis, int bodies, long particles, int[] stageCounts,
+                        int[] massHistogram, int[] radialProfile, int denseNearSun, double mergesPerTick,
+                        float largestMass, String largestName, int planets, long firstPlanetTick) {
+        /** Statistics before the first tick. */
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0, new int[Stage.values().length],
+                new int[MASS_BINS], new int[RADIAL_BINS], 0, 0, 0f, null, 0, -1);
+    }
+
+    /** Live bodies excluding the sun. */
+    private int bodies;
+    /** Particles over every non-sun body. */
+    private long particles;
+    /** Bodies per stage. */
+    private final int[] stageCounts = new int[Stage.values().length];
+    /** Bodies per mass bin. */
+    private final int[] massBins = new int[MASS_BINS];
+    /** Heaviest non-sun body, or null when there is none or it is {@link #lost}. */
+    private Body largest;
+    /**
+     * Whether the largest body left and no body is known to outweigh it yet; the next radial pass
+     * or the end of the tick scans for it again.
+     */
+    private boolean lost;
+    /** Mass of the lost largest body: any body at least this heavy is the largest again. */
+    private float lostMass;
+    /** Whether the current radial pass is looking for the largest body. */
+    private boolean rescan;
+    /** Radial profile being gathered by the current pass, and the last completed one. */
+    private int[] radialPass = new int[RADIAL_BINS];
+    private int[] radial = new int[RADIAL_BINS];
+    /** Radial pass geometry: sun position, ring width and crowding radius (squared). */
+    private float sunX;
+    private float sunY;
+    private float ringWidth = 1f;
+    private float nearSq;
+    /** Bodies near the sun counted by the current pass, and by the last completed one. */
+    private int nearPass;
+    private int near;
+    /** Moving average of merges per tick. */
+    private double mergeRate;
+    /** Named planets alive. */
+    private int planets;
+    /** Tick by which the first planet was named, or -1 (kept across rebuilds). */
+    private long firstPlanetTick = -1;
+    /** Statistics as of the last tick. */
+    private volatile Stats latest = Stats.EMPTY;
+    /** Time series samples, oldest first (guarded by itself). */
+    private final ArrayDeque<Stats> history = new ArrayDeque<>();
+
+    /** Forget every body (the disk is about to be rebuilt). */
+    void reset() {
+        bodies = 0;
+        particles = 0;
+        java.util.Arrays.fill(stageCounts, 0);
+        java.util.Arrays.fill(massBins, 0);
+        largest = null;
+        lost = false;
+        planets = 0;
+    }
+
+    /** Count a body that joined the disk. */
+    void added(Body b) {
+        if (b.isSun) return;
+        bodies++;
+        particles += b.particleCount;
+        stageCounts[b.stage.ordinal()]++;
+        massBins[massBin(b.mass)]++;
+        if (b.name != null) planets++;
+        offer(b);
+    }
+
+    /** Count a body that has just been given a name (newly named or inherited in a merge). */
+    void named() {
+        planets++;
+    }
+
+    /**
+     * Move a body that absorbed others from its old counters to its new ones.
+     *
+     * @param b            the body, already updated
+     * @param oldMass      its mass before
+     * @param oldParticles its particle count before
+     * @param oldStage     its stage before
+     */
+    void grew(Body b, float oldMass, long oldParticles, Stage oldStage) {
+        particles += b.particleCount - oldParticles;
+        stageCounts[oldStage.ordinal()]--;
+        stageCounts[b.stage.ordinal()]++;
+        massBins[massBin(oldMass)]--;
+        massBins[massBin(b.mass)]++;
+        offer(b);
+    }
+
+    /** Uncount a body leaving the disk. */
+    void removed(Body b) {
+        if (b.isSun) return;
+        bodies--;
+        particles -= b.particleCount;
+        stageCounts[b.stage.ordinal()]--;
+        massBins[massBin(b.mass)]--;
+        if (b.name != null) planets--;
+        if (b == largest) {
+            // whatever absorbed it outweighs it, so the grew() that follows a merge restores this
+            largest = null;
+            lost = true;
+            lostMass = b.mass;
+        }
+    }
+
+    /** Make a body that was added or grew the largest if it now is. */
+    private void offer(Body b) {
+        if (largest == null ? !lost || b.mass >= lostMass : b.mass > largest.mass) {
+            largest = b;
+            lost = false;
+        }
+    }
+
+    /**
+     * Start a radial pass over the bodies.
+     *
+     * @param sun    the sun
+     * @param width  view width
+     * @param height view height
+     */
+    void beginRadial(Body sun, int width, int height) {
+        float side = Math.min(width, height);
+        sunX = sun.x;
+        sunY = sun.y;
+        ringWidth = Math.max(1f, side * 0.6f / RADIAL_BINS);
+        float nearR = side * 0.18f;
+        nearSq = nearR * nearR;
+        java.util.Arrays.fill(radialPass, 0);
+        nearPass = 0;
+        rescan = lost;
+    }
+
+    /** Add one non-sun body to the radial pass; also finds the largest body again if it was lost. */
+    void radial(Body b) {
+        float dx = b.x - sunX;
+        float dy = b.y - sunY;
+        float d2 = dx * dx + dy * dy;
+        if (d2 < nearSq) nearPass++;
+        radialPass[Math.min(RADIAL_BINS - 1, (int) (Math.sqrt(d2) / ringWidth))]++;
+        if (rescan && (largest == null || b.mass > largest.mass)) largest = b;
+    }
+
+    /** Finish the radial pass; its profile becomes current. */
+    void endRadial() {
+        int[] done = radialPass;
+        radialPass = radial;
+        radial = done;
+        near = nearPass;
+        if (rescan) lost = false;
+        rescan = false;
+    }
+
+    /** @return bodies near the sun as of the last radial pass. */
+    int denseNearSun() {
+        return near;
+    }
+
+    /** @return particles over every non-sun body; read with the bodies lock held. */
+    long particles() {
+        return particles;
+    }
+
+    /**
+     * Publish this tick's statistics and keep a time series sample every {@link #SAMPLE_TICKS} ticks.
+     *
+     * @param tick   physics tick that just finished
+     * @param merges merges resolved during it
+     * @param all    every body, sun first, for finding the largest again if it was lost this tick
+     */
+    void endTick(long tick, int merges, List<Body> all) {
+        mergeRate += (merges - mergeRate) * MERGE_ALPHA;
+        if (lost) {
+            largest = null;
+            for (int i = 1; i < all.size(); i++) {
+                Body b = all.get(i);
+                if (!b.ghost && !b.removed && (largest == null || b.mass > largest.mass)) largest = b;
+            }
+            lost = false;
+        }
+        if (planets > 0 && firstPlanetTick < 0) firstPlanetTick = tick;
+        Body big = largest;
+        Stats stats = new Stats(tick, System.currentTimeMillis(), bodies, particles, stageCounts.clone(),
+                massBins.clone(), radial.clone(), near, mergeRate,
+                big == null ? 0f : big.mass, big == null ? null : big.name, planets, firstPlanetTick);
+        latest = stats;
+        if (tick % SAMPLE_TICKS == 0) {
+            synchronized (history) {
+                if (history.size() == HISTORY) history.removeFirst();
+                history.addLast(stats);
+            }
+        }
+    }
+
+    /** @return statistics as of the last tick; safe from any thread. */
+    public Stats latest() {
+        return latest;
+    }
+
+    /** @return time series samples, oldest first. */
+    public List<Stats> history() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    /**
+     * Write the time series to a file: JSON if the name ends in {@code .json}, CSV otherwise.
+     *
+     * @param file destination, overwritten
+     */
+    public void export(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (file.getFileName().toString().endsWith(".json")) {
+                writeJson(out);
+            } else {
+                writeCsv(out);
+            }
+        }
+    }
+
+    /** Write the time series as CSV, one row per sample with a header row. */
+    public void writeCsv(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder("tick,timeMillis,bodies,particles");
+        for (Stage s : Stage.values()) sb.append(',').append(s.name().toLowerCase());
+        sb.append(",mergesPerTick,largestMass,largestName,planets,denseNearSun");
+        for (int i = 0; i < MASS_BINS; i++) sb.append(",mass").append(i);
+        for (int i = 0; i < RADIAL_BINS; i++) sb.append(",ring").append(i);
+        out.write(sb.append('\n').toString());
+        for (Stats s : history()) {
+            sb.setLength(0);
+            sb.append(s.tick()).append(',').append(s.timeMillis()).append(',').append(s.bodies())
+                    .append(',').append(s.particles());
+            for (int c : s.stageCounts()) sb.append(',').append(c);
+            sb.append(',').append(String.format(Locale.ROOT, "%.3f", s.mergesPerTick())).append(',').append(s.largestMass())
+                    .append(',').append(s.largestName() == null ? "" : s.largestName().replace(',', ' '))
+                    .append(',').append(s.planets()).append(',').append(s.denseNearSun());
+            for (int c : s.massHistogram()) sb.append(',').append(c);
+            for (int c : s.radialProfile()) sb.append(',').append(c);
+            out.write(sb.append('\n').toString());
+        }
+    }
+
+    /** Write the time series as a JSON array of sample objects. */
+    public void writeJson(Writer out) throws IOException {
+        out.write("[\n");
+        List<Stats> samples = history();
+        for (int i = 0; i < samples.size(); i++) {
+            Stats s = samples.get(i);
+            StringBuilder sb = new StringBuilder("  {");
+            sb.append("\"tick\":").append(s.tick())
+                    .append(",\"timeMillis\":").append(s.timeMillis())
+                    .append(",\"bodies\":").append(s.bodies())
+                    .append(",\"particles\":").append(s.particles())
+                    .append(",\"stages\":{");
+            for (Stage st : Stage.values()) {
+                if (st.ordinal() > 0) sb.append(',');
+                sb.append('"').append(st.name().toLowerCase()).append("\":").append(s.stageCounts()[st.ordinal()]);
+            }
+            sb.append("},\"mergesPerTick\":").append(String.format(Locale.ROOT, "%.3f", s.mergesPerTick()))
+                    .append(",\"largestMass\":").append(s.largestMass())
+                    .append(",\"largestName\":").append(s.largestName() == null ? "null" : quote(s.largestName()))
+                    .append(",\"planets\":").append(s.planets())
+                    .append(",\"denseNearSun\":").append(s.denseNearSun());
+            appendArray(sb.append(",\"massHistogram\":"), s.massHistogram());
+            appendArray(sb.append(",\"radialProfile\":"), s.radialProfile());
+            sb.append(i + 1 < samples.size() ? "},\n" : "}\n");
+            out.write(sb.toString());
+        }
+        out.write("]\n");
+    }
+
+    /** Log2 mass bin of a mass. */
+    static int massBin(float mass) {
+        return Math.max(0, Math.min(MASS_BINS - 1, Math.getExponent(mass) + 2));
+    }
+
+    private static void appendArray(StringBuilder sb, int[] values) {
+        sb.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(values[i]);
+        }
+        sb.append(']');
+    }
+
+    private static String quote(String s) {
+        return '"' + s.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
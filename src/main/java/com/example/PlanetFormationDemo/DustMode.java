@@ -0,0 +1,11 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * How dust grains are drawn.
+ */
+public enum DustMode {
+    /** Antialiased Java2D ovals per grain. */
+    VECTOR,
+    /** Additive point sprites written straight into the frame's int raster. */
+    SPLAT
+}
@@ -0,0 +1,311 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Writes dust grains straight into the int raster of a {@code TYPE_INT_RGB} frame as additive
+ * point sprites. Rows are split into strips rendered in parallel; each strip only touches its own
+ * rows, so there is no locking and no per-grain allocation. Strips walk only the grid cells they
+ * overlap, and dense tiles of an optional {@link DensityPyramid} level are splatted as one patch.
+ *
+ * <p>Each calling thread keeps its own batch of strip tasks and is handed them again every frame,
+ * so splatting allocates nothing once the batch has grown to the frame's strip count. Several
+ * threads (e.g. offscreen tiles) may splat at once.
+ */
+public class DustSplatter {
+    /** Rows per parallel strip. */
+    private static final int STRIP_ROWS = 32;
+    /** Brightness gain applied to the screen area a grain covers. */
+    private static final float GAIN = 1.1f;
+    /** World-space slack around a strip so grains straddling its edge are included. */
+    private static final float GRAIN_MARGIN = 3f;
+    /** Generous bound on how far a grain moves in one step; widens strip culling while interpolating. */
+    private static final float MAX_GRAIN_STEP = 16f;
+    /** Cap on patch brightness; additive blending saturates long before this. */
+    private static final float MAX_PATCH_WEIGHT = 4f;
+
+    /** Per-thread frame parameters and strip tasks. */
+    private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+
+    /** One splat call's parameters, shared by its strips, and the strip tasks reused across calls. */
+    private final class Batch {
+        int[] pixels;
+        int stride;
+        SimulationSnapshot.DustField dust;
+        DensityPyramid pyramid;
+        int level;
+        float minCover;
+        float scale;
+        float offsetX;
+        float offsetY;
+        float lag;
+        float margin;
+        /** Screen region written. */
+        int x0;
+        int x1;
+        int y0;
+        int y1;
+        /** Strip tasks; grown to the largest strip count seen. */
+        Strip[] strips = new Strip[0];
+
+        /** Splat strip {@code s} of this batch. */
+        int splatStrip(int s) {
+            int sy0 = y0 + s * STRIP_ROWS;
+            int sy1 = Math.min(y1, sy0 + STRIP_ROWS);
+            float wx0 = (x0 - offsetX) / scale - margin;
+            float wx1 = (x1 - offsetX) / scale + margin;
+            float wy0 = (sy0 - offsetY) / scale - margin;
+            float wy1 = (sy1 - offsetY) / scale + margin;
+            if (pyramid == null) {
+                return splatCells(pixels, stride, dust, dust.colOf(wx0), dust.colOf(wx1), dust.rowOf(wy0),
+                        dust.rowOf(wy1), scale, offsetX, offsetY, lag, x0, x1, sy0, sy1);
+            }
+            int drawn = 0;
+            int ts = pyramid.tileSize(level);
+            int tc0 = dust.colOf(wx0) >> level;
+            int tc1 = dust.colOf(wx1) >> level;
+            int tr0 = dust.rowOf(wy0) >> level;
+            int tr1 = dust.rowOf(wy1) >> level;
+            int span = 1 << level;
+            for (int tr = tr0; tr <= tr1; tr++) {
+                for (int tc = tc0; tc <= tc1; tc++) {
+                    if (pyramid.count(level, tc, tr) == 0) continue;
+                    float cover = pyramid.coverage(level, tc, tr);
+                    if (cover >= minCover) {
+                        splatPatch(pixels, stride, pyramid.averageRgb(level, tc, tr),
+                                Math.min(MAX_PATCH_WEIGHT, cover * GAIN),
+                                tc * ts * scale + offsetX, tr * ts * scale + offsetY, ts * scale, x0, x1, sy0, sy1);
+                        drawn++;
+                    } else {
+                        int c0 = Math.max(tc * span, dust.colOf(wx0));
+                        int c1 = Math.min(tc * span + span - 1, dust.colOf(wx1));
+                        int r0 = Math.max(tr * span, dust.rowOf(wy0));
+                        int r1 = Math.min(tr * span + span - 1, dust.rowOf(wy1));
+                        drawn += splatCells(pixels, stride, dust, c0, c1, r0, r1, scale, offsetX, offsetY, lag,
+                                x0, x1, sy0, sy1);
+                    }
+                }
+            }
+            return drawn;
+        }
+
+        /** Make sure there are {@code count} strip tasks, ready to fork again. */
+        void prepare(int count) {
+            if (strips.length < count) {
+                Strip[] grown = Arrays.copyOf(strips, count);
+                for (int i = strips.length; i < count; i++) grown[i] = new Strip(this, i);
+                strips = grown;
+            }
+            for (int i = 0; i < count; i++) strips[i].reinitialize();
+        }
+
+        /** Release the frame's data so an idle thread does not pin the last snapshot. */
+        void clear() {
+            pixels = null;
+            dust = null;
+            pyramid = null;
+        }
+    }
+
+    /** One strip of a batch, forked into the common pool. */
+    private static final class Strip extends RecursiveAction {
+        /** Batch the strip belongs to. */
+        private final Batch batch;
+        /** Strip number within the batch. */
+        private final int index;
+        /** Grains and patches splatted by the last run. */
+        int drawn;
+
+        Strip(Batch batch, int index) {
+            this.batch = batch;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            drawn = batch.splatStrip(index);
+        }
+    }
+
+    /**
+     * Splat dust into a frame.
+     *
+     * @param frame    target image; must be a top-level {@code TYPE_INT_RGB} image
+     * @param dust     packed, grid-sorted dust grains in world coordinates
+     * @param pyramid  density pyramid for level-of-detail, or null to always draw grains
+     * @param level    pyramid level to aggregate at (ignored without a pyramid)
+     * @param minCover tile coverage at or above which a tile is drawn as one patch
+     * @param scale    world-to-screen scale (zoom)
+     * @param offsetX  screen x of world origin
+     * @param offsetY  screen y of world origin
+     * @param lag      physics steps to rewind grains along their velocity, in [0, 1]
+     * @param clip     screen-space region to write, or null for the whole frame
+     * @return grains and patches splatted
+     */
+    public int splat(BufferedImage frame, SimulationSnapshot.DustField dust, DensityPyramid pyramid,
+                      int level, float minCover, float scale, float offsetX, float offsetY, float lag, Rectangle clip) {
+        if (frame.getType() != BufferedImage.TYPE_INT_RGB) {
+            throw new IllegalArgumentException("Splatting needs a TYPE_INT_RGB frame");
+        }
+        if (dust.count() == 0) return 0;
+        int x0 = 0;
+        int y0 = 0;
+        int x1 = frame.getWidth();
+        int y1 = frame.getHeight();
+        if (clip != null) {
+            x0 = Math.max(x0, clip.x);
+            y0 = Math.max(y0, clip.y);
+            x1 = Math.min(x1, clip.x + clip.width);
+            y1 = Math.min(y1, clip.y + clip.height);
+        }
+        if (x1 <= x0 || y1 <= y0) return 0;
+        Batch b = batches.get();
+        // Grabbing the array marks the image untrackable; frames are software-rendered anyway.
+        b.pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        b.stride = ((SinglePixelPackedSampleModel) frame.getSampleModel()).getScanlineStride();
+        b.dust = dust;
+        b.pyramid = pyramid;
+        b.level = level;
+        b.minCover = minCover;
+        b.scale = scale;
+        b.offsetX = offsetX;
+        b.offsetY = offsetY;
+        b.lag = lag;
+        b.margin = GRAIN_MARGIN + lag * MAX_GRAIN_STEP;
+        b.x0 = x0;
+        b.x1 = x1;
+        b.y0 = y0;
+        b.y1 = y1;
+        int count = (y1 - y0 + STRIP_ROWS - 1) / STRIP_ROWS;
+        int drawn;
+        if (count == 1) {
+            drawn = b.splatStrip(0);
+        } else {
+            b.prepare(count);
+            Strip[] strips = b.strips;
+            for (int i = count - 1; i > 0; i--) strips[i].fork();
+            drawn = b.splatStrip(0);
+            for (int i = 1; i < count; i++) {
+                strips[i].join();
+                drawn += strips[i].drawn;
+            }
+        }
+        b.clear();
+        return drawn;
+    }
+
+    /**
+     * Splat the grains of grid cells [c0..c1] x [r0..r1]; each cell row is one contiguous index range.
+     *
+     * @return grains that touched the strip
+     */
+    private int splatCells(int[] pixels, int stride, SimulationSnapshot.DustField dust, int c0, int c1, int r0, int r1,
+                            float scale, float offsetX, float offsetY, float lag, int x0, int x1, int y0, int y1) {
+        int[] start = dust.cellStart();
+        int drawn = 0;
+        for (int row = r0; row <= r1; row++) {
+            int from = start[row * dust.cols() + c0];
+            int to = start[row * dust.cols() + c1 + 1];
+            drawn += splatGrains(pixels, stride, dust, from, to, scale, offsetX, offsetY, lag, x0, x1, y0, y1);
+        }
+        return drawn;
+    }
+
+    /**
+     * Fill an aggregated density tile as a flat additive patch, clipped to the strip.
+     */
+    private void splatPatch(int[] pixels, int stride, int rgb, float weight, float sx, float sy, float size,
+                            int x0, int x1, int y0, int y1) {
+        int cr = (rgb >> 16) & 0xFF;
+        int cg = (rgb >> 8) & 0xFF;
+        int cb = rgb & 0xFF;
+        int px0 = Math.max(x0, Math.round(sx));
+        int px1 = Math.min(x1, Math.round(sx + size));
+        int py0 = Math.max(y0, Math.round(sy));
+        int py1 = Math.min(y1, Math.round(sy + size));
+        for (int py = py0; py < py1; py++) {
+            for (int px = px0; px < px1; px++) {
+                add(pixels, stride, px, py, weight, cr, cg, cb, x0, x1, y0, y1);
+            }
+        }
+    }
+
+    /**
+     * Splat grains [from, to) that overlap rows [y0, y1) and columns [x0, x1).
+     *
+     * @return grains splatted
+     */
+    private int splatGrains(int[] pixels, int stride, SimulationSnapshot.DustField dust, int from, int to,
+                             float scale, float offsetX, float offsetY, float lag, int x0, int x1, int y0, int y1) {
+        float[] xs = dust.x();
+        float[] ys = dust.y();
+        float[] vxs = dust.vx();
+        float[] vys = dust.vy();
+        float[] rs = dust.radius();
+        int[] rgb = dust.rgb();
+        int drawn = 0;
+        for (int i = from; i < to; i++) {
+            float sy = (ys[i] - vys[i] * lag) * scale + offsetY;
+            float r = rs[i] * scale;
+            if (sy + r + 1f < y0 || sy - r - 1f >= y1) continue;
+            float sx = (xs[i] - vxs[i] * lag) * scale + offsetX;
+            if (sx + r + 1f < x0 || sx - r - 1f >= x1) continue;
+            drawn++;
+            int c = rgb[i];
+            int cr = (c >> 16) & 0xFF;
+            int cg = (c >> 8) & 0xFF;
+            int cb = c & 0xFF;
+            if (r <= 1f) {
+                // Sub-pixel grain: spread its covered area bilinearly over the 2x2 neighbourhood
+                float energy = (float) Math.PI * r * r * GAIN;
+                float fx = sx - 0.5f;
+                float fy = sy - 0.5f;
+                int ix = (int) Math.floor(fx);
+                int iy = (int) Math.floor(fy);
+                float tx = fx - ix;
+                float ty = fy - iy;
+                add(pixels, stride, ix, iy, (1 - tx) * (1 - ty) * energy, cr, cg, cb, x0, x1, y0, y1);
+                add(pixels, stride, ix + 1, iy, tx * (1 - ty) * energy, cr, cg, cb, x0, x1, y0, y1);
+                add(pixels, stride, ix, iy + 1, (1 - tx) * ty * energy, cr, cg, cb, x0, x1, y0, y1);
+                add(pixels, stride, ix + 1, iy + 1, tx * ty * energy, cr, cg, cb, x0, x1, y0, y1);
+            } else {
+                // Zoomed-in grain: small disc with a one-pixel soft edge
+                int px0 = Math.max(x0, (int) Math.floor(sx - r));
+                int px1 = Math.min(x1 - 1, (int) Math.ceil(sx + r));
+                int py0 = Math.max(y0, (int) Math.floor(sy - r));
+                int py1 = Math.min(y1 - 1, (int) Math.ceil(sy + r));
+                for (int py = py0; py <= py1; py++) {
+                    float ddy = py + 0.5f - sy;
+                    for (int px = px0; px <= px1; px++) {
+                        float ddx = px + 0.5f - sx;
+                        float cover = r + 0.5f - (float) Math.sqrt(ddx * ddx + ddy * ddy);
+                        if (cover <= 0f) continue;
+                        add(pixels, stride, px, py, Math.min(1f, cover) * GAIN, cr, cg, cb, x0, x1, y0, y1);
+                    }
+                }
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Saturating additive blend of a weighted color into one pixel, ignoring pixels outside the strip.
+     */
+    private static void add(int[] pixels, int stride, int x, int y, float weight, int cr, int cg, int cb,
+                            int x0, int x1, int y0, int y1) {
+        if (x < x0 || x >= x1 || y < y0 || y >= y1) return;
+        int w = (int) (weight * 256f);
+        if (w <= 0) return;
+        int idx = y * stride + x;
+        int p = pixels[idx];
+        int r = Math.min(255, ((p >> 16) & 0xFF) + ((cr * w) >> 8));
+        int g = Math.min(255, ((p >> 8) & 0xFF) + ((cg * w) >> 8));
+        int b = Math.min(255, (p & 0xFF) + ((cb * w) >> 8));
+        pixels[idx] = (r << 16) | (g << 8) | b;
+    }
+}
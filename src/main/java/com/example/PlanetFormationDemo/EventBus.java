@@ -0,0 +1,243 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves simulation events off the physics thread. Producers (always holding the simulation's
+ * bodies lock, so there is one writer at a time) append fixed-size entries to a preallocated ring
+ * buffer; {@link #endTick} closes the tick. A dispatcher thread drains the ring, coalesces each
+ * tick into one {@link TickSummary}, and turns it into at most one caption and a few sound cues,
+ * applying chime rate limiting there rather than in the collision loop. The chime cooldown is an
+ * entry on the simulation's {@link TickScheduler}, so it spans simulated ticks, not wall time.
+ */
+public class EventBus {
+    /** Ring capacity (power of two). */
+    private static final int CAPACITY = 1024;
+    /** Index mask for the ring. */
+    private static final int MASK = CAPACITY - 1;
+    /** Minimum spacing between merge chimes, in ticks. */
+    private static final long CHIME_GAP_TICKS = TickScheduler.ticks(150);
+    /** Dispatcher wake-up when no tick arrives (delivers events from a stalled or stopped loop). */
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+
+    /** Entry kinds. */
+    enum Kind {
+        /** Merge involving a named or large body; no payload. */
+        NOTABLE_MERGE,
+        /** Named planet changed stage; ref = name, arg = stage ordinal. */
+        STAGE,
+        /** Body became a named planet; ref = name. */
+        PLANET,
+        /** Comet launched; no payload. */
+        COMET,
+        /** Free-form caption; ref = text, arg = duration in ms. */
+        CAPTION,
+        /** End of tick; arg = merges, arg2 = tick number. */
+        TICK
+    }
+
+    /** Ring entries. */
+    private final Kind[] kinds = new Kind[CAPACITY];
+    private final Object[] refs = new Object[CAPACITY];
+    private final int[] args = new int[CAPACITY];
+    private final int[] args2 = new int[CAPACITY];
+    /** Next entry to read (dispatcher only writes it). */
+    private volatile long head;
+    /** Next entry to write (producers only write it). */
+    private volatile long tail;
+    /** Entries published since the last tick marker (producer side). */
+    private int pendingSinceTick;
+    /** Entries dropped since the last tick marker (producer side). */
+    private int droppedSinceTick;
+    /** Entries dropped so far, published with each tick marker. */
+    private volatile int droppedTotal;
+
+    /** Listeners receiving coalesced events. */
+    private final CopyOnWriteArrayList<SimulationListener> listeners = new CopyOnWriteArrayList<>();
+    /** Dispatcher thread, or null when stopped. */
+    private volatile Thread dispatcher;
+
+    /** Dispatcher-side accumulators for the tick being drained. */
+    private int notableMerges;
+    private int comets;
+    private int stageChanges;
+    private final List<String> newPlanets = new ArrayList<>();
+    private String stageName;
+    private Stage stage;
+    private String caption;
+    private int captionMs;
+    /** Dropped total already reported in a summary (dispatcher only). */
+    private int droppedReported;
+    /** Wheel the chime cooldown runs on. */
+    private final TickScheduler timers;
+    /** Set by a chime and cleared by its cooldown entry on the wheel. */
+    private volatile boolean chimeCooling;
+
+    /** @param timers wheel of the simulation publishing into this bus */
+    public EventBus(TickScheduler timers) {
+        this.timers = timers;
+    }
+
+    /** Register a listener; starts the dispatcher on first use. */
+    public synchronized void addListener(SimulationListener listener) {
+        listeners.add(listener);
+        if (dispatcher == null) {
+            Thread t = new Thread(this::dispatchLoop, "SimulationEvents");
+            t.setDaemon(true);
+            dispatcher = t;
+            t.start();
+        }
+    }
+
+    /** Stop the dispatcher; undelivered events are discarded. */
+    public synchronized void stop() {
+        Thread t = dispatcher;
+        dispatcher = null;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    /**
+     * Append one entry; drops it if the ring is full. Caller must hold the bodies lock.
+     */
+    void publish(Kind kind, Object ref, int arg) {
+        long t = tail;
+        if (t - head == CAPACITY) {
+            droppedSinceTick++;
+            return;
+        }
+        int idx = (int) t & MASK;
+        kinds[idx] = kind;
+        refs[idx] = ref;
+        args[idx] = arg;
+        tail = t + 1;
+        pendingSinceTick++;
+    }
+
+    /**
+     * Close a tick and wake the dispatcher if anything happened. Caller must hold the bodies lock.
+     *
+     * @param tick   physics tick number
+     * @param merges merges resolved during the tick (counted by the caller, not queued one by one)
+     */
+    void endTick(int tick, int merges) {
+        if (pendingSinceTick == 0 && merges == 0 && droppedSinceTick == 0) return;
+        long t = tail;
+        if (t - head == CAPACITY) return; // entries stay queued and close with the next tick
+        int idx = (int) t & MASK;
+        kinds[idx] = Kind.TICK;
+        refs[idx] = null;
+        args[idx] = merges;
+        args2[idx] = tick;
+        tail = t + 1;
+        droppedTotal += droppedSinceTick;
+        pendingSinceTick = 0;
+        droppedSinceTick = 0;
+        Thread d = dispatcher;
+        if (d != null) LockSupport.unpark(d);
+    }
+
+    /**
+     * Dispatcher loop: drain entries, delivering a summary at each tick marker, or whatever has
+     * accumulated when the producer goes quiet.
+     */
+    private void dispatchLoop() {
+        while (dispatcher == Thread.currentThread()) {
+            long h = head;
+            if (h == tail) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                if (head == tail && hasPending()) deliver(-1, 0);
+                continue;
+            }
+            int idx = (int) h & MASK;
+            Kind kind = kinds[idx];
+            Object ref = refs[idx];
+            int arg = args[idx];
+            int arg2 = args2[idx];
+            refs[idx] = null;
+            head = h + 1;
+            switch (kind) {
+                case NOTABLE_MERGE -> notableMerges++;
+                case STAGE -> {
+                    stageChanges++;
+                    stageName = (String) ref;
+                    stage = Stage.values()[arg];
+                }
+                case PLANET -> newPlanets.add((String) ref);
+                case COMET -> comets++;
+                case CAPTION -> {
+                    caption = (String) ref;
+                    captionMs = arg;
+                }
+                case TICK -> deliver(arg2, arg);
+            }
+        }
+    }
+
+    /** @return true if events are waiting for a tick marker. */
+    private boolean hasPending() {
+        return notableMerges + stageChanges + comets + newPlanets.size() > 0 || caption != null;
+    }
+
+    /**
+     * Turn the accumulated tick into listener calls: one caption (new planets first, then stage
+     * changes, comets, other captions), a comet whoosh, and a rate-limited merge chime.
+     */
+    private void deliver(int tick, int merges) {
+        int droppedNow = droppedTotal;
+        int dropped = droppedNow - droppedReported;
+        droppedReported = droppedNow;
+        TickSummary summary = new TickSummary(tick, merges, notableMerges, newPlanets.size(), stageChanges,
+                comets, dropped);
+
+        String text = null;
+        int ms = 0;
+        if (!newPlanets.isEmpty()) {
+            text = newPlanets.size() == 1
+                    ? "New planet: " + newPlanets.get(0) + "!"
+                    : newPlanets.size() + " new planets: " + String.join(", ", newPlanets) + "!";
+            ms = 3000;
+        } else if (stageName != null) {
+            text = stageCaption(stageName, stage);
+            ms = 2500;
+        } else if (comets > 0) {
+            text = "Comet incoming!";
+            ms = 2200;
+        } else if (caption != null) {
+            text = caption;
+            ms = captionMs;
+        }
+        boolean chime = false;
+        if (notableMerges > 0 && !chimeCooling) {
+            chimeCooling = true;
+            timers.schedule(CHIME_GAP_TICKS, () -> chimeCooling = false);
+            chime = true;
+        }
+        for (SimulationListener l : listeners) {
+            if (comets > 0) l.onSound(SoundEvent.COMET);
+            if (chime) l.onSound(SoundEvent.MERGE);
+            if (text != null) l.onCaption(text, ms);
+            l.onTick(summary);
+        }
+
+        notableMerges = 0;
+        comets = 0;
+        stageChanges = 0;
+        newPlanets.clear();
+        stageName = null;
+        stage = null;
+        caption = null;
+    }
+
+    /** Kid-friendly caption for a stage change. */
+    private static String stageCaption(String name, Stage stage) {
+        return switch (stage) {
+            case ROCK -> name + " is rocky!";
+            case OCEAN -> name + " is sloshy with oceans!";
+            case GARDEN -> name + " is turning green!";
+            case MYSTERY -> name + " is a mystery world now!";
+        };
+    }
+}
@@ -11,9 +11,35 @@ public final class FormatUtil {
      * Human-friendly counter formatting (k/M).
      */
     public static String formatCount(long n) {
-        if (n >= 1_000_000) return String.format("%.1fM", n / 1_000_000.0);
-        if (n >= 10_000) return String.format("%.1fk", n / 1_000.0);
-        if (n >= 1_000) return String.format("%.1fk", n / 1_000.0);
-        return Long.toString(n);
+        return appendCount(new StringBuilder(8), n).toString();
+    }
+
+    /**
+     * Append {@link #formatCount(long)} output to a reusable builder without allocating.
+     *
+     * @return the same builder
+     */
+    public static StringBuilder appendCount(StringBuilder sb, long n) {
+        if (n >= 1_000_000) return appendTenths(sb, Math.round(n / 100_000.0)).append('M');
+        if (n >= 1_000) return appendTenths(sb, Math.round(n / 100.0)).append('k');
+        return sb.append(n);
+    }
+
+    /**
+     * Bucket that changes exactly when {@link #formatCount(long)} output changes; handy as a cache key.
+     */
+    public static long countBucket(long n) {
+        if (n >= 1_000_000) return -Math.round(n / 100_000.0) - 1;
+        if (n >= 1_000) return Math.round(n / 100.0) + 1_000_000;
+        return n;
+    }
+
+    /**
+     * Append a value given in tenths with exactly one decimal (e.g. 12 as "1.2").
+     *
+     * @return the same builder
+     */
+    public static StringBuilder appendTenths(StringBuilder sb, long tenths) {
+        return sb.append(tenths / 10).append('.').append(tenths % 10);
     }
 }
@@ -0,0 +1,173 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+
+/**
+ * Composes one on-screen frame from the latest published simulation state: the cached static
+ * layer, interpolated dust and bodies, then the cached HUD. Shared by the passive
+ * {@link RenderPanel} and the actively rendered {@link RenderCanvas}; only one thread composes at a time.
+ */
+public class FrameComposer {
+    /** Simulation driving metrics and input tracing, and drawn until the source publishes. */
+    private final Simulation simulation;
+    /** Where published states come from: the simulation itself, or a ring written by another process. */
+    private volatile SnapshotSource source;
+    /** Provides rotating story captions. */
+    private final CaptionManager captions;
+    /** Supplies the currently active tool for HUD display. */
+    private final RenderPanel.ToolModeProvider toolProvider;
+    /** Supplies HUD state (auto-comet flag). */
+    private final RenderPanel.HudInfoProvider hudProvider;
+    /** Shared snapshot painter (also used by the offscreen renderer). */
+    private final SnapshotPainter painter = new SnapshotPainter();
+    /** Cached background/ring and HUD layers. */
+    private final FrameLayers layers = new FrameLayers(painter);
+    /** View zoom factor (render-only); written on the EDT, read by the composing thread. */
+    private volatile float zoomFactor = 1.0f;
+    /** Software frame used when dust is splatted into a raster; recreated on resize. */
+    private BufferedImage frame;
+    /** Time spent composing frames. */
+    private final LoadMeter frameMeter = new LoadMeter();
+    /** Whether the metrics overlay is shown. */
+    private volatile boolean metricsOverlay;
+    /** Input sequence of the snapshot behind the last composed frame (composing thread only). */
+    private long composedInputSeq;
+
+    /**
+     * Construct a composer bound to a simulation and HUD providers.
+     */
+    public FrameComposer(Simulation simulation, CaptionManager captions,
+                         RenderPanel.ToolModeProvider toolProvider, RenderPanel.HudInfoProvider hudProvider) {
+        this.simulation = simulation;
+        this.source = simulation;
+        this.captions = captions;
+        this.toolProvider = toolProvider;
+        this.hudProvider = hudProvider;
+    }
+
+    /**
+     * Compose a frame covering {@code w x h} pixels of {@code g2}.
+     *
+     * @param g2 target graphics; every pixel is overwritten
+     * @param gc configuration for volatile layer surfaces, or null for BufferedImage layers
+     * @param w  frame width
+     * @param h  frame height
+     */
+    public void compose(Graphics2D g2, GraphicsConfiguration gc, int w, int h) {
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Simulation.Frames frames = source.latestFrames();
+        SimulationSnapshot snap = frames != null ? frames.current() : simulation.snapshot();
+        float lag = interpolationLag(frames, System.nanoTime());
+        float zoom = zoomFactor;
+        String caption = captions.currentCaption();
+        ToolMode tool = toolProvider.currentTool();
+        boolean autoComets = hudProvider.autoComets();
+        composedInputSeq = snap.inputSeq();
+        do {
+            if (painter.effectiveDustMode() == DustMode.SPLAT) {
+                // Splatting needs the int raster, so compose into our own frame and blit it
+                BufferedImage img = frameFor(w, h);
+                Graphics2D fg = img.createGraphics();
+                fg.drawImage(layers.staticLayer(null, snap, w, h, zoom), 0, 0, null);
+                painter.paintBodies(fg, snap, w, h, zoom, lag, img);
+                fg.dispose();
+                g2.drawImage(img, 0, 0, null);
+            } else {
+                g2.drawImage(layers.staticLayer(gc, snap, w, h, zoom), 0, 0, null);
+                painter.paintBodies(g2, snap, w, h, zoom, lag, null);
+            }
+            g2.drawImage(layers.hudLayer(gc, w, caption, tool, autoComets, zoom), 0, 0, null);
+            painter.paintHudCounters(g2, snap);
+            if (metricsOverlay) {
+                g2.drawImage(layers.metricsLayer(gc, simulation.metrics()),
+                        w - FrameLayers.METRICS_WIDTH - 12, 12, null);
+            }
+        } while (layers.contentsLost());
+        long end = System.nanoTime();
+        frameMeter.record(end - start);
+        simulation.metrics().record(PhysicsMetrics.Probe.PAINT, end - start, end);
+        if (event.shouldCommit()) {
+            event.width = w;
+            event.height = h;
+            event.dustMode = painter.effectiveDustMode().name();
+            event.lodLevel = painter.lodLevel();
+            event.bodiesDrawn = painter.bodiesDrawn();
+            event.dustDrawn = painter.dustDrawn();
+            event.zoom = zoom;
+            event.commit();
+        }
+    }
+
+    /**
+     * Report that the last composed frame is on screen, completing the latency trace of every
+     * tool input it shows. Call from the composing thread.
+     */
+    public void framePresented() {
+        simulation.inputLatency().presented(composedInputSeq, System.nanoTime());
+    }
+
+    /**
+     * Draw states from another source, e.g. a {@link SnapshotRingReader} attached to a simulation
+     * in another process, instead of the local simulation.
+     */
+    public void setSource(SnapshotSource source) {
+        this.source = source;
+    }
+
+    /** @return smoothed time spent in {@link #compose}. */
+    public LoadMeter frameMeter() {
+        return frameMeter;
+    }
+
+    /** Replace the render quality knobs (see {@link SnapshotPainter.RenderQuality}). */
+    public void setRenderQuality(SnapshotPainter.RenderQuality quality) {
+        painter.setRenderQuality(quality);
+    }
+
+    /**
+     * Zoom the view in or out by one mouse-wheel notch.
+     *
+     * @param wheelRotation precise wheel rotation; negative zooms in
+     */
+    public void zoomBy(double wheelRotation) {
+        float factor = wheelRotation < 0 ? 1.1f : 0.9f;
+        zoomFactor = Math.max(0.4f, Math.min(3.0f, zoomFactor * factor));
+    }
+
+    /** Show or hide the per-phase metrics overlay. */
+    public void toggleMetricsOverlay() {
+        metricsOverlay = !metricsOverlay;
+    }
+
+    /** Flip dust between vector ovals and raster splatting. */
+    public void toggleDustMode() {
+        painter.setDustMode(painter.getDustMode() == DustMode.SPLAT ? DustMode.VECTOR : DustMode.SPLAT);
+    }
+
+    /**
+     * How far to rewind the current snapshot, in physics steps. The frame is shown one tick behind
+     * real time so it always falls between the two published states; 0 means draw the current one.
+     */
+    private static float interpolationLag(Simulation.Frames frames, long now) {
+        if (frames == null || frames.previous() == null) return 0f;
+        long prevTime = frames.previous().timeNanos();
+        long period = frames.current().timeNanos() - prevTime;
+        if (period <= 0) return 0f;
+        float alpha = (float) (now - period - prevTime) / period;
+        return 1f - Math.max(0f, Math.min(1f, alpha));
+    }
+
+    /**
+     * Return the reusable software frame, reallocating only when the view size changes.
+     */
+    private BufferedImage frameFor(int w, int h) {
+        if (frame == null || frame.getWidth() != w || frame.getHeight() != h) {
+            frame = new BufferedImage(Math.max(1, w), Math.max(1, h), BufferedImage.TYPE_INT_RGB);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.PlanetFormationDemo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering one composed frame, with what it drew; the recording's thread
+ * field tells EDT frames (passive rendering) from render-loop frames.
+ */
+@Name("com.example.PlanetFormationDemo.Frame")
+@Label("Render Frame")
+@Category({"Planet Formation", "Rendering"})
+@Description("One composed frame with draw counts")
+@StackTrace(false)
+public class FrameEvent extends jdk.jfr.Event {
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Dust Mode")
+    String dustMode;
+
+    @Label("LOD Level")
+    @Description("Density pyramid level dust was aggregated at, or -1 for every grain")
+    int lodLevel;
+
+    @Label("Bodies Drawn")
+    int bodiesDrawn;
+
+    @Label("Dust Drawn")
+    @Description("Dust grains plus aggregated LOD patches drawn")
+    int dustDrawn;
+
+    @Label("Zoom")
+    float zoom;
+}
@@ -0,0 +1,152 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.util.Objects;
+
+/**
+ * Cached layers for composing frames. The background gradient changes only on resize, the orbit
+ * rings only on resize/zoom, and the HUD only when its text changes, so each is kept as an image
+ * and redrawn when its inputs differ from the last redraw. Dust and planets move every frame and
+ * are drawn straight onto the composed frame between the static layer and the HUD, as are the
+ * HUD's body and dust counters, which merges change nearly every tick.
+ */
+public class FrameLayers {
+    /** Height of the HUD strip at the top of the frame. */
+    public static final int HUD_HEIGHT = 120;
+    /** Size of the metrics overlay. */
+    public static final int METRICS_WIDTH = 400;
+    public static final int METRICS_HEIGHT = 30 + 15 * PhysicsMetrics.Probe.values().length;
+
+    /** Painter used to fill layers. */
+    private final SnapshotPainter painter;
+    /** Background gradient. */
+    private final CachedLayer background = new CachedLayer(Transparency.OPAQUE);
+    /** Background with rings baked on top; blitted as the first thing each frame. */
+    private final CachedLayer rings = new CachedLayer(Transparency.OPAQUE);
+    /** HUD text strip. */
+    private final CachedLayer hud = new CachedLayer(Transparency.TRANSLUCENT);
+    /** Metrics overlay. */
+    private final CachedLayer metricsOverlay = new CachedLayer(Transparency.TRANSLUCENT);
+    /** Metrics generation at the last overlay redraw. */
+    private long metricsGeneration = -1;
+
+    /** Ring inputs at the last redraw. */
+    private float ringZoom = Float.NaN;
+    private float ringCx;
+    private float ringCy;
+
+    /** HUD inputs at the last redraw. */
+    private String hudCaption;
+    private ToolMode hudTool;
+    private boolean hudAutoComets;
+    private float hudZoom = Float.NaN;
+    private DustMode hudDustMode;
+    private DustMode hudEffectiveMode;
+
+    /**
+     * @param painter painter used to draw layer contents
+     */
+    public FrameLayers(SnapshotPainter painter) {
+        this.painter = painter;
+    }
+
+    /**
+     * Return the opaque background+rings layer, redrawing only what changed.
+     *
+     * @param gc   configuration for volatile surfaces, or null for BufferedImage layers
+     * @param snap snapshot providing the sun position
+     * @param w    frame width
+     * @param h    frame height
+     * @param zoom view zoom factor
+     */
+    public Image staticLayer(GraphicsConfiguration gc, SimulationSnapshot snap, int w, int h, float zoom) {
+        SimulationSnapshot.BodyView sun = snap.bodies().get(0);
+        if (zoom != ringZoom || sun.x() != ringCx || sun.y() != ringCy) {
+            ringZoom = zoom;
+            ringCx = sun.x();
+            ringCy = sun.y();
+            rings.invalidate();
+        }
+        if (background.prepare(gc, w, h)) {
+            Graphics2D g2 = background.createGraphics();
+            painter.paintBackground(g2, w, h);
+            g2.dispose();
+            rings.invalidate();
+        }
+        if (rings.prepare(gc, w, h)) {
+            Graphics2D g2 = rings.createGraphics();
+            g2.drawImage(background.image(), 0, 0, null);
+            painter.paintRings(g2, snap, w, h, zoom);
+            g2.dispose();
+        }
+        return rings.image();
+    }
+
+    /**
+     * Return the translucent HUD strip ({@link #HUD_HEIGHT} pixels tall), redrawn only when its text
+     * changes. The counters are left out; draw them over it with {@link SnapshotPainter#paintHudCounters}.
+     *
+     * @param gc         configuration for volatile surfaces, or null for a BufferedImage layer
+     * @param w          frame width
+     * @param caption    caption text
+     * @param tool       active tool
+     * @param autoComets auto-comet flag
+     * @param zoom       view zoom factor
+     */
+    public Image hudLayer(GraphicsConfiguration gc, int w, String caption,
+                          ToolMode tool, boolean autoComets, float zoom) {
+        DustMode mode = painter.getDustMode();
+        DustMode effective = painter.effectiveDustMode();
+        if (!Objects.equals(caption, hudCaption) || tool != hudTool || autoComets != hudAutoComets
+                || zoom != hudZoom || mode != hudDustMode || effective != hudEffectiveMode) {
+            hudCaption = caption;
+            hudTool = tool;
+            hudAutoComets = autoComets;
+            hudZoom = zoom;
+            hudDustMode = mode;
+            hudEffectiveMode = effective;
+            hud.invalidate();
+        }
+        if (hud.prepare(gc, w, HUD_HEIGHT)) {
+            Graphics2D g2 = hud.createGraphics();
+            painter.paintHud(g2, caption, tool, autoComets, zoom);
+            g2.dispose();
+        }
+        return hud.image();
+    }
+
+    /**
+     * Return the translucent metrics overlay ({@link #METRICS_WIDTH} x {@link #METRICS_HEIGHT}),
+     * redrawn only when a metric completes an interval.
+     *
+     * @param gc      configuration for volatile surfaces, or null for a BufferedImage layer
+     * @param metrics metrics to show
+     */
+    public Image metricsLayer(GraphicsConfiguration gc, PhysicsMetrics metrics) {
+        long generation = metrics.generation();
+        if (generation != metricsGeneration) {
+            metricsGeneration = generation;
+            metricsOverlay.invalidate();
+        }
+        if (metricsOverlay.prepare(gc, METRICS_WIDTH, METRICS_HEIGHT)) {
+            Graphics2D g2 = metricsOverlay.createGraphics();
+            painter.paintMetrics(g2, metrics, METRICS_WIDTH, METRICS_HEIGHT);
+            g2.dispose();
+        }
+        return metricsOverlay.image();
+    }
+
+    /**
+     * @return true if any volatile layer lost its contents; the frame should be composed again.
+     */
+    public boolean contentsLost() {
+        boolean lost = background.contentsLost();
+        lost |= rings.contentsLost();
+        lost |= hud.contentsLost();
+        lost |= metricsOverlay.contentsLost();
+        return lost;
+    }
+}
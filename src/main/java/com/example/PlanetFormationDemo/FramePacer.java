@@ -0,0 +1,79 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a render loop to fixed display refresh slots and counts frames that miss them. A frame
+ * is <em>late</em> when it finishes after the end of its slot; a slot is <em>dropped</em> when
+ * the loop falls so far behind that no frame starts in it at all.
+ */
+public class FramePacer {
+    /** Spin instead of parking for the last stretch before a slot; parking overshoots by ~0.1-1 ms. */
+    private static final long SPIN_NANOS = 500_000L;
+
+    /** Slot length in nanoseconds. */
+    private final long periodNanos;
+    /** Start of the next slot. */
+    private long nextSlot;
+    /** Start of the slot the current frame belongs to. */
+    private long slotStart;
+    /** Frames presented. */
+    private volatile long presented;
+    /** Frames that finished after their slot ended. */
+    private volatile long late;
+    /** Slots skipped without a frame. */
+    private volatile long dropped;
+
+    /**
+     * Counters since the pacer was created.
+     *
+     * @param refreshHz slot rate
+     * @param presented frames presented
+     * @param late      frames that finished after their slot ended
+     * @param dropped   slots skipped without a frame
+     */
+    public record Stats(int refreshHz, long presented, long late, long dropped) {}
+
+    /**
+     * @param refreshHz display refresh rate; slots are {@code 1/refreshHz} seconds long
+     */
+    public FramePacer(int refreshHz) {
+        this.periodNanos = 1_000_000_000L / Math.max(1, refreshHz);
+        this.nextSlot = System.nanoTime();
+    }
+
+    /**
+     * Wait for the start of the next slot, skipping (and counting) any slots already missed.
+     */
+    public void awaitSlot() {
+        long now = System.nanoTime();
+        if (now >= nextSlot) {
+            long missed = (now - nextSlot) / periodNanos;
+            dropped += missed;
+            nextSlot += missed * periodNanos;
+        } else {
+            long wait;
+            while ((wait = nextSlot - System.nanoTime()) > SPIN_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_NANOS);
+            }
+            while (System.nanoTime() < nextSlot) {
+                Thread.onSpinWait();
+            }
+        }
+        slotStart = nextSlot;
+        nextSlot += periodNanos;
+    }
+
+    /**
+     * Record that the frame started by the last {@link #awaitSlot()} has been presented.
+     */
+    public void framePresented() {
+        presented++;
+        if (System.nanoTime() > slotStart + periodNanos) late++;
+    }
+
+    /** @return counters so far (read from any thread). */
+    public Stats stats() {
+        return new Stats((int) (1_000_000_000L / periodNanos), presented, late, dropped);
+    }
+}
@@ -1,8 +1,9 @@
 package com.example.PlanetFormationDemo;
 
 import javax.swing.AbstractAction;
-import javax.swing.JPanel;
+import javax.swing.JComponent;
 import javax.swing.KeyStroke;
+import java.awt.Component;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
@@ -24,18 +25,23 @@ public class InputBinder {
     }
 
     /**
-     * Install keyboard shortcuts onto a panel.
+     * Install keyboard shortcuts onto a component; they fire whenever its window has focus.
      *
-     * @param panel          component receiving focus and key events
+     * @param panel          component owning the bindings
      * @param onClose        callback to close the app
      * @param onToggleComets callback to toggle auto-comets
+     * @param onToggleDust   callback to switch the dust draw mode
+     * @param onToggleMetrics callback to show/hide the metrics overlay
      */
-    public void bindKeys(JPanel panel, Runnable onClose, Runnable onToggleComets) {
-        panel.getInputMap(JPanel.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("ESCAPE"), "close");
-        panel.getInputMap(JPanel.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('1'), "toolStar");
-        panel.getInputMap(JPanel.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('2'), "toolWind");
-        panel.getInputMap(JPanel.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('3'), "toolGlove");
-        panel.getInputMap(JPanel.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('C'), "toggleComets");
+    public void bindKeys(JComponent panel, Runnable onClose, Runnable onToggleComets, Runnable onToggleDust,
+                         Runnable onToggleMetrics) {
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("ESCAPE"), "close");
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('1'), "toolStar");
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('2'), "toolWind");
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('3'), "toolGlove");
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('C'), "toggleComets");
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('D'), "toggleDust");
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('M'), "toggleMetrics");
 
         panel.getActionMap().put("close", new AbstractAction() {
             @Override public void actionPerformed(java.awt.event.ActionEvent e) { onClose.run(); }
@@ -52,34 +58,57 @@ public class InputBinder {
         panel.getActionMap().put("toggleComets", new AbstractAction() {
             @Override public void actionPerformed(java.awt.event.ActionEvent e) { onToggleComets.run(); }
         });
+        panel.getActionMap().put("toggleDust", new AbstractAction() {
+            @Override public void actionPerformed(java.awt.event.ActionEvent e) { onToggleDust.run(); }
+        });
+        panel.getActionMap().put("toggleMetrics", new AbstractAction() {
+            @Override public void actionPerformed(java.awt.event.ActionEvent e) { onToggleMetrics.run(); }
+        });
     }
 
     /**
      * Bind mouse press/drag to tool actions.
+     *
+     * @param panel view receiving mouse events (a Swing panel or an AWT canvas)
      */
-    public void bindMouse(JPanel panel) {
+    public void bindMouse(Component panel) {
         panel.addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
-                applyTool(e.getX(), e.getY(), true);
+                applyTool(e, true);
             }
         });
         panel.addMouseMotionListener(new MouseAdapter() {
             @Override
             public void mouseDragged(MouseEvent e) {
-                applyTool(e.getX(), e.getY(), false);
+                applyTool(e, false);
+            }
+        });
+    }
+
+    /**
+     * Route the current tool to the appropriate simulation effect, tagged with the event time for
+     * latency tracing.
+     */
+    private void applyTool(MouseEvent e, boolean press) {
+        int x = e.getX();
+        int y = e.getY();
+        ToolMode tool = toolHolder.get();
+        sim.applyInput(tool, eventNanos(e), () -> {
+            switch (tool) {
+                case STAR_WAND -> sim.sprinkleDust(x, y, press ? 30 : 18);
+                case WIND -> sim.applyWind(x, y, press ? 1.0f : 1.4f);
+                case GRAVITY_GLOVE -> sim.applyGravityGlove(x, y, press ? 1.0f : 1.5f, press ? 10 : 3);
             }
         });
     }
 
     /**
-     * Route the current tool to the appropriate simulation effect.
+     * Convert an event's wall-clock timestamp to the {@link System#nanoTime()} timeline, so the
+     * time it spent queued for the EDT counts toward its latency.
      */
-    private void applyTool(int x, int y, boolean press) {
-        switch (toolHolder.get()) {
-            case STAR_WAND -> sim.sprinkleDust(x, y, press ? 30 : 18);
-            case WIND -> sim.applyWind(x, y, press ? 1.0f : 1.4f);
-            case GRAVITY_GLOVE -> sim.applyGravityGlove(x, y, press ? 1.0f : 1.5f, press ? 10 : 3);
-        }
+    private static long eventNanos(MouseEvent e) {
+        long age = Math.max(0, System.currentTimeMillis() - e.getWhen());
+        return System.nanoTime() - age * 1_000_000L;
     }
 }
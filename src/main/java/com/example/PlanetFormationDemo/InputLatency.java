@@ -0,0 +1,125 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * Traces tool input from the mouse event to the first frame that shows its effect. Each applied
+ * input gets a sequence number under the bodies lock; snapshots carry the last sequence applied
+ * before them, and the views report the sequence of every frame they put on screen. Stage
+ * latencies (EDT dispatch, bodies lock wait, waiting for the next published snapshot, waiting for
+ * a frame) and the end-to-end latency per tool are recorded into {@link PhysicsMetrics}.
+ */
+public class InputLatency {
+    /** Inputs in flight at most; older ones are dropped (e.g. while nothing is being drawn). */
+    private static final int CAPACITY = 256;
+
+    /** Destination histograms. */
+    private final PhysicsMetrics metrics;
+    /** Ring of in-flight inputs, oldest at {@code head}. */
+    private final long[] seqs = new long[CAPACITY];
+    private final long[] received = new long[CAPACITY];
+    private final long[] applied = new long[CAPACITY];
+    private final ToolMode[] tools = new ToolMode[CAPACITY];
+    /** Whether a snapshot with the input has been published, and when. */
+    private final boolean[] published = new boolean[CAPACITY];
+    private final long[] publishedAt = new long[CAPACITY];
+    /** Index of the oldest in-flight input. */
+    private int head;
+    /** In-flight inputs. */
+    private int size;
+    /** Sequence number of the last applied input (0 before any). */
+    private long lastSeq;
+    /** Inputs dropped before reaching the screen. */
+    private long dropped;
+
+    /**
+     * @param metrics histograms to record stage and per-tool latencies into
+     */
+    public InputLatency(PhysicsMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Record an input that has just been applied to the bodies. Called with the bodies lock held,
+     * so sequence order matches the order effects reach snapshots.
+     *
+     * @param tool     tool the input drove
+     * @param event    {@link System#nanoTime()}-based time of the input event
+     * @param handled  when the input handler started
+     * @param locked   when the bodies lock was acquired
+     * @param done     when the tool finished
+     * @return the input's sequence number
+     */
+    public synchronized long applied(ToolMode tool, long event, long handled, long locked, long done) {
+        metrics.record(PhysicsMetrics.Probe.INPUT_DISPATCH, handled - event, done);
+        metrics.record(PhysicsMetrics.Probe.INPUT_LOCK, locked - handled, done);
+        if (size == CAPACITY) {
+            head = (head + 1) % CAPACITY;
+            size--;
+            dropped++;
+        }
+        int i = (head + size) % CAPACITY;
+        seqs[i] = ++lastSeq;
+        received[i] = event;
+        applied[i] = done;
+        tools[i] = tool;
+        published[i] = false;
+        size++;
+        return lastSeq;
+    }
+
+    /** @return sequence number of the last applied input; read with the bodies lock held. */
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Note that a snapshot containing every input up to {@code seq} has been published for display.
+     *
+     * @param seq  {@link SimulationSnapshot#inputSeq()} of the published snapshot
+     * @param time when it was published
+     */
+    public synchronized void published(long seq, long time) {
+        for (int k = 0; k < size; k++) {
+            int i = (head + k) % CAPACITY;
+            if (seqs[i] > seq) break;
+            if (!published[i]) {
+                published[i] = true;
+                publishedAt[i] = time;
+                metrics.record(PhysicsMetrics.Probe.INPUT_PUBLISH, time - applied[i], time);
+            }
+        }
+    }
+
+    /**
+     * Note that a frame drawn from a snapshot containing every input up to {@code seq} is on
+     * screen; those inputs are complete.
+     *
+     * @param seq  {@link SimulationSnapshot#inputSeq()} of the snapshot the frame was drawn from
+     * @param time when the frame was presented
+     */
+    public synchronized void presented(long seq, long time) {
+        while (size > 0 && seqs[head] <= seq) {
+            if (published[head]) {
+                // inputs seen only through an unpublished snapshot have no publish stage to split off
+                metrics.record(PhysicsMetrics.Probe.INPUT_DISPLAY, time - publishedAt[head], time);
+            }
+            metrics.record(probeFor(tools[head]), time - received[head], time);
+            tools[head] = null;
+            head = (head + 1) % CAPACITY;
+            size--;
+        }
+    }
+
+    /** @return inputs dropped because too many were waiting for a frame. */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /** End-to-end probe for a tool. */
+    private static PhysicsMetrics.Probe probeFor(ToolMode tool) {
+        return switch (tool) {
+            case STAR_WAND -> PhysicsMetrics.Probe.LATENCY_STAR_WAND;
+            case WIND -> PhysicsMetrics.Probe.LATENCY_WIND;
+            case GRAVITY_GLOVE -> PhysicsMetrics.Probe.LATENCY_GLOVE;
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * Exponentially smoothed duration of a repeating piece of work (a physics step, a frame).
+ * Written by the one thread doing the work and readable from any other.
+ */
+public class LoadMeter {
+    /** Weight of the newest sample; ~10 samples dominate the average. */
+    private static final double SMOOTHING = 0.1;
+
+    /** Smoothed duration in nanoseconds. */
+    private volatile double averageNanos;
+    /** Samples recorded so far. */
+    private volatile long samples;
+
+    /** Record one duration in nanoseconds. */
+    public void record(long nanos) {
+        averageNanos = samples == 0 ? nanos : averageNanos + SMOOTHING * (nanos - averageNanos);
+        samples++;
+    }
+
+    /** @return smoothed duration in milliseconds (0 before the first sample). */
+    public double averageMillis() {
+        return averageNanos / 1_000_000.0;
+    }
+
+    /** @return number of samples recorded. */
+    public long samples() {
+        return samples;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.Arrays;
+
+/**
+ * HDR-style histogram of non-negative longs: each power-of-two range is split into 32 linear
+ * sub-buckets, so any recorded value is reported within about 3% while the whole range of a
+ * long fits in under two thousand counters. Recording is a shift, an add and an array increment.
+ * Not thread-safe; {@link Metric} serializes access.
+ */
+public class LogHistogram {
+    /** log2 of the sub-buckets per power of two. */
+    private static final int SUB_BITS = 5;
+    /** Sub-buckets per power of two. */
+    private static final int SUB = 1 << SUB_BITS;
+    /** Buckets needed to cover every non-negative long. */
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    /** Count per bucket. */
+    private final long[] counts = new long[BUCKETS];
+    /** Values recorded. */
+    private long total;
+    /** Sum of recorded values, for the mean. */
+    private double sum;
+    /** Largest recorded value (exact). */
+    private long max;
+
+    /**
+     * Summary of a histogram.
+     *
+     * @param count values recorded
+     * @param mean  arithmetic mean
+     * @param p50   median (upper edge of its bucket)
+     * @param p90   90th percentile
+     * @param p99   99th percentile
+     * @param max   exact maximum
+     */
+    public record Distribution(long count, double mean, long p50, long p90, long p99, long max) {
+        /** Summary of an empty histogram. */
+        public static final Distribution EMPTY = new Distribution(0, 0, 0, 0, 0, 0);
+    }
+
+    /** Record one value; negative values count as zero. */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts[bucketOf(v)]++;
+        total++;
+        sum += v;
+        if (v > max) max = v;
+    }
+
+    /** Forget every recorded value. */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /** @return count, mean, percentiles and max of the values recorded since the last reset. */
+    public Distribution distribution() {
+        if (total == 0) return Distribution.EMPTY;
+        return new Distribution(total, sum / total, percentile(0.50), percentile(0.90), percentile(0.99), max);
+    }
+
+    /**
+     * Smallest bucket upper edge at or below which {@code fraction} of values fall, capped at the max.
+     */
+    private long percentile(double fraction) {
+        long rank = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, upperEdge(i));
+        }
+        return max;
+    }
+
+    /** Bucket index for a value. */
+    private static int bucketOf(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    /** Largest value that maps to a bucket. */
+    private static long upperEdge(int index) {
+        if (index < SUB) return index;
+        int shift = index / SUB - 1;
+        long lower = (long) (SUB + index % SUB) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
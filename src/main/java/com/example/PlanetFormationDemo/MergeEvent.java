@@ -0,0 +1,39 @@
+package com.example.PlanetFormationDemo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one merge. A busy disk merges thousands of grains per tick, so the
+ * simulation records at most {@link #MAX_PER_TICK} per step and counts the rest on the
+ * {@link StepEvent}.
+ */
+@Name("com.example.PlanetFormationDemo.Merge")
+@Label("Merge")
+@Category({"Planet Formation", "Physics"})
+@Description("Two bodies merged (throttled per tick)")
+@StackTrace(false)
+public class MergeEvent extends jdk.jfr.Event {
+    /** Merge events recorded per physics step at most. */
+    static final int MAX_PER_TICK = 16;
+
+    @Label("Planet")
+    @Description("Name of the surviving body, if it has one")
+    String planet;
+
+    @Label("Mass")
+    @Description("Mass after the merge")
+    float mass;
+
+    @Label("Absorbed Mass")
+    float absorbedMass;
+
+    @Label("Particles")
+    long particles;
+
+    @Label("Comet")
+    boolean comet;
+}
@@ -0,0 +1,105 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * One instrumented quantity (a phase duration, a count, a byte total). Values go into a live
+ * {@link LogHistogram}; once per interval the live histogram is summarized into an immutable
+ * {@link LogHistogram.Distribution} that readers (JMX, the overlay) see, and then cleared. The
+ * interval check reuses the timestamp the caller already took, so recording reads no clock.
+ */
+public class Metric implements MetricMXBean {
+    /** Length of a reporting interval. */
+    private static final long INTERVAL_NANOS = 1_000_000_000L;
+
+    /** Display and JMX name. */
+    private final String name;
+    /** Unit of recorded values. */
+    private final MetricUnit unit;
+    /** Values recorded in the current interval (guarded by {@code this}). */
+    private final LogHistogram live = new LogHistogram();
+    /** Start of the current interval. */
+    private long intervalStart = System.nanoTime();
+    /** Summary of the last completed interval. */
+    private volatile LogHistogram.Distribution last = LogHistogram.Distribution.EMPTY;
+    /** Completed intervals so far. */
+    private volatile long intervals;
+
+    /**
+     * @param name display and JMX name
+     * @param unit unit of recorded values
+     */
+    public Metric(String name, MetricUnit unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    /**
+     * Record a value.
+     *
+     * @param value value in this metric's unit
+     * @param now   current {@link System#nanoTime()}, used only to close the interval
+     */
+    public synchronized void record(long value, long now) {
+        if (now - intervalStart >= INTERVAL_NANOS) {
+            last = live.distribution();
+            live.reset();
+            intervalStart = now;
+            intervals++;
+        }
+        live.record(value);
+    }
+
+    /** @return summary of the last completed interval. */
+    public LogHistogram.Distribution last() {
+        return last;
+    }
+
+    /** @return number of completed intervals; changes whenever {@link #last()} does. */
+    public long intervals() {
+        return intervals;
+    }
+
+    /** @return display name. */
+    public String name() {
+        return name;
+    }
+
+    /** @return unit of recorded values. */
+    public MetricUnit unit() {
+        return unit;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit.name();
+    }
+
+    @Override
+    public long getCount() {
+        return last.count();
+    }
+
+    @Override
+    public double getMean() {
+        return last.mean();
+    }
+
+    @Override
+    public long getP50() {
+        return last.p50();
+    }
+
+    @Override
+    public long getP90() {
+        return last.p90();
+    }
+
+    @Override
+    public long getP99() {
+        return last.p99();
+    }
+
+    @Override
+    public long getMax() {
+        return last.max();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * JMX view of one {@link Metric}: the distribution of its last completed one-second interval.
+ */
+public interface MetricMXBean {
+    /** @return unit of the values below (NANOS, COUNT or BYTES). */
+    String getUnit();
+
+    /** @return values recorded in the interval. */
+    long getCount();
+
+    /** @return mean value. */
+    double getMean();
+
+    /** @return median value. */
+    long getP50();
+
+    /** @return 90th percentile. */
+    long getP90();
+
+    /** @return 99th percentile. */
+    long getP99();
+
+    /** @return largest value. */
+    long getMax();
+}
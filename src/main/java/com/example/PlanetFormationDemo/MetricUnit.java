@@ -0,0 +1,13 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * Unit of a {@link Metric}'s values.
+ */
+public enum MetricUnit {
+    /** Durations in nanoseconds. */
+    NANOS,
+    /** Plain counts. */
+    COUNT,
+    /** Sizes in bytes. */
+    BYTES
+}
@@ -0,0 +1,294 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Verlet neighbor list for collision checks: candidate pairs are cached across ticks, so most
+ * ticks check only those pairs instead of every grid cell and its neighbors.
+ *
+ * <p>Dust moves one or two pixels a tick, far more than the distance between neighbors changes.
+ * Drift is therefore measured from each body's straight-line path since the last rebuild, not
+ * from where it was. A pair is cached if the two paths come within the pair's merge distance
+ * plus a skin at any point over a horizon of a few ticks. Neighbors share the disk's orbital
+ * flow, which bounds how fast pairs outside the scanned ring can close (see {@link #rebuild}).
+ * While every body stays within half the skin of its path, any pair that touches is in the list.
+ *
+ * <p>A body that drifts further is demoted instead of forcing a rebuild: a merge moves and grows
+ * it, or a tool or a near pass bends its path. Demoted bodies are checked against their grid
+ * neighborhood each tick. So are bodies the list never tracked: fast, large, off-flow or newly
+ * added ones. The list is rebuilt when the horizon runs out or too many bodies have been demoted.
+ */
+final class NeighborList {
+    /** Longest horizon, in ticks. */
+    private static final int MAX_HORIZON = 16;
+    /** Widest ring of cells scanned around a body at rebuild. */
+    private static final int MAX_RING = 4;
+    /** Largest departure from the disk's circular flow, in pixels a tick, of a tracked body. */
+    private static final float MAX_OFF_FLOW = 0.2f;
+    /** Largest flow shear, in pixels a tick per pixel apart, where bodies are tracked. */
+    private static final float MAX_SHEAR = 0.05f;
+    /** Rebuild once demoted and newly added bodies come to this share of the tracked ones. */
+    private static final float DIRTY_SHARE = 0.125f;
+
+    /** Skin added to every pair's merge distance. */
+    private final float skin;
+    /** Merge reach of the physics config. */
+    private final float reach;
+
+    /** Tracked bodies and their positions, velocities and radii at the last rebuild. */
+    private Body[] tracked = new Body[0];
+    private float[] x0 = new float[0];
+    private float[] y0 = new float[0];
+    private float[] vx0 = new float[0];
+    private float[] vy0 = new float[0];
+    private float[] r0 = new float[0];
+    /** Whether a tracked body has drifted beyond half the skin. */
+    private boolean[] demoted = new boolean[0];
+    /** Bodies tracked at the last rebuild. */
+    private int trackedCount;
+    /** Bodies left untracked at the last rebuild. */
+    private int untrackedCount;
+    /** Cached pairs, flattened. */
+    private Body[] first = new Body[1024];
+    private Body[] second = new Body[1024];
+    private int pairCount;
+    /** Bodies to check against their grid neighborhood this tick. */
+    private final List<Body> dirty = new ArrayList<>();
+    /** Ticks since the last rebuild, and the horizon it is valid for. */
+    private int age;
+    private int horizon = -1;
+    /** Rebuilds so far. */
+    private long rebuilds;
+
+    /**
+     * @param skin  extra distance cached pairs may close before the list must be refreshed
+     * @param reach merge reach of the physics config
+     */
+    NeighborList(float skin, float reach) {
+        this.skin = skin;
+        this.reach = reach;
+    }
+
+    /** @return the skin this list was built with. */
+    float skin() {
+        return skin;
+    }
+
+    /**
+     * Advance a tick: demote bodies that drifted beyond half the skin and collect every live body
+     * the list cannot vouch for.
+     *
+     * @param bodies the simulation's bodies, sun first
+     * @return true if the list should be rebuilt before use
+     */
+    boolean refresh(List<Body> bodies) {
+        age++;
+        dirty.clear();
+        if (age > horizon) return true;
+        float half = skin / 2f;
+        for (int i = 1; i < bodies.size(); i++) {
+            Body b = bodies.get(i);
+            int slot = b.neighborSlot;
+            // bodies added since the rebuild (spawns, comets, migrants) are not tracked
+            if (slot < 0 || slot >= trackedCount || tracked[slot] != b || demoted[slot]) {
+                dirty.add(b);
+                continue;
+            }
+            // growth widens every pair the body is in, so it counts against the skin too
+            float budget = half - (b.radius - r0[slot]) * reach;
+            float ex = b.x - (x0[slot] + vx0[slot] * age);
+            float ey = b.y - (y0[slot] + vy0[slot] * age);
+            if (budget < 0 || ex * ex + ey * ey > budget * budget) {
+                demoted[slot] = true;
+                dirty.add(b);
+            }
+        }
+        return dirty.size() - untrackedCount > trackedCount * DIRTY_SHARE;
+    }
+
+    /**
+     * Track every body that follows the disk's flow and cache the pairs whose paths come close
+     * over the horizon. Call after the grid has been bucketed for this tick.
+     *
+     * <p>The flow is the circular orbit about the sun under the softened force law, with angular
+     * velocity {@code omega(r) = sqrt(gM) / (r^2 + softening)^(3/4)} falling off with radius.
+     * Between two points outside radius {@code r} it differs by at most {@code L = 3 omega(r)}
+     * per pixel apart: once for orbital speed, twice for direction. Two tracked bodies {@code d}
+     * apart, each within {@code w} of the flow, therefore close at most {@code 2w + L d} a tick.
+     * Bodies in cells more than {@code ring} apart start over {@code ring * cellSize} apart, and
+     * the horizon ends before they could come within reach. Bodies near the sun, where the flow
+     * shears fastest, are left untracked so the rest get a useful horizon.
+     *
+     * @param bodies    the simulation's bodies, sun first
+     * @param grid      row-major grid cells
+     * @param cols      grid columns
+     * @param rows      grid rows
+     * @param cellSize  grid cell size in pixels
+     * @param fastSpeed speed above which bodies are left to the swept collision pass
+     * @param config    physics constants the flow follows from
+     */
+    void rebuild(List<Body> bodies, List<List<Body>> grid, int cols, int rows, int cellSize, float fastSpeed,
+                 Simulation.PhysicsConfig config) {
+        rebuilds++;
+        ensureCapacity(bodies.size());
+        dirty.clear();
+        trackedCount = 0;
+        pairCount = 0;
+        age = 0;
+        Body sun = bodies.get(0);
+        float rootGm = (float) Math.sqrt(config.g() * sun.mass);
+        float softening = config.softening();
+        float fastSq = fastSpeed * fastSpeed;
+        float offFlowSq = MAX_OFF_FLOW * MAX_OFF_FLOW;
+        // keep the merge distance of tracked pairs within a cell, so a small ring suffices
+        float maxTrackedRadius = (cellSize - skin) / (2f * reach);
+        float offFlow = 0f;
+        float maxOmega = 0f;
+        float maxRadius = 0f;
+        for (int i = 1; i < bodies.size(); i++) {
+            Body b = bodies.get(i);
+            b.neighborSlot = -1;
+            float dx = b.x - sun.x;
+            float dy = b.y - sun.y;
+            float inv = 1f / (float) Math.sqrt(dx * dx + dy * dy + softening);
+            float omega = rootGm * inv * (float) Math.sqrt(inv);
+            float wx = b.vx - (sun.vx - omega * dy);
+            float wy = b.vy - (sun.vy + omega * dx);
+            float wSq = wx * wx + wy * wy;
+            // ghosts last one step, so tracking them would only force rebuilds
+            if (b.vx * b.vx + b.vy * b.vy > fastSq || wSq > offFlowSq || 3f * omega > MAX_SHEAR
+                    || b.radius > maxTrackedRadius || b.ghost) {
+                dirty.add(b);
+                continue;
+            }
+            int slot = trackedCount++;
+            b.neighborSlot = slot;
+            tracked[slot] = b;
+            x0[slot] = b.x;
+            y0[slot] = b.y;
+            vx0[slot] = b.vx;
+            vy0[slot] = b.vy;
+            r0[slot] = b.radius;
+            demoted[slot] = false;
+            offFlow = Math.max(offFlow, wSq);
+            maxOmega = Math.max(maxOmega, omega);
+            maxRadius = Math.max(maxRadius, b.radius);
+        }
+        untrackedCount = dirty.size();
+        Arrays.fill(tracked, trackedCount, tracked.length, null);
+        offFlow = (float) Math.sqrt(offFlow);
+        float shear = 3f * maxOmega;
+        float reachAndSkin = 2f * maxRadius * reach + skin;
+        // the ring with the fewest cell visits per tick of horizon
+        int ring = 1;
+        horizon = 0;
+        float best = Float.POSITIVE_INFINITY;
+        for (int k = 1; k <= MAX_RING; k++) {
+            float gap = k * cellSize;
+            int h = Math.max(0, Math.min(MAX_HORIZON, (int) ((gap - reachAndSkin) / (2f * offFlow + shear * gap))));
+            float cost = (2 * k + 1) * (2 * k + 1) / (float) Math.max(1, h);
+            if (cost < best) {
+                best = cost;
+                ring = k;
+                horizon = h;
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                List<Body> cell = grid.get(row * cols + col);
+                if (cell.isEmpty()) continue;
+                for (int i = 0; i < cell.size(); i++) {
+                    Body a = cell.get(i);
+                    if (a.neighborSlot < 0) continue;
+                    for (int j = i + 1; j < cell.size(); j++) cachePair(a, cell.get(j));
+                }
+                // half the ring, so each pair of cells is scanned once
+                for (int r = row; r <= Math.min(rows - 1, row + ring); r++) {
+                    for (int c = Math.max(0, col - ring); c <= Math.min(cols - 1, col + ring); c++) {
+                        if (r == row && c <= col) continue;
+                        List<Body> other = grid.get(r * cols + c);
+                        if (other.isEmpty()) continue;
+                        for (int i = 0; i < cell.size(); i++) {
+                            Body a = cell.get(i);
+                            if (a.neighborSlot < 0) continue;
+                            for (int j = 0; j < other.size(); j++) cachePair(a, other.get(j));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Cache a pair of bodies if both are tracked and their paths come close. */
+    private void cachePair(Body a, Body b) {
+        // untracked bodies are checked as dirty instead
+        if (b.neighborSlot >= 0 && pathsMeet(a, b)) addPair(a, b);
+    }
+
+    /**
+     * Whether two bodies' straight-line paths come within their merge distance plus the skin at
+     * any tick up to the horizon.
+     */
+    private boolean pathsMeet(Body a, Body b) {
+        float dx = b.x - a.x;
+        float dy = b.y - a.y;
+        float mx = b.vx - a.vx;
+        float my = b.vy - a.vy;
+        float len = mx * mx + my * my;
+        float t = len == 0 ? 0 : Math.max(0f, Math.min(horizon, -(dx * mx + dy * my) / len));
+        float cx = dx + mx * t;
+        float cy = dy + my * t;
+        float min = (a.radius + b.radius) * reach + skin;
+        return cx * cx + cy * cy <= min * min;
+    }
+
+    private void addPair(Body a, Body b) {
+        if (pairCount == first.length) {
+            first = Arrays.copyOf(first, pairCount * 2);
+            second = Arrays.copyOf(second, pairCount * 2);
+        }
+        first[pairCount] = a;
+        second[pairCount] = b;
+        pairCount++;
+    }
+
+    /** Grow the per-body arrays to hold {@code n} bodies. */
+    private void ensureCapacity(int n) {
+        if (tracked.length >= n) return;
+        int size = Math.max(n, tracked.length * 2);
+        tracked = Arrays.copyOf(tracked, size);
+        x0 = new float[size];
+        y0 = new float[size];
+        vx0 = new float[size];
+        vy0 = new float[size];
+        r0 = new float[size];
+        demoted = new boolean[size];
+    }
+
+    /** @return cached pairs. */
+    int pairCount() {
+        return pairCount;
+    }
+
+    /** @return first body of cached pair {@code i}. */
+    Body first(int i) {
+        return first[i];
+    }
+
+    /** @return second body of cached pair {@code i}. */
+    Body second(int i) {
+        return second[i];
+    }
+
+    /** @return bodies to check against their grid neighborhood this tick. */
+    List<Body> dirty() {
+        return dirty;
+    }
+
+    /** @return rebuilds so far. */
+    long rebuilds() {
+        return rebuilds;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.PlanetFormationDemo;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders snapshots into a BufferedImage without any AWT window, splitting the frame into tiles
+ * that are painted in parallel. Safe to use with {@code -Djava.awt.headless=true}.
+ */
+public class OffscreenRenderer implements AutoCloseable {
+    /** Edge length of a render tile in pixels. */
+    private static final int TILE_SIZE = 256;
+
+    /** Output width in pixels. */
+    private final int width;
+    /** Output height in pixels. */
+    private final int height;
+    /** Frame buffer reused across renders. */
+    private final BufferedImage image;
+    /** Shared snapshot painter; tiles only read its fonts and dust mode. */
+    private final SnapshotPainter painter = new SnapshotPainter();
+    /** Cached background/ring and HUD layers. */
+    private final FrameLayers layers = new FrameLayers(painter);
+    /** Workers painting tiles. */
+    private final ExecutorService tilePool;
+
+    /**
+     * Create a renderer using one tile worker per available core.
+     */
+    public OffscreenRenderer(int width, int height) {
+        this(width, height, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a renderer with an explicit tile worker count.
+     *
+     * @param width   output width in pixels
+     * @param height  output height in pixels
+     * @param threads number of tile workers
+     */
+    public OffscreenRenderer(int width, int height, int threads) {
+        this.width = width;
+        this.height = height;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.tilePool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "RenderTile");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Render one frame: the cached static layer and live bodies per tile in parallel, then the HUD on top.
+     * The returned image is reused by the next call; copy it if it must outlive that.
+     *
+     * @param snap       snapshot to draw
+     * @param caption    caption shown in the HUD
+     * @param tool       tool shown in the HUD
+     * @param autoComets auto-comet flag shown in the HUD
+     * @param zoom       view zoom factor around the sun
+     * @return the internal frame buffer
+     */
+    public BufferedImage render(SimulationSnapshot snap, String caption, ToolMode tool,
+                                boolean autoComets, float zoom) {
+        Image base = layers.staticLayer(null, snap, width, height, zoom);
+        List<Future<?>> tiles = new ArrayList<>();
+        for (int ty = 0; ty < height; ty += TILE_SIZE) {
+            for (int tx = 0; tx < width; tx += TILE_SIZE) {
+                int x0 = tx;
+                int y0 = ty;
+                int tw = Math.min(TILE_SIZE, width - tx);
+                int th = Math.min(TILE_SIZE, height - ty);
+                tiles.add(tilePool.submit(() -> paintTile(snap, base, x0, y0, tw, th, zoom)));
+            }
+        }
+        for (Future<?> f : tiles) {
+            try {
+                f.get();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rendering tiles", ie);
+            } catch (ExecutionException ee) {
+                throw new IllegalStateException("Tile render failed", ee.getCause());
+            }
+        }
+        Graphics2D g2 = image.createGraphics();
+        g2.drawImage(layers.hudLayer(null, width, caption, tool, autoComets, zoom), 0, 0, null);
+        painter.paintHudCounters(g2, snap);
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Paint a single tile through a sub-image that shares the frame buffer's pixels.
+     */
+    private void paintTile(SimulationSnapshot snap, Image base, int x0, int y0, int tw, int th, float zoom) {
+        Graphics2D g2 = image.getSubimage(x0, y0, tw, th).createGraphics();
+        g2.translate(-x0, -y0);
+        g2.setClip(x0, y0, tw, th);
+        g2.drawImage(base, 0, 0, null);
+        painter.paintBodies(g2, snap, width, height, zoom, 0f, image);
+        g2.dispose();
+    }
+
+    /** Choose how dust is drawn; {@link DustMode#SPLAT} writes grains straight into the frame raster. */
+    public void setDustMode(DustMode mode) {
+        painter.setDustMode(mode);
+    }
+
+    /**
+     * Encode an image as PNG.
+     */
+    public static void writePng(BufferedImage img, File file) throws IOException {
+        if (!ImageIO.write(img, "png", file)) {
+            throw new IOException("No PNG writer available for " + file);
+        }
+    }
+
+    /** Stop the tile workers. */
+    @Override
+    public void close() {
+        tilePool.shutdownNow();
+    }
+}
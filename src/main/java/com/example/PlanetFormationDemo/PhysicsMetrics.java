@@ -0,0 +1,140 @@
+package com.example.PlanetFormationDemo;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Always-on instrumentation of the physics step and rendering: one {@link Metric} histogram per
+ * probe. Step phases are timed with the timestamps the step takes anyway, so the cost is a clock
+ * read and a histogram increment per phase.
+ */
+public class PhysicsMetrics {
+    /** Allocation counter for the current thread, or null if the JVM does not provide one. */
+    private static final com.sun.management.ThreadMXBean ALLOCATION =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t
+                    && t.isThreadAllocatedMemorySupported() ? t : null;
+
+    /** Instrumented quantities. */
+    public enum Probe {
+        /** Sun and giant gravity plus integration (parallel). */
+        GRAVITY("Gravity", MetricUnit.NANOS),
+        /** Emptying the collision grid. */
+        GRID_CLEAR("Grid clear", MetricUnit.NANOS),
+        /** Putting bodies into grid cells. */
+        BUCKETING("Bucketing", MetricUnit.NANOS),
+        /** Collision detection, merging and dust coalescing. */
+        COLLISIONS("Collisions", MetricUnit.NANOS),
+        /** Removing merged bodies from the list. */
+        COMPACTION("Compaction", MetricUnit.NANOS),
+        /** Keeping the sun centered. */
+        RECENTER("Recenter", MetricUnit.NANOS),
+        /** Periodic dense-dust caption check (every 45 ticks). */
+        DENSE_DUST("Dense dust", MetricUnit.NANOS),
+        /** Whole step. */
+        STEP("Step", MetricUnit.NANOS),
+        /** Building a render snapshot. */
+        SNAPSHOT("Snapshot", MetricUnit.NANOS),
+        /** Copying a published snapshot into the shared-memory ring. */
+        RING_EXPORT("Ring export", MetricUnit.NANOS),
+        /** Encoding one frame for the WebSocket viewers. */
+        STREAM_ENCODE("Stream encode", MetricUnit.NANOS),
+        /** Composing one frame. */
+        PAINT("Paint", MetricUnit.NANOS),
+        /** Live bodies at the end of a step. */
+        BODIES("Bodies", MetricUnit.COUNT),
+        /** Merges resolved per step. */
+        MERGES("Merges/tick", MetricUnit.COUNT),
+        /** Merges found only by sweeping fast bodies along their path, per step. */
+        SWEPT_MERGES("Swept merges/tick", MetricUnit.COUNT),
+        /** Bytes allocated by the stepping thread per step (parallel gravity workers not included). */
+        ALLOCATED("Alloc/tick", MetricUnit.BYTES),
+        /** Tool input: mouse event to its handler running on the EDT. */
+        INPUT_DISPATCH("Input dispatch", MetricUnit.NANOS),
+        /** Tool input: handler waiting for the bodies lock. */
+        INPUT_LOCK("Input lock wait", MetricUnit.NANOS),
+        /** Tool input: applied to published in a snapshot (next tick, step and snapshot). */
+        INPUT_PUBLISH("Input to snapshot", MetricUnit.NANOS),
+        /** Tool input: published snapshot to a presented frame. */
+        INPUT_DISPLAY("Snapshot to screen", MetricUnit.NANOS),
+        /** Star wand: mouse event to first frame showing it. */
+        LATENCY_STAR_WAND("Wand to screen", MetricUnit.NANOS),
+        /** Wind: mouse event to first frame showing it. */
+        LATENCY_WIND("Wind to screen", MetricUnit.NANOS),
+        /** Gravity glove: mouse event to first frame showing it. */
+        LATENCY_GLOVE("Glove to screen", MetricUnit.NANOS);
+
+        /** Display and JMX name. */
+        final String label;
+        /** Unit of recorded values. */
+        final MetricUnit unit;
+
+        Probe(String label, MetricUnit unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+    }
+
+    /** One metric per probe, indexed by ordinal. */
+    private final Metric[] metrics = new Metric[Probe.values().length];
+
+    /** Create empty histograms for every probe. */
+    public PhysicsMetrics() {
+        for (Probe p : Probe.values()) {
+            metrics[p.ordinal()] = new Metric(p.label, p.unit);
+        }
+    }
+
+    /**
+     * Record a value for a probe.
+     *
+     * @param probe quantity being recorded
+     * @param value value in the probe's unit
+     * @param now   current {@link System#nanoTime()}
+     */
+    public void record(Probe probe, long value, long now) {
+        metrics[probe.ordinal()].record(value, now);
+    }
+
+    /** @return the metric behind a probe. */
+    public Metric get(Probe probe) {
+        return metrics[probe.ordinal()];
+    }
+
+    /** @return every metric in probe order. */
+    public List<Metric> all() {
+        return List.of(metrics);
+    }
+
+    /** @return sum of completed intervals across metrics; changes whenever any summary does. */
+    public long generation() {
+        long g = 0;
+        for (Metric m : metrics) g += m.intervals();
+        return g;
+    }
+
+    /** @return bytes allocated so far by the calling thread, or -1 if unavailable. */
+    public static long threadAllocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Register every metric with the platform MBean server as
+     * {@code com.example.PlanetFormationDemo:type=PhysicsMetrics,name=<probe>}.
+     */
+    public void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Probe p : Probe.values()) {
+            try {
+                ObjectName name = new ObjectName("com.example.PlanetFormationDemo:type=PhysicsMetrics,name="
+                        + ObjectName.quote(p.label));
+                if (server.isRegistered(name)) server.unregisterMBean(name);
+                server.registerMBean(metrics[p.ordinal()], name);
+            } catch (JMException e) {
+                System.err.println("Cannot register metric " + p.label + ": " + e.getMessage());
+            }
+        }
+    }
+}
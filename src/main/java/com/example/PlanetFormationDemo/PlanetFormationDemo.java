@@ -1,8 +1,11 @@
 package com.example.PlanetFormationDemo;
 
+import javax.swing.JComponent;
 import javax.swing.JFrame;
+import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import java.awt.BorderLayout;
+import java.awt.Component;
 
 /**
  * Thin UI shell wiring together simulation, rendering, input, captions, and sounds.
@@ -16,9 +19,59 @@ public class PlanetFormationDemo {
     private SoundManager sounds;
     /** Shared tool state. */
     private final ToolModeHolder toolHolder = new ToolModeHolder();
+    /** Render on a dedicated thread into a BufferStrategy instead of repainting on the EDT. */
+    private final boolean activeRendering;
+    /** Frame and step budget the quality governor holds. */
+    private final QualityGovernor.Budget budget;
+    /** Cap on live simulation bodies. */
+    private final int bodyBudget;
+    /** Ticks between conservation diagnostics, or 0 for none. */
+    private final int diagnosticsInterval;
+    /** File the analytics time series is written to on exit, or null. */
+    private final java.nio.file.Path analyticsOut;
+    /** Whether the analytics have been written (both close paths try). */
+    private boolean analyticsExported;
+    /** Shared-memory ring to publish snapshots to, or null. */
+    private final java.nio.file.Path shmOut;
+    /** Shared-memory ring of another process to view instead of simulating, or null. */
+    private final java.nio.file.Path attach;
+    /** Port to stream the simulation to browsers on, or 0 for none. */
+    private final int streamPort;
+    /** Address the stream listens on, or null for loopback. */
+    private final String streamHost;
+    /** Skin of the collision neighbor lists, or 0 to sweep the grid. */
+    private final float neighborSkin;
 
-    /** Entry point wiring the UI and deferring heavy seeding to background. */
-    public PlanetFormationDemo() {}
+    /**
+     * Entry point wiring the UI and deferring heavy seeding to background.
+     *
+     * @param activeRendering true for {@link RenderCanvas}, false for the Swing-timer driven {@link RenderPanel}
+     * @param budget          frame and step budget for the quality governor
+     * @param bodyBudget      cap on live bodies (see {@link Simulation#setBodyBudget})
+     * @param diagnosticsInterval ticks between conservation diagnostics (see {@link ConservationMonitor}), 0 for none
+     * @param analyticsOut    file to write the disk analytics time series to on exit (CSV, or JSON
+     *                        for a {@code .json} name), or null
+     * @param shmOut          ring file to publish snapshots to for other processes (see {@link SnapshotRing}), or null
+     * @param attach          ring file of another process to view instead of running a simulation, or null
+     * @param streamPort      port to stream to browsers on (see {@link SnapshotStreamServer}), 0 for none
+     * @param streamHost      address to stream on ({@code 0.0.0.0} for every interface), or null for loopback
+     * @param neighborSkin    skin of the collision neighbor lists (see {@link Simulation#setNeighborSkin}), 0 for none
+     */
+    public PlanetFormationDemo(boolean activeRendering, QualityGovernor.Budget budget, int bodyBudget,
+                               int diagnosticsInterval, java.nio.file.Path analyticsOut,
+                               java.nio.file.Path shmOut, java.nio.file.Path attach, int streamPort,
+                               String streamHost, float neighborSkin) {
+        this.activeRendering = activeRendering;
+        this.budget = budget;
+        this.bodyBudget = bodyBudget;
+        this.diagnosticsInterval = diagnosticsInterval;
+        this.analyticsOut = analyticsOut;
+        this.shmOut = shmOut;
+        this.attach = attach;
+        this.streamPort = streamPort;
+        this.streamHost = streamHost;
+        this.neighborSkin = neighborSkin;
+    }
 
     /**
      * Show the main window immediately, then seed the simulation in the background.
@@ -26,66 +79,167 @@ public class PlanetFormationDemo {
      * once the layout and screen size are known.
      */
     private void showUI() {
-        JFrame frame = new JFrame("Planet Formation Demo");
+        SnapshotRingReader reader = null;
+        if (attach != null) {
+            try {
+                reader = SnapshotRingReader.open(attach);
+            } catch (java.io.IOException e) {
+                System.err.println("Cannot attach to " + attach + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        JFrame frame = new JFrame(reader == null ? "Planet Formation Demo" : "Planet Formation Demo (" + attach + ")");
         frame.setLayout(new BorderLayout());
         // Build minimal simulation so the sun renders immediately
         this.simulation = new Simulation(1100, 720, false);
-        this.captions = new CaptionManager();
+        simulation.setBodyBudget(bodyBudget);
+        simulation.setDiagnosticsInterval(diagnosticsInterval);
+        simulation.setNeighborSkin(neighborSkin);
+        this.captions = new CaptionManager(simulation.timers());
         this.sounds = new SoundManager();
         simulation.addListener(captions);
         simulation.addListener(sounds);
-        simulation.start();
+        simulation.metrics().registerMBeans();
+        if (shmOut != null) {
+            try {
+                simulation.exportSnapshots(shmOut);
+            } catch (java.io.IOException e) {
+                System.err.println("Cannot export snapshots to " + shmOut + ": " + e.getMessage());
+            }
+        }
+        // An attached viewer only draws; the local simulation stays idle and holds its metrics
+        if (reader == null) simulation.start();
+        if (streamPort > 0 && reader == null) {
+            try {
+                SnapshotStreamServer stream = new SnapshotStreamServer(simulation, streamHost, streamPort);
+                stream.start();
+                System.out.println("Streaming on http://" + (streamHost == null ? "localhost" : streamHost) + ":"
+                        + stream.port() + "/");
+            } catch (java.io.IOException e) {
+                System.err.println("Cannot stream on port " + streamPort + ": " + e.getMessage());
+            }
+        }
         captions.start();
+        sounds.start();
 
-        RenderPanel render = new RenderPanel(simulation, captions, toolHolder::get, simulation::isAutoCometsEnabled);
-        render.setPreferredSize(new java.awt.Dimension(1100, 720));
-        render.setFocusable(true);
-        render.requestFocusInWindow();
-
-        ControlBar bar = buildToolbar();
+        // Key bindings live on a Swing host; in active mode it wraps the non-focusable canvas.
+        JComponent host;
+        Component render;
+        Runnable toggleDust;
+        Runnable toggleMetrics;
+        FrameComposer composer;
+        RenderCanvas canvas = null;
+        if (activeRendering) {
+            canvas = new RenderCanvas(simulation, captions, toolHolder::get, simulation::isAutoCometsEnabled);
+            canvas.setFocusable(false);
+            host = new JPanel(new BorderLayout());
+            host.add(canvas, BorderLayout.CENTER);
+            render = canvas;
+            toggleDust = canvas::toggleDustMode;
+            toggleMetrics = canvas::toggleMetricsOverlay;
+            composer = canvas.composer();
+        } else {
+            RenderPanel panel = new RenderPanel(simulation, captions, toolHolder::get, simulation::isAutoCometsEnabled);
+            host = panel;
+            render = panel;
+            toggleDust = panel::toggleDustMode;
+            toggleMetrics = panel::toggleMetricsOverlay;
+            composer = panel.composer();
+        }
+        if (reader != null) composer.setSource(reader);
+        // quality changes are diagnostics too, so they are printed only when those were asked for
+        QualityGovernor governor = new QualityGovernor(simulation, composer, budget, diagnosticsInterval > 0);
+        governor.start();
+        host.setPreferredSize(new java.awt.Dimension(1100, 720));
+        host.setFocusable(true);
+        host.requestFocusInWindow();
 
-        frame.add(bar, BorderLayout.NORTH);
-        frame.add(render, BorderLayout.CENTER);
+        if (reader == null) frame.add(buildToolbar(), BorderLayout.NORTH);
+        frame.add(host, BorderLayout.CENTER);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.pack();
         frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
         frame.setVisible(true);
 
+        RenderCanvas activeCanvas = canvas;
         InputBinder inputBinder = new InputBinder(toolHolder, simulation);
-        inputBinder.bindKeys(render, () -> {
+        inputBinder.bindKeys(host, () -> {
+            if (activeCanvas != null) activeCanvas.stop();
+            governor.stop();
             captions.stop();
+            sounds.stop();
             simulation.stop();
+            exportAnalytics();
             frame.dispose();
-        }, () -> simulation.setAutoCometsEnabled(!simulation.isAutoCometsEnabled()));
-        inputBinder.bindMouse(render);
+        }, () -> simulation.setAutoCometsEnabled(!simulation.isAutoCometsEnabled()), toggleDust,
+                toggleMetrics);
+        if (reader == null) inputBinder.bindMouse(render);
 
         frame.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent e) {
+                if (activeCanvas != null) activeCanvas.stop();
+                governor.stop();
                 captions.stop();
+                sounds.stop();
                 simulation.stop();
+                exportAnalytics();
             }
         });
 
-        // Start repaint loop
-        javax.swing.Timer repaintTimer = new javax.swing.Timer(16, e -> render.repaint());
-        repaintTimer.setCoalesce(true);
-        repaintTimer.start();
-
-        // Heavy dust seeding in background, then recenter to actual size
-        new Thread(() -> {
-            // Ensure frame is maximized before seeding
-            SwingUtilities.invokeLater(() -> {
-                frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
-                frame.revalidate();
+        if (activeCanvas != null) {
+            // Start the render thread and report frame delivery in the title once a second
+            activeCanvas.start();
+            javax.swing.Timer statsTimer = new javax.swing.Timer(1000, e -> {
+                FramePacer.Stats stats = activeCanvas.stats();
+                if (stats != null) {
+                    LoadMeter audio = sounds.mixer().latencyMeter();
+                    frame.setTitle("Planet Formation Demo (" + stats.refreshHz() + " Hz, "
+                            + stats.late() + " late, " + stats.dropped() + " dropped"
+                            + (audio.samples() > 0 ? String.format(", audio %.0f ms", audio.averageMillis()) : "")
+                            + ")");
+                }
             });
-            // Wait briefly for layout to settle
-            try { Thread.sleep(100); } catch (InterruptedException ignored) {}
+            statsTimer.start();
+        } else {
+            // Start repaint loop
+            javax.swing.Timer repaintTimer = new javax.swing.Timer(16, e -> render.repaint());
+            repaintTimer.setCoalesce(true);
+            repaintTimer.start();
+        }
+
+        if (reader != null) {
+            // The idle local simulation never steps, so advance its timer wheel for caption rotation
+            new javax.swing.Timer((int) TickScheduler.MILLIS_PER_TICK, e -> simulation.timers().advance()).start();
+            return;
+        }
+        // Ensure frame is maximized before seeding
+        SwingUtilities.invokeLater(() -> {
+            frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
+            frame.revalidate();
+        });
+        // Heavy dust seeding on the physics thread once the layout has settled, then recenter to actual size
+        simulation.timers().schedule(TickScheduler.ticks(100), () -> {
             int w = render.getWidth() > 0 ? render.getWidth() : frame.getWidth();
             int h = render.getHeight() > 0 ? render.getHeight() : frame.getHeight();
             simulation.rebuildForSize(w, h);
             SwingUtilities.invokeLater(() -> simulation.recenterTo(w, h));
-        }).start();
+        });
+    }
+
+    /**
+     * Write the analytics time series if an output file was requested (once, whichever way the
+     * window closes).
+     */
+    private void exportAnalytics() {
+        if (analyticsOut == null || analyticsExported) return;
+        analyticsExported = true;
+        try {
+            simulation.analytics().export(analyticsOut);
+            System.out.println("Analytics written to " + analyticsOut);
+        } catch (java.io.IOException e) {
+            System.err.println("Cannot write analytics to " + analyticsOut + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -106,8 +260,61 @@ public class PlanetFormationDemo {
         return bar;
     }
 
-    /** Launch the demo. */
+    /**
+     * Launch the demo. Options: {@code --passive} repaints on the EDT instead of rendering actively;
+     * {@code --frame-budget=ms} and {@code --step-budget=ms} set the quality governor's budget;
+     * {@code --body-budget=n} caps live bodies; {@code --diagnostics=ticks} samples conservation
+     * diagnostics and prints quality changes; {@code --analytics-out=file} writes the disk
+     * analytics time series on exit; {@code --shm-out=file} publishes snapshots to a shared-memory ring and {@code --attach=file}
+     * views such a ring from another process instead of simulating; {@code --stream-port=n} serves
+     * a browser viewer of the simulation, on loopback unless {@code --stream-host=addr} names an
+     * address to listen on; {@code --neighbor-skin=px} checks collisions from cached
+     * neighbor lists with that skin.
+     */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new PlanetFormationDemo().showUI());
+        boolean active = !java.util.Arrays.asList(args).contains("--passive");
+        QualityGovernor.Budget budget = new QualityGovernor.Budget(
+                numberOption(args, "--frame-budget=", QualityGovernor.Budget.DEFAULT.frameMillis()),
+                numberOption(args, "--step-budget=", QualityGovernor.Budget.DEFAULT.stepMillis()));
+        int bodyBudget = (int) numberOption(args, "--body-budget=", Simulation.DEFAULT_BODY_BUDGET);
+        int diagnostics = (int) numberOption(args, "--diagnostics=", 0);
+        java.nio.file.Path analyticsOut = pathOption(args, "--analytics-out=");
+        java.nio.file.Path shmOut = pathOption(args, "--shm-out=");
+        java.nio.file.Path attach = pathOption(args, "--attach=");
+        int streamPort = (int) numberOption(args, "--stream-port=", 0);
+        String streamHost = textOption(args, "--stream-host=");
+        float neighborSkin = (float) numberOption(args, "--neighbor-skin=", 0);
+        SwingUtilities.invokeLater(() -> new PlanetFormationDemo(active, budget, bodyBudget, diagnostics,
+                analyticsOut, shmOut, attach, streamPort, streamHost, neighborSkin).showUI());
+    }
+
+    /**
+     * @return the text of a {@code prefix<text>} argument, or null if absent.
+     */
+    private static String textOption(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        }
+        return null;
+    }
+
+    /**
+     * @return the path of a {@code prefix<path>} argument, or null if absent.
+     */
+    private static java.nio.file.Path pathOption(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return java.nio.file.Path.of(arg.substring(prefix.length()));
+        }
+        return null;
+    }
+
+    /**
+     * @return the value of a {@code prefix<number>} argument, or the default if absent.
+     */
+    private static double numberOption(String[] args, String prefix, double fallback) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return Double.parseDouble(arg.substring(prefix.length()));
+        }
+        return fallback;
     }
 }
@@ -1,11 +1,20 @@
 package com.example.PlanetFormationDemo;
 
-import java.awt.Color;
-
 /**
- * Colors and names for planets.
+ * Colors and names for planets. Colors are palette indices into packed ARGB values so the
+ * simulation never touches AWT; views turn them into {@code Color}s themselves.
  */
 public final class PlanetStyling {
+    /** Palette index of the sun; stages use their ordinal. */
+    public static final int SUN = Stage.values().length;
+    /** Packed ARGB by palette index: one per stage, then the sun. */
+    private static final int[] PALETTE = {
+            0xFFC3B4A0, // ROCK
+            0xFF78AAE1, // OCEAN
+            0xFF78C8A0, // GARDEN
+            0xFFB98CDC, // MYSTERY
+            0xFFFFA028  // sun
+    };
     /** Child-friendly planet name pool (shuffled each run). */
     private static final String[] PLANET_NAMES = {
             "Pebble", "Dot", "Glimmer", "Sprout", "Nova", "Pip", "Luna", "Bouncy", "Marble",
@@ -14,7 +23,7 @@ public final class PlanetStyling {
             "Starlight", "Buttercup", "Daisy", "Cuddles", "Twinkle", "Giggles", "Rainbow",
             "Polka", "Poppy", "Gummy", "Bubbles", "Jellybean", "Sprinkle", "Honey", "Pixie"
     };
-    /** Remaining names available for this session. */
+    /** Remaining names available for this session (shared by every simulation in the process; guarded by the class). */
     private static final java.util.List<String> pool = new java.util.ArrayList<>();
     /** Random source for shuffling the pool. */
     private static final java.util.Random RNG = new java.util.Random();
@@ -29,7 +38,7 @@ public final class PlanetStyling {
     /**
      * Pull the next unique planet name, reshuffling when exhausted.
      */
-    public static String nextName() {
+    public static synchronized String nextName() {
         if (pool.isEmpty()) {
             resetPool();
         }
@@ -41,20 +50,31 @@ public final class PlanetStyling {
     /**
      * Reset the name pool so names can be reused in a new session.
      */
-    public static void resetPool() {
+    public static synchronized void resetPool() {
         pool.clear();
         pool.addAll(java.util.Arrays.asList(PLANET_NAMES));
     }
 
-    /**
-     * Color palette per growth stage.
-     */
-    public static Color colorForStage(Stage stage) {
-        return switch (stage) {
-            case ROCK -> new Color(195, 180, 160);
-            case OCEAN -> new Color(120, 170, 225);
-            case GARDEN -> new Color(120, 200, 160);
-            case MYSTERY -> new Color(185, 140, 220);
-        };
+    /** @return number of palette entries. */
+    public static int paletteSize() {
+        return PALETTE.length;
+    }
+
+    /** @return palette index for a body: its stage, or {@link #SUN}. */
+    public static int paletteIndex(Body b) {
+        return b.isSun ? SUN : b.stage.ordinal();
+    }
+
+    /** @return palette index of an opaque packed ARGB value from {@link #argb}, or 0 if it is not in the palette. */
+    public static int paletteOf(int argb) {
+        for (int i = 0; i < PALETTE.length; i++) {
+            if (PALETTE[i] == argb) return i;
+        }
+        return 0;
+    }
+
+    /** @return opaque packed ARGB of a palette index. */
+    public static int argb(int paletteIndex) {
+        return PALETTE[paletteIndex];
     }
 }
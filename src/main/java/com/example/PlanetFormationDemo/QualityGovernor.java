@@ -0,0 +1,204 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds frame and physics-step times inside a budget by walking two quality ladders. Every 500 ms
+ * of simulated time it compares the smoothed render and step times with the budget: sustained
+ * overruns move that ladder one rung down, and sustained headroom moves it back up. Every change
+ * is kept in a bounded log with the measurement that caused it, and echoed to stdout only if
+ * asked for.
+ * Evaluations are entries on the simulation's {@link TickScheduler}, so they cost no thread of
+ * their own and run on the physics thread outside the bodies lock (or on the wheel an attached
+ * viewer advances).
+ */
+public class QualityGovernor {
+    /** Evaluation period, in ticks. */
+    private static final long EVAL_TICKS = TickScheduler.ticks(500);
+    /** Consecutive over-budget evaluations before degrading. */
+    private static final int DEGRADE_AFTER = 2;
+    /** Consecutive evaluations with headroom before recovering. */
+    private static final int RECOVER_AFTER = 6;
+    /** Fraction of the budget the load must stay under to count as headroom. */
+    private static final double RECOVER_FRACTION = 0.6;
+    /** Decisions kept in memory. */
+    private static final int LOG_SIZE = 64;
+
+    /** Render rungs, best first: user's draw mode, forced splatting, then coarser LOD. */
+    private static final List<SnapshotPainter.RenderQuality> RENDER_LADDER = List.of(
+            SnapshotPainter.RenderQuality.FULL,
+            new SnapshotPainter.RenderQuality(0, true),
+            new SnapshotPainter.RenderQuality(1, true),
+            new SnapshotPainter.RenderQuality(2, true));
+    /** Physics rungs, best first: fewer giants, sparser quiet-cell collisions, fewer spawned grains. */
+    private static final List<Simulation.PhysicsQuality> PHYSICS_LADDER = List.of(
+            Simulation.PhysicsQuality.FULL,
+            new Simulation.PhysicsQuality(8, 2, 0.75f),
+            new Simulation.PhysicsQuality(4, 4, 0.5f),
+            new Simulation.PhysicsQuality(0, 8, 0.25f));
+
+    /**
+     * Time budget per unit of work.
+     *
+     * @param frameMillis budget for composing one frame
+     * @param stepMillis  budget for one physics step
+     */
+    public record Budget(double frameMillis, double stepMillis) {
+        /** Leaves headroom inside a 60 Hz frame for presentation and the other thread. */
+        public static final Budget DEFAULT = new Budget(12, 10);
+    }
+
+    /**
+     * One quality change.
+     *
+     * @param timeMillis wall-clock time of the change
+     * @param ladder     "render" or "physics"
+     * @param from       previous rung (0 = full quality)
+     * @param to         new rung
+     * @param reason     measurement that triggered the change
+     */
+    public record Decision(long timeMillis, String ladder, int from, int to, String reason) {
+        @Override
+        public String toString() {
+            return ladder + " quality " + from + " -> " + to + ": " + reason;
+        }
+    }
+
+    /**
+     * Position and streak counters on one ladder.
+     */
+    private static final class Ladder {
+        /** Ladder name used in decisions. */
+        final String name;
+        /** Lowest-quality rung index. */
+        final int lowest;
+        /** Current rung. */
+        int rung;
+        /** Consecutive over-budget evaluations. */
+        int over;
+        /** Consecutive evaluations with headroom. */
+        int under;
+        /** Meter sample count at the previous evaluation. */
+        long seenSamples;
+
+        Ladder(String name, int rungs) {
+            this.name = name;
+            this.lowest = rungs - 1;
+        }
+    }
+
+    /** Simulation whose step time and physics knobs are governed. */
+    private final Simulation simulation;
+    /** Composer whose frame time and render knobs are governed. */
+    private final FrameComposer composer;
+    /** Target budget. */
+    private final Budget budget;
+    /** Whether decisions are also printed. */
+    private final boolean echo;
+    /** Render ladder state. */
+    private final Ladder render = new Ladder("render", RENDER_LADDER.size());
+    /** Physics ladder state. */
+    private final Ladder physics = new Ladder("physics", PHYSICS_LADDER.size());
+    /** Most recent decisions, oldest first. */
+    private final ArrayDeque<Decision> log = new ArrayDeque<>();
+    /** Next evaluation on the simulation's wheel, or null when stopped (guarded by this). */
+    private TickScheduler.Timeout next;
+
+    /**
+     * @param simulation simulation to govern
+     * @param composer   frame composer to govern
+     * @param budget     frame and step budget to hold
+     * @param echo       also print each decision to stdout
+     */
+    public QualityGovernor(Simulation simulation, FrameComposer composer, Budget budget, boolean echo) {
+        this.simulation = simulation;
+        this.composer = composer;
+        this.budget = budget;
+        this.echo = echo;
+    }
+
+    /** Begin periodic evaluation. */
+    public synchronized void start() {
+        if (next == null) next = simulation.timers().schedule(EVAL_TICKS, this::tick);
+    }
+
+    /** Stop evaluating; current knobs stay as they are. */
+    public synchronized void stop() {
+        if (next != null) next.cancel();
+        next = null;
+    }
+
+    /** @return recent quality decisions, oldest first. */
+    public List<Decision> recentDecisions() {
+        synchronized (log) {
+            return new ArrayList<>(log);
+        }
+    }
+
+    /** Evaluate, then schedule the next evaluation unless stopped meanwhile. */
+    private void tick() {
+        synchronized (this) {
+            // a stop, or a stop and restart, since scheduling retired this entry
+            if (next == null || next.isPending()) return;
+        }
+        evaluate();
+        synchronized (this) {
+            if (next != null && !next.isPending()) next = simulation.timers().schedule(EVAL_TICKS, this::tick);
+        }
+    }
+
+    /**
+     * Compare both meters with the budget and move each ladder at most one rung.
+     */
+    private void evaluate() {
+        if (adjust(render, composer.frameMeter(), budget.frameMillis(), "frame")) {
+            composer.setRenderQuality(RENDER_LADDER.get(render.rung));
+        }
+        if (adjust(physics, simulation.stepMeter(), budget.stepMillis(), "step")) {
+            simulation.setPhysicsQuality(PHYSICS_LADDER.get(physics.rung));
+        }
+    }
+
+    /**
+     * Update one ladder's streaks from its meter and move it if a streak is long enough.
+     *
+     * @return true if the rung changed
+     */
+    private boolean adjust(Ladder ladder, LoadMeter meter, double budgetMillis, String what) {
+        long samples = meter.samples();
+        if (samples == ladder.seenSamples) return false; // nothing ran since last time (idle or paused)
+        ladder.seenSamples = samples;
+        double avg = meter.averageMillis();
+        ladder.over = avg > budgetMillis ? ladder.over + 1 : 0;
+        ladder.under = avg < budgetMillis * RECOVER_FRACTION ? ladder.under + 1 : 0;
+        int from = ladder.rung;
+        String reason;
+        if (ladder.over >= DEGRADE_AFTER && ladder.rung < ladder.lowest) {
+            ladder.rung++;
+            reason = String.format("%s %.1f ms over %.1f ms budget", what, avg, budgetMillis);
+        } else if (ladder.under >= RECOVER_AFTER && ladder.rung > 0) {
+            ladder.rung--;
+            reason = String.format("%s %.1f ms under %.0f%% of %.1f ms budget",
+                    what, avg, RECOVER_FRACTION * 100, budgetMillis);
+        } else {
+            return false;
+        }
+        ladder.over = 0;
+        ladder.under = 0;
+        record(new Decision(System.currentTimeMillis(), ladder.name, from, ladder.rung, reason));
+        return true;
+    }
+
+    /**
+     * Append a decision to the bounded log, and echo it to stdout if asked to.
+     */
+    private void record(Decision decision) {
+        synchronized (log) {
+            if (log.size() == LOG_SIZE) log.removeFirst();
+            log.addLast(decision);
+        }
+        if (echo) System.out.println("Quality: " + decision);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Actively rendered view: a dedicated thread composes frames into a {@link BufferStrategy} paced
+ * to the display refresh rate, so frame delivery does not wait behind input handling and other
+ * work queued on the EDT. AWT repaint requests are ignored; the render thread owns every pixel.
+ */
+public class RenderCanvas extends Canvas {
+    /** Refresh rate assumed when the display does not report one. */
+    private static final int DEFAULT_REFRESH_HZ = 60;
+
+    /** Composes frames from the latest simulation state. */
+    private final FrameComposer composer;
+    /** Render thread, or null when stopped. */
+    private volatile Thread renderThread;
+    /** Pacer of the running loop, or null before {@link #start()}. */
+    private volatile FramePacer pacer;
+
+    /**
+     * Construct a render canvas bound to a simulation and HUD providers.
+     */
+    public RenderCanvas(Simulation simulation, CaptionManager captions,
+                        RenderPanel.ToolModeProvider toolProvider, RenderPanel.HudInfoProvider hudProvider) {
+        this.composer = new FrameComposer(simulation, captions, toolProvider, hudProvider);
+        setBackground(Color.black);
+        setIgnoreRepaint(true);
+        addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentResized(java.awt.event.ComponentEvent e) {
+                simulation.recenterTo(getWidth(), getHeight());
+            }
+        });
+        addMouseWheelListener(e -> composer.zoomBy(e.getPreciseWheelRotation()));
+    }
+
+    /**
+     * Create the buffer strategy and start the render thread. Call on the EDT once the canvas is
+     * displayable (after its window is shown).
+     */
+    public void start() {
+        if (renderThread != null) return;
+        createBufferStrategy(2);
+        pacer = new FramePacer(refreshRate());
+        Thread t = new Thread(this::renderLoop, "RenderLoop");
+        t.setDaemon(true);
+        renderThread = t;
+        t.start();
+    }
+
+    /** Stop the render thread and wait for it to finish its current frame. */
+    public void stop() {
+        Thread t = renderThread;
+        renderThread = null;
+        if (t == null) return;
+        t.interrupt();
+        try {
+            t.join(500);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** @return frame delivery counters, or null before {@link #start()}. */
+    public FramePacer.Stats stats() {
+        FramePacer p = pacer;
+        return p == null ? null : p.stats();
+    }
+
+    /** @return the composer drawing this view's frames. */
+    public FrameComposer composer() {
+        return composer;
+    }
+
+    /** Show or hide the per-phase metrics overlay. */
+    public void toggleMetricsOverlay() {
+        composer.toggleMetricsOverlay();
+    }
+
+    /** Flip dust between vector ovals and raster splatting. */
+    public void toggleDustMode() {
+        composer.toggleDustMode();
+    }
+
+    /**
+     * Render loop: wait for the next refresh slot, compose into the back buffer and show it,
+     * retrying while the strategy reports lost or restored contents.
+     */
+    private void renderLoop() {
+        BufferStrategy strategy = getBufferStrategy();
+        FramePacer p = pacer;
+        while (renderThread == Thread.currentThread() && isDisplayable()) {
+            p.awaitSlot();
+            int w = getWidth();
+            int h = getHeight();
+            if (w <= 0 || h <= 0) continue;
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            try {
+                do {
+                    do {
+                        Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                        try {
+                            composer.compose(g2, gc, w, h);
+                        } finally {
+                            g2.dispose();
+                        }
+                    } while (strategy.contentsRestored());
+                    strategy.show();
+                } while (strategy.contentsLost());
+            } catch (IllegalStateException e) {
+                // strategy disposed with the window while a frame was in flight
+                break;
+            }
+            // flush the pipeline so the frame reaches the display now (matters on X11)
+            Toolkit.getDefaultToolkit().sync();
+            p.framePresented();
+            composer.framePresented();
+        }
+    }
+
+    /**
+     * @return refresh rate of the display showing this canvas, or {@value #DEFAULT_REFRESH_HZ} if unknown.
+     */
+    private int refreshRate() {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) return DEFAULT_REFRESH_HZ;
+        int hz = gc.getDevice().getDisplayMode().getRefreshRate();
+        return hz == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_HZ : hz;
+    }
+}
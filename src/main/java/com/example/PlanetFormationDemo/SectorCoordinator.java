@@ -0,0 +1,402 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distributed mode for disks too large for one JVM: splits the disk into equal angular sectors
+ * around the sun and runs each in a {@link SectorWorker} process on this machine, connected over
+ * Unix domain sockets. Workers step in lockstep; between ticks the coordinator routes migrating
+ * bodies to their new sector, boundary bodies to the neighbours that need them as ghosts, ghost
+ * claims and the bodies handed over for them, and the disk-wide heaviest bodies for gravity.
+ * Every few ticks it also gathers all bodies into a snapshot, so it is a {@link SnapshotSource}
+ * and can export to a {@link SnapshotRing} for a viewer started with {@code --attach=}.
+ *
+ * <p>Physics matches one {@link Simulation} except at sector boundaries, where a merge across
+ * sectors lands a tick or two late (the claim and hand-over travel through the coordinator) and
+ * a body that just migrated is missed as a ghost for one tick. Mass is conserved throughout:
+ * bodies in flight between sectors are held here and included in snapshots. Tools, comets and
+ * planet names are per worker, so two sectors may name planets alike.
+ *
+ * <p>Usage: {@code SectorCoordinator [sectors=N] [size=WxH] [grains=N] [steps=N] [gather=N]
+ * [seed=N] [shm-out=path]}, e.g. {@code SectorCoordinator sectors=4 size=4000x4000 grains=600000
+ * shm-out=/dev/shm/disk.ring}; {@code steps=0} runs until interrupted.
+ */
+public final class SectorCoordinator implements SnapshotSource, AutoCloseable {
+    /** How long workers get to start and connect. */
+    private static final long CONNECT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /** Number of sectors. */
+    private final int sectors;
+    /** Worker connections by sector. */
+    private final List<DataInputStream> ins = new ArrayList<>();
+    private final List<DataOutputStream> outs = new ArrayList<>();
+    private final List<SocketChannel> channels = new ArrayList<>();
+    /** Worker processes by sector. */
+    private final List<Process> processes = new ArrayList<>();
+    /** Listening socket file. */
+    private final Path socketFile;
+    /** Holds the gathered bodies and publishes their snapshots. */
+    private final Simulation view;
+    /** Sun position (fixed). */
+    private final float sunX;
+    private final float sunY;
+    /** Traffic for the next tick, by destination sector. */
+    private final List<List<Body>> migrants = new ArrayList<>();
+    private final List<List<Body>> ghosts = new ArrayList<>();
+    private final List<List<int[]>> claims = new ArrayList<>();
+    private final List<List<Integer>> absorbTargets = new ArrayList<>();
+    private final List<List<Body>> absorbs = new ArrayList<>();
+    /** Owning sector of each ghost sent into the last tick, to route the claims it produced. */
+    private Map<Integer, Integer> ghostOwners = new HashMap<>();
+    /** Disk-wide heaviest bodies and largest radius, from the last tick. */
+    private List<Body> giants = List.of();
+    private float maxRadius;
+    /** Ticks run. */
+    private long ticks;
+    /** Bodies owned by workers after the last tick. */
+    private int bodies;
+    /** Totals since start: bodies migrated, ghost copies sent, and merges across sectors. */
+    private long migrated;
+    private long ghostCopies;
+    private long crossMerges;
+
+    /**
+     * Start the workers and hand each the seeded bodies of its sector.
+     *
+     * @param sectors number of worker processes
+     * @param width   view width of the disk
+     * @param height  view height of the disk
+     * @param grains  dust grains seeded
+     * @param seed    seed for the disk (worker {@code k} uses {@code seed + 1 + k} for its own randomness)
+     * @param config  physics constants
+     */
+    public SectorCoordinator(int sectors, int width, int height, int grains, long seed, Simulation.PhysicsConfig config)
+            throws IOException {
+        if (sectors < 1) throw new IllegalArgumentException("Need at least one sector: " + sectors);
+        this.sectors = sectors;
+        this.view = new Simulation(width, height, false, seed, config);
+        view.setBodyBudget(Math.max(Simulation.DEFAULT_BODY_BUDGET, grains));
+        Body sun = view.bodyList().get(0);
+        this.sunX = sun.x;
+        this.sunY = sun.y;
+        for (int k = 0; k < sectors; k++) {
+            migrants.add(new ArrayList<>());
+            ghosts.add(new ArrayList<>());
+            claims.add(new ArrayList<>());
+            absorbTargets.add(new ArrayList<>());
+            absorbs.add(new ArrayList<>());
+        }
+        Simulation seeder = new Simulation(width, height, false, seed, config);
+        seeder.seedDisk(grains, 0);
+        List<Body> seeded = seeder.bodyList();
+        for (int i = 1; i < seeded.size(); i++) route(seeded.get(i));
+
+        Path dir = Files.createTempDirectory("planets-sectors");
+        socketFile = dir.resolve("coordinator.sock");
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketFile));
+            startWorkers();
+            accept(server);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        int budget = (int) Math.min(Integer.MAX_VALUE, Math.max((long) Simulation.DEFAULT_BODY_BUDGET, 2L * grains / sectors));
+        for (int k = 0; k < sectors; k++) {
+            DataOutputStream out = outs.get(k);
+            out.writeInt(k);
+            out.writeInt(sectors);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(budget);
+            out.writeLong(seed + 1 + k);
+            out.writeFloat(config.g());
+            out.writeFloat(config.drag());
+            out.writeFloat(config.softening());
+            out.writeFloat(config.planetGravityScale());
+            out.writeFloat(config.mergeReach());
+            out.flush();
+        }
+    }
+
+    /** Launch one JVM per sector on this class path, sharing the cores between them. */
+    private void startWorkers() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / sectors);
+        for (int k = 0; k < sectors; k++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "-Djava.util.concurrent.ForkJoinPool.common.parallelism=" + parallelism,
+                    SectorWorker.class.getName(), socketFile.toString(), Integer.toString(k))
+                    .inheritIO()
+                    .start());
+        }
+    }
+
+    /** Accept every worker's connection, ordered by the sector it announces. */
+    private void accept(ServerSocketChannel server) throws IOException {
+        server.configureBlocking(false);
+        SocketChannel[] bySector = new SocketChannel[sectors];
+        long deadline = System.nanoTime() + CONNECT_TIMEOUT_NANOS;
+        int connected = 0;
+        while (connected < sectors) {
+            SocketChannel channel = server.accept();
+            if (channel == null) {
+                for (Process p : processes) {
+                    if (!p.isAlive()) throw new IOException("Sector worker exited with " + p.exitValue());
+                }
+                if (System.nanoTime() > deadline) throw new IOException("Sector workers did not connect in time");
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while starting sector workers", e);
+                }
+                continue;
+            }
+            channel.configureBlocking(true);
+            channels.add(channel);
+            // unbuffered: nothing beyond the sector number may be consumed here
+            bySector[new DataInputStream(Channels.newInputStream(channel)).readInt()] = channel;
+            connected++;
+        }
+        channels.clear();
+        for (SocketChannel channel : bySector) {
+            channels.add(channel);
+            ins.add(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16)));
+            outs.add(new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)));
+        }
+    }
+
+    /**
+     * Run one tick on every sector.
+     *
+     * @param gather whether to collect every body afterwards and publish a snapshot
+     */
+    public void tick(boolean gather) throws IOException {
+        for (int k = 0; k < sectors; k++) {
+            DataOutputStream out = outs.get(k);
+            out.writeInt(SectorProtocol.TICK);
+            out.writeBoolean(gather);
+            out.writeFloat(maxRadius);
+            SectorProtocol.writeBodies(out, giants);
+            SectorProtocol.writeBodies(out, migrants.get(k));
+            SectorProtocol.writeBodies(out, ghosts.get(k));
+            out.writeInt(claims.get(k).size());
+            for (int[] c : claims.get(k)) {
+                out.writeInt(c[0]);
+                out.writeInt(c[1]);
+                out.writeInt(c[2]);
+            }
+            out.writeInt(absorbs.get(k).size());
+            for (int i = 0; i < absorbs.get(k).size(); i++) {
+                out.writeInt(absorbTargets.get(k).get(i));
+                SectorProtocol.writeBody(out, absorbs.get(k).get(i));
+            }
+            out.flush();
+            migrants.get(k).clear();
+            ghosts.get(k).clear();
+            claims.get(k).clear();
+            absorbTargets.get(k).clear();
+            absorbs.get(k).clear();
+        }
+
+        List<Body> allGiants = new ArrayList<>();
+        List<Body> gathered = gather ? new ArrayList<>() : null;
+        Map<Integer, Integer> nextGhostOwners = new HashMap<>();
+        List<int[]> newClaims = new ArrayList<>();
+        float radius = 0f;
+        int owned = 0;
+        for (int k = 0; k < sectors; k++) {
+            DataInputStream in = ins.get(k);
+            owned += in.readInt();
+            radius = Math.max(radius, in.readFloat());
+            allGiants.addAll(SectorProtocol.readBodies(in));
+            List<Body> leaving = SectorProtocol.readBodies(in);
+            migrated += leaving.size();
+            for (Body b : leaving) route(b);
+            int ghostCount = in.readInt();
+            ghostCopies += ghostCount;
+            for (int i = 0; i < ghostCount; i++) {
+                int to = in.readInt();
+                Body g = SectorProtocol.readBody(in);
+                ghosts.get(to).add(g);
+                nextGhostOwners.put(g.id, k);
+            }
+            int claimCount = in.readInt();
+            for (int i = 0; i < claimCount; i++) newClaims.add(new int[] {k, in.readInt(), in.readInt()});
+            int handed = in.readInt();
+            crossMerges += handed;
+            for (int i = 0; i < handed; i++) {
+                int claimer = in.readInt();
+                absorbTargets.get(claimer).add(in.readInt());
+                absorbs.get(claimer).add(SectorProtocol.readBody(in));
+            }
+            if (gather) gathered.addAll(SectorProtocol.readBodies(in));
+        }
+        // claims were made on the ghosts sent into this tick
+        for (int[] c : newClaims) {
+            Integer owner = ghostOwners.get(c[1]);
+            if (owner != null) claims.get(owner).add(c);
+        }
+        ghostOwners = nextGhostOwners;
+        allGiants.sort(Comparator.comparingDouble((Body b) -> b.mass).reversed());
+        giants = List.copyOf(allGiants.subList(0, Math.min(allGiants.size(), Simulation.PhysicsQuality.FULL.giants())));
+        maxRadius = radius;
+        bodies = owned;
+        ticks++;
+        if (gather) {
+            // bodies in flight between sectors belong to the disk too
+            for (int k = 0; k < sectors; k++) {
+                gathered.addAll(migrants.get(k));
+                gathered.addAll(absorbs.get(k));
+            }
+            view.replaceBodies(gathered);
+            view.publishFrame();
+        }
+    }
+
+    /** Queue a body for the sector its position falls in. */
+    private void route(Body b) {
+        migrants.get(SectorProtocol.sectorOf(b.x, b.y, sunX, sunY, sectors)).add(b);
+    }
+
+    @Override
+    public Simulation.Frames latestFrames() {
+        return view.latestFrames();
+    }
+
+    /** Also write every gathered snapshot to a shared-memory ring; see {@link Simulation#exportSnapshots}. */
+    public SnapshotRing exportSnapshots(Path file) throws IOException {
+        return view.exportSnapshots(file);
+    }
+
+    /** @return ticks run so far. */
+    public long ticks() {
+        return ticks;
+    }
+
+    /** @return bodies owned by the workers after the last tick, sun excluded. */
+    public int bodies() {
+        return bodies;
+    }
+
+    /** @return bodies moved between sectors so far. */
+    public long migrated() {
+        return migrated;
+    }
+
+    /** @return ghost copies sent so far. */
+    public long ghostCopies() {
+        return ghostCopies;
+    }
+
+    /** @return merges across sector boundaries so far. */
+    public long crossMerges() {
+        return crossMerges;
+    }
+
+    /** Stop the workers and remove the socket file. */
+    @Override
+    public void close() {
+        for (DataOutputStream out : outs) {
+            try {
+                out.writeInt(SectorProtocol.STOP);
+                out.flush();
+            } catch (IOException e) {
+                // worker already gone
+            }
+        }
+        for (SocketChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+        for (Process p : processes) {
+            try {
+                if (!p.waitFor(5, TimeUnit.SECONDS)) p.destroyForcibly();
+            } catch (InterruptedException e) {
+                p.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            Files.deleteIfExists(socketFile);
+            Files.deleteIfExists(socketFile.getParent());
+        } catch (IOException e) {
+            // left in the temp directory
+        }
+    }
+
+    /** Command-line entry point: run a distributed disk headless. */
+    public static void main(String[] args) throws Exception {
+        int sectors = 4;
+        int width = 2560;
+        int height = 2560;
+        int grains = 320_000;
+        long steps = 0;
+        int gatherEvery = 4;
+        long seed = 1;
+        Path ringFile = null;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected name=value: " + arg);
+            String name = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "sectors" -> sectors = Integer.parseInt(value);
+                case "grains" -> grains = Integer.parseInt(value);
+                case "steps" -> steps = Long.parseLong(value);
+                case "gather" -> gatherEvery = Math.max(1, Integer.parseInt(value));
+                case "seed" -> seed = Long.parseLong(value);
+                case "shm-out" -> ringFile = Path.of(value);
+                case "size" -> {
+                    String[] wh = value.split("x");
+                    width = Integer.parseInt(wh[0]);
+                    height = Integer.parseInt(wh[1]);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        try (SectorCoordinator coordinator = new SectorCoordinator(sectors, width, height, grains, seed,
+                Simulation.PhysicsConfig.DEFAULT)) {
+            SnapshotRing ring = ringFile == null ? null : coordinator.exportSnapshots(ringFile);
+            long start = System.nanoTime();
+            long reported = start;
+            long reportedTicks = 0;
+            while (steps == 0 || coordinator.ticks() < steps) {
+                coordinator.tick(coordinator.ticks() % gatherEvery == 0);
+                long now = System.nanoTime();
+                if (now - reported >= 1_000_000_000L) {
+                    System.out.printf(Locale.ROOT, "tick %d: %.1f ticks/s, %d bodies, %d migrated, %d ghosts, %d cross-sector merges%n",
+                            coordinator.ticks(), (coordinator.ticks() - reportedTicks) * 1e9 / (now - reported),
+                            coordinator.bodies(), coordinator.migrated(), coordinator.ghostCopies(), coordinator.crossMerges());
+                    reported = now;
+                    reportedTicks = coordinator.ticks();
+                }
+            }
+            if (ring != null) ring.close();
+            System.out.printf(Locale.ROOT, "%d ticks in %d ms, %d bodies%n", coordinator.ticks(),
+                    (System.nanoTime() - start) / 1_000_000L, coordinator.bodies());
+        }
+    }
+}
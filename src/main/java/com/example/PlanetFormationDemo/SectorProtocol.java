@@ -0,0 +1,117 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format shared by {@link SectorCoordinator} and its {@link SectorWorker}s, plus the sector
+ * geometry both sides must agree on. Messages are big-endian {@link DataOutputStream} records over
+ * a local socket:
+ * <pre>
+ * hello  (to worker)   int sector, int sectors, int width, int height, int budget, long seed,
+ *                      float g, drag, softening, planetGravityScale, mergeReach
+ * tick   (to worker)   int op (TICK or STOP), boolean gather, float maxRadius,
+ *                      bodies giants, bodies migrants, bodies ghosts,
+ *                      int claims, (int claimer, int ghostId, int ownedId)[claims],
+ *                      int absorbs, (int targetId, body)[absorbs]
+ * reply  (from worker) int bodies, float maxRadius, bodies giants, bodies migrants,
+ *                      int ghosts, (int sector, body)[ghosts],
+ *                      int claims, (int ghostId, int ownedId)[claims],
+ *                      int absorbs, (int claimer, int targetId, body)[absorbs],
+ *                      bodies owned (only when gathering)
+ * bodies = int count, body[count]
+ * body   = int id, float x, y, vx, vy, mass, radius, long particles, byte stage, byte flags, name
+ * </pre>
+ * where {@code flags} has bit 0 for comets and bit 1 for a name, which follows as modified UTF-8.
+ */
+final class SectorProtocol {
+    /** Tick ops. */
+    static final int TICK = 1;
+    static final int STOP = 2;
+    /** Body flags. */
+    private static final int COMET = 1;
+    private static final int NAMED = 2;
+    /** Stages by ordinal. */
+    private static final Stage[] STAGES = Stage.values();
+
+    /** Utility class; do not instantiate. */
+    private SectorProtocol() {}
+
+    /**
+     * Sector owning a position: sectors are equal angular wedges around the sun, numbered
+     * counter-clockwise from the positive x axis.
+     */
+    static int sectorOf(float x, float y, float sunX, float sunY, int sectors) {
+        double angle = Math.atan2(y - sunY, x - sunX);
+        if (angle < 0) angle += 2 * Math.PI;
+        return Math.min(sectors - 1, (int) (angle * sectors / (2 * Math.PI)));
+    }
+
+    /**
+     * Unit directions of the rays from the sun between sectors; ray {@code k} starts sector
+     * {@code k} and ends sector {@code k - 1}.
+     *
+     * @return x components followed by y components
+     */
+    static float[] boundaryRays(int sectors) {
+        float[] rays = new float[2 * sectors];
+        for (int k = 0; k < sectors; k++) {
+            double angle = 2 * Math.PI * k / sectors;
+            rays[k] = (float) Math.cos(angle);
+            rays[sectors + k] = (float) Math.sin(angle);
+        }
+        return rays;
+    }
+
+    /** Distance from an offset from the sun to the ray from the sun along unit vector {@code (ux, uy)}. */
+    static float distanceToRay(float dx, float dy, float ux, float uy) {
+        if (dx * ux + dy * uy <= 0) return (float) Math.sqrt(dx * dx + dy * dy);
+        return Math.abs(dx * uy - dy * ux);
+    }
+
+    static void writeBody(DataOutputStream out, Body b) throws IOException {
+        out.writeInt(b.id);
+        out.writeFloat(b.x);
+        out.writeFloat(b.y);
+        out.writeFloat(b.vx);
+        out.writeFloat(b.vy);
+        out.writeFloat(b.mass);
+        out.writeFloat(b.radius);
+        out.writeLong(b.particleCount);
+        out.writeByte(b.stage.ordinal());
+        out.writeByte((b.isComet ? COMET : 0) | (b.name != null ? NAMED : 0));
+        if (b.name != null) out.writeUTF(b.name);
+    }
+
+    static Body readBody(DataInputStream in) throws IOException {
+        Body b = new Body();
+        b.id = in.readInt();
+        b.x = in.readFloat();
+        b.y = in.readFloat();
+        b.vx = in.readFloat();
+        b.vy = in.readFloat();
+        b.mass = in.readFloat();
+        b.radius = in.readFloat();
+        b.particleCount = in.readLong();
+        b.stage = STAGES[in.readByte()];
+        int flags = in.readByte();
+        b.isComet = (flags & COMET) != 0;
+        if ((flags & NAMED) != 0) b.name = in.readUTF();
+        return b;
+    }
+
+    static void writeBodies(DataOutputStream out, List<Body> bodies) throws IOException {
+        out.writeInt(bodies.size());
+        for (Body b : bodies) writeBody(out, b);
+    }
+
+    static List<Body> readBodies(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<Body> bodies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) bodies.add(readBody(in));
+        return bodies;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One angular sector of a distributed disk, run as its own process by a {@link SectorCoordinator}.
+ * The worker owns the bodies in its wedge and steps them with an ordinary {@link Simulation}; per
+ * tick, in lockstep with the other sectors, it
+ * <ol>
+ * <li>merges bodies handed over for ghost claims it made, and hands over its own claimed bodies;</li>
+ * <li>adopts bodies that migrated into its wedge;</li>
+ * <li>steps with the disk-wide giants and its neighbours' ghosts (boundary bodies close enough to
+ *     touch one of its own);</li>
+ * <li>releases bodies that left its wedge, and reports its giants, claims and boundary bodies.</li>
+ * </ol>
+ * A body near several boundaries (near the sun, or with many narrow sectors) is a ghost in each
+ * sector it could touch. Workers talk only to the coordinator, which routes everything.
+ *
+ * <p>Usage (started by the coordinator): {@code SectorWorker <socket> <sector>}.
+ */
+public final class SectorWorker {
+    /** This worker's sector. */
+    private final int sector;
+    /** Number of sectors. */
+    private final int sectors;
+    /** The sector's bodies, plus a sun of its own. */
+    private final Simulation simulation;
+    /** Merge reach of the physics config, for ghost margins. */
+    private final float mergeReach;
+    /** Sector boundary rays (see {@link SectorProtocol#boundaryRays}). */
+    private final float[] rays;
+
+    private SectorWorker(int sector, int sectors, Simulation simulation) {
+        this.sector = sector;
+        this.sectors = sectors;
+        this.simulation = simulation;
+        this.mergeReach = simulation.config().mergeReach();
+        this.rays = SectorProtocol.boundaryRays(sectors);
+    }
+
+    /** Serve ticks until the coordinator sends STOP or goes away. */
+    private void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (in.readInt() == SectorProtocol.TICK) {
+            boolean gather = in.readBoolean();
+            float maxRadius = in.readFloat();
+            List<Body> giants = SectorProtocol.readBodies(in);
+            List<Body> migrants = SectorProtocol.readBodies(in);
+            List<Body> ghosts = SectorProtocol.readBodies(in);
+            int claimCount = in.readInt();
+            Map<Integer, int[]> claims = new HashMap<>();
+            for (int i = 0; i < claimCount; i++) {
+                int claimer = in.readInt();
+                int ghostId = in.readInt();
+                int ownedId = in.readInt();
+                // several sectors may claim one body; the first claim wins
+                claims.putIfAbsent(ghostId, new int[] {claimer, ownedId});
+            }
+            int absorbCount = in.readInt();
+            int[] targets = new int[absorbCount];
+            List<Body> arriving = new ArrayList<>(absorbCount);
+            for (int i = 0; i < absorbCount; i++) {
+                targets[i] = in.readInt();
+                arriving.add(SectorProtocol.readBody(in));
+            }
+
+            settleAbsorbs(targets, arriving);
+            List<Body> handedOver = claims.isEmpty() ? List.of() : simulation.release(b -> claims.containsKey(b.id));
+            for (Body b : migrants) simulation.adopt(b);
+            simulation.shareGiants(giants.toArray(new Body[0]));
+            simulation.addGhosts(ghosts);
+            simulation.step();
+            List<Simulation.GhostClaim> newClaims = simulation.drainGhostClaims();
+            Body sun = simulation.bodyList().get(0);
+            List<Body> leaving = simulation.release(
+                    b -> SectorProtocol.sectorOf(b.x, b.y, sun.x, sun.y, sectors) != sector);
+
+            List<Body> owned = simulation.bodyList();
+            float localMax = 0f;
+            for (int i = 1; i < owned.size(); i++) localMax = Math.max(localMax, owned.get(i).radius);
+            out.writeInt(owned.size() - 1);
+            out.writeFloat(localMax);
+            List<Body> localGiants = new ArrayList<>();
+            for (Body g : simulation.topGiants(Simulation.PhysicsQuality.FULL.giants())) {
+                if (g != null) localGiants.add(g);
+            }
+            SectorProtocol.writeBodies(out, localGiants);
+            SectorProtocol.writeBodies(out, leaving);
+            writeGhosts(out, owned, sun, Math.max(maxRadius, localMax));
+            out.writeInt(newClaims.size());
+            for (Simulation.GhostClaim c : newClaims) {
+                out.writeInt(c.ghostId());
+                out.writeInt(c.ownedId());
+            }
+            out.writeInt(handedOver.size());
+            for (Body b : handedOver) {
+                int[] claim = claims.get(b.id);
+                out.writeInt(claim[0]);
+                out.writeInt(claim[1]);
+                SectorProtocol.writeBody(out, b);
+            }
+            if (gather) SectorProtocol.writeBodies(out, owned.subList(1, owned.size()));
+            out.flush();
+        }
+    }
+
+    /**
+     * Merge bodies handed over for this sector's claims into their claimants; a body whose
+     * claimant has merged away or left meanwhile is simply adopted.
+     */
+    private void settleAbsorbs(int[] targets, List<Body> arriving) {
+        if (targets.length == 0) return;
+        Set<Integer> wanted = new HashSet<>();
+        for (int t : targets) wanted.add(t);
+        Map<Integer, Body> byId = new HashMap<>();
+        for (Body b : simulation.bodyList()) {
+            if (wanted.contains(b.id)) byId.put(b.id, b);
+        }
+        for (int i = 0; i < targets.length; i++) {
+            Body b = arriving.get(i);
+            // handed over at the start of the previous tick: catch up one step of drift
+            b.x += b.vx;
+            b.y += b.vy;
+            Body into = byId.get(targets[i]);
+            if (into != null) {
+                simulation.absorb(into, b);
+            } else {
+                simulation.adopt(b);
+            }
+        }
+    }
+
+    /**
+     * Send each owned body near a boundary as a ghost to the sectors on both sides of it. The
+     * margin covers a touch with the largest body in the disk after both have moved a step.
+     */
+    private void writeGhosts(DataOutputStream out, List<Body> owned, Body sun, float maxRadius) throws IOException {
+        List<Body> bodies = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+        Set<Integer> to = new HashSet<>();
+        for (int i = 1; i < owned.size(); i++) {
+            Body b = owned.get(i);
+            float speed = (float) Math.sqrt(b.vx * b.vx + b.vy * b.vy);
+            float margin = (b.radius + maxRadius) * mergeReach + 2f * speed + 1f;
+            float dx = b.x - sun.x;
+            float dy = b.y - sun.y;
+            to.clear();
+            for (int k = 0; k < sectors; k++) {
+                if (SectorProtocol.distanceToRay(dx, dy, rays[k], rays[sectors + k]) > margin) continue;
+                to.add(k);
+                to.add((k + sectors - 1) % sectors);
+            }
+            to.remove(sector);
+            for (int s : to) {
+                bodies.add(b);
+                targets.add(s);
+            }
+        }
+        out.writeInt(bodies.size());
+        for (int i = 0; i < bodies.size(); i++) {
+            out.writeInt(targets.get(i));
+            SectorProtocol.writeBody(out, bodies.get(i));
+        }
+    }
+
+    /** Process entry point: connect to the coordinator and serve its sector. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SectorWorker <socket> <sector>");
+            System.exit(2);
+        }
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(Path.of(args[0])));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(Integer.parseInt(args[1]));
+            out.flush();
+            int sector = in.readInt();
+            int sectors = in.readInt();
+            int width = in.readInt();
+            int height = in.readInt();
+            int budget = in.readInt();
+            long seed = in.readLong();
+            Simulation.PhysicsConfig config = new Simulation.PhysicsConfig(in.readFloat(), in.readFloat(),
+                    in.readFloat(), in.readFloat(), in.readFloat());
+            Simulation simulation = new Simulation(width, height, false, seed, config);
+            simulation.setBodyBudget(budget);
+            new SectorWorker(sector, sectors, simulation).serve(in, out);
+        }
+    }
+}
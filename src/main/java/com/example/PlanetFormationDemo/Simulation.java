@@ -1,60 +1,195 @@
 package com.example.PlanetFormationDemo;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
 /**
  * Physics + game state; produces snapshots and events for rendering/UI.
  */
-public class Simulation {
-    /** Gravity constant for the sun. */
-    private static final float G = 0.0008f;
-    /** Softening to avoid singular pull near the sun. */
-    private static final float GRAVITY_SOFTENING = 3000f;
-    /** Global drag to keep the disk bounded. */
-    private static final float DRAG = 0.9999f;
+public class Simulation implements SnapshotSource {
     /** Collision grid cell size. */
     private static final int CELL_SIZE = 12;
-    /** Scale for planet-planet gravity perturbations. */
-    private static final float PLANET_GRAVITY_SCALE = 0.18f;
     /** How many massive bodies to consider for mutual gravity. */
     private static final int MAX_GIANTS = 16;
+    /** Largest radius exported as packed dust rather than a full body view. */
+    private static final float DUST_MAX_RADIUS = 2.0f;
+    /** Default cap on live bodies (the seeded disk is 80k grains). */
+    public static final int DEFAULT_BODY_BUDGET = 120_000;
+    /** Coalescing stops once the body count falls to this fraction of the budget. */
+    private static final float COALESCE_TARGET = 0.95f;
+    /** Only grains lighter than this are coalesced; heavier clumps keep their own orbits. */
+    private static final float COALESCE_MAX_MASS = 8f;
+    /**
+     * Bodies moving faster than this (px per step) are also swept along their path, since an
+     * end-position check can step right over a grain.
+     */
+    private static final float FAST_SPEED = CELL_SIZE / 2f;
+    /** Largest view the snapshot ring's slots leave room for the dust grid of. */
+    private static final int RING_VIEW_WIDTH = 3840;
+    private static final int RING_VIEW_HEIGHT = 2160;
 
     /** Current view width/height. */
     private int width;
     private int height;
     /** Bodies managed by the simulation. */
     private final List<Body> bodies = new ArrayList<>();
-    /** Collision grid cells. */
-    private final List<List<Body>> grid;
+    /** Collision grid cells, covering the view; resized with it. */
+    private List<List<Body>> grid;
+    /** Cells near a non-dust body this step; always collision-checked when quiet cells are strided. */
+    private boolean[] activeCells;
+    /** Last sweep that tested each cell, so a sweep tests a cell once. */
+    private int[] sweptCells;
+    /** Number of the current sweep. */
+    private int sweep;
+    /** Bodies faster than {@link #FAST_SPEED} this step, found while bucketing. */
+    private final List<Body> fastBodies = new ArrayList<>();
+    /** Merges found by sweeps in the current tick. */
+    private int sweptMergesThisTick;
     /** Number of grid columns. */
-    private final int gridCols;
+    private int gridCols;
     /** Number of grid rows. */
-    private final int gridRows;
+    private int gridRows;
+    /** Tunable physics constants. */
+    private final PhysicsConfig config;
     /** Random source used throughout the simulation. */
-    private final Random random = new Random();
-    /** Event listeners (captions, sounds). */
-    private final CopyOnWriteArrayList<SimulationListener> listeners = new CopyOnWriteArrayList<>();
+    private final Random random;
+    /** Timer wheel advanced once per step; carries auto-comets and listeners' timed work. */
+    private final TickScheduler timers = new TickScheduler();
+    /** Delivers events to listeners (captions, sounds) off the physics thread. */
+    private final EventBus events = new EventBus(timers);
+    /** Identifier of the next body created. */
+    private int nextBodyId;
+    /** Merges resolved in the current tick. */
+    private int mergesThisTick;
+    /** Merge and stage-change Flight Recorder events recorded this tick (see their per-tick caps). */
+    private int mergeEventsThisTick;
+    private int stageEventsThisTick;
 
     /** Run flag for the physics loop. */
     private volatile boolean running = false;
     /** Physics executor. */
     private ExecutorService physicsExecutor;
-    /** Scheduler for auto-comets. */
-    private ScheduledExecutorService scheduler;
-    /** Cooldown for merge chimes. */
-    private long lastMergeChimeMs = 0L;
+    /** Pending auto-comet, or null when none is scheduled (guarded by {@code timers}). */
+    private TickScheduler.Timeout nextComet;
     /** Tick counter for periodic checks. */
     private int physicsTick = 0;
     /** Auto-comet toggle. */
-    private boolean autoCometsEnabled = true;
+    private volatile boolean autoCometsEnabled = true;
+    /** Target physics tick period in nanoseconds. */
+    private volatile long tickPeriodNanos = 16_000_000L;
+    /** Last two states published by the physics loop, or null before the first tick. */
+    private volatile Frames frames;
+    /** Shared-memory ring each published state is also written to, or null. */
+    private volatile SnapshotRing exportRing;
+    /** Quality knobs set by the governor. */
+    private volatile PhysicsQuality quality = PhysicsQuality.FULL;
+    /** Time spent in {@link #step()}. */
+    private final LoadMeter stepMeter = new LoadMeter();
+    /** Per-phase histograms of the step, snapshots and painting. */
+    private final PhysicsMetrics metrics = new PhysicsMetrics();
+    /** Optional conservation diagnostics. */
+    private final ConservationMonitor conservation;
+    /** Ticks between conservation samples, or 0 for none. */
+    private volatile int diagnosticsInterval;
+    /** Disk statistics maintained by the step. */
+    private final DiskAnalytics analytics = new DiskAnalytics();
+    /** Traces tool input through to the screen. */
+    private final InputLatency inputLatency = new InputLatency(metrics);
+    /** Live-body cap enforced by spawn admission and dust coalescing. */
+    private volatile int bodyBudget = DEFAULT_BODY_BUDGET;
+    /** Spawned grains refused because the budget was full. */
+    private long throttledSpawns;
+    /** Grains merged away by coalescing. */
+    private long coalescedBodies;
+    /** Giants of the whole disk supplied by a sector coordinator, used instead of the local ones; or null. */
+    private Body[] sharedGiants;
+    /** Skin of the collision neighbor lists, or 0 to sweep the whole grid every step. */
+    private volatile float neighborSkin;
+    /** Cached collision pairs while a skin is set (step only). */
+    private NeighborList neighbors;
+    /** Owned bodies that touched a ghost since the last {@link #drainGhostClaims()}. */
+    private final List<GhostClaim> ghostClaims = new ArrayList<>();
+
+    /**
+     * The two most recent states published by the physics loop, oldest first. Renderers draw
+     * positions interpolated between them so display and physics rates can differ.
+     *
+     * @param previous state one tick before {@code current}, or null after the first tick
+     * @param current  newest state
+     */
+    public record Frames(SimulationSnapshot previous, SimulationSnapshot current) {}
+
+    /**
+     * An owned body that touched a ghost during a step. The ghost's owning sector hands its body
+     * over and the two merge a tick later; only the lower id of a pair claims, so a pair is never
+     * claimed from both sides.
+     *
+     * @param ownedId id of the owned body, which absorbs the other
+     * @param ghostId id of the ghost's body
+     */
+    record GhostClaim(int ownedId, int ghostId) {}
+
+    /**
+     * Tunable physics constants, fixed for the life of a simulation.
+     *
+     * @param g                  gravity constant for the sun (and, scaled, for giants)
+     * @param drag               velocity multiplier applied every step to keep the disk bounded
+     * @param softening          added to squared distances to avoid a singular pull near the sun
+     * @param planetGravityScale scale for planet-planet gravity perturbations
+     * @param mergeReach         bodies merge when closer than this many times their summed radii
+     */
+    public record PhysicsConfig(float g, float drag, float softening, float planetGravityScale, float mergeReach) {
+        /** The tuned defaults. */
+        public static final PhysicsConfig DEFAULT = new PhysicsConfig(0.0008f, 0.9999f, 3000f, 0.18f, 1.35f);
+
+        public PhysicsConfig {
+            if (!(g > 0) || !(drag > 0 && drag <= 1) || !(softening >= 0) || !(planetGravityScale >= 0)
+                    || !(mergeReach > 0)) {
+                throw new IllegalArgumentException("Invalid physics config: g=" + g + ", drag=" + drag
+                        + ", softening=" + softening + ", planetGravityScale=" + planetGravityScale
+                        + ", mergeReach=" + mergeReach);
+            }
+        }
+
+        /**
+         * @param name  component name ({@code g}, {@code drag}, {@code softening},
+         *              {@code planetGravityScale} or {@code mergeReach})
+         * @param value new value
+         * @return a copy with one constant replaced
+         */
+        public PhysicsConfig with(String name, float value) {
+            return switch (name) {
+                case "g" -> new PhysicsConfig(value, drag, softening, planetGravityScale, mergeReach);
+                case "drag" -> new PhysicsConfig(g, value, softening, planetGravityScale, mergeReach);
+                case "softening" -> new PhysicsConfig(g, drag, value, planetGravityScale, mergeReach);
+                case "planetGravityScale" -> new PhysicsConfig(g, drag, softening, value, mergeReach);
+                case "mergeReach" -> new PhysicsConfig(g, drag, softening, planetGravityScale, value);
+                default -> throw new IllegalArgumentException("Unknown physics constant: " + name);
+            };
+        }
+    }
+
+    /**
+     * Physics-side quality knobs, lowered by {@link QualityGovernor} to hold a step budget.
+     *
+     * @param giants          heaviest bodies whose pull is applied to every body (gravity accuracy)
+     * @param collisionStride quiet cells (dust only, no planet or comet nearby) are collision-checked
+     *                        every this many steps, staggered across the grid; busy cells every step
+     * @param spawnScale      multiplier on grains added by the star wand and gravity glove
+     */
+    public record PhysicsQuality(int giants, int collisionStride, float spawnScale) {
+        /** Full quality: every giant, every cell every step, full spawn counts. */
+        public static final PhysicsQuality FULL = new PhysicsQuality(MAX_GIANTS, 1, 1f);
+    }
 
     /**
      * Create a simulation sized to the given viewport and seed dust by default.
@@ -71,14 +206,42 @@ public class Simulation {
      * @param seedDust whether to populate the disk immediately
      */
     public Simulation(int width, int height, boolean seedDust) {
+        this(width, height, seedDust, new Random(), PhysicsConfig.DEFAULT);
+    }
+
+    /**
+     * Create a simulation whose disk and physics randomness are reproducible; two instances with
+     * the same seed evolve identically when stepped the same way (planet names aside).
+     *
+     * @param width    target viewport width
+     * @param height   target viewport height
+     * @param seedDust whether to populate the disk immediately
+     * @param seed     seed for every random choice the simulation makes
+     */
+    public Simulation(int width, int height, boolean seedDust, long seed) {
+        this(width, height, seedDust, new Random(seed), PhysicsConfig.DEFAULT);
+    }
+
+    /**
+     * Create a reproducible simulation with its own physics constants.
+     *
+     * @param width    target viewport width
+     * @param height   target viewport height
+     * @param seedDust whether to populate the disk immediately
+     * @param seed     seed for every random choice the simulation makes
+     * @param config   physics constants
+     */
+    public Simulation(int width, int height, boolean seedDust, long seed, PhysicsConfig config) {
+        this(width, height, seedDust, new Random(seed), config);
+    }
+
+    private Simulation(int width, int height, boolean seedDust, Random random, PhysicsConfig config) {
+        this.random = random;
+        this.config = config;
+        this.conservation = new ConservationMonitor(config.g(), config.softening(), config.drag());
         this.width = width;
         this.height = height;
-        this.gridCols = width / CELL_SIZE + 2;
-        this.gridRows = height / CELL_SIZE + 2;
-        grid = new ArrayList<>(gridCols * gridRows);
-        for (int i = 0; i < gridCols * gridRows; i++) {
-            grid.add(new ArrayList<>(24));
-        }
+        resizeGrid();
         if (seedDust) {
             initBodies();
         } else {
@@ -90,17 +253,16 @@ public class Simulation {
      * Subscribe to simulation events.
      */
     public void addListener(SimulationListener l) {
-        listeners.add(l);
+        events.addListener(l);
     }
 
     /**
-     * Start the physics loop and scheduler threads.
+     * Start the physics loop thread; auto-comets run on its timer wheel.
      */
     public void start() {
         if (running) return;
         running = true;
         physicsExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "Physics"));
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "SimScheduler"));
         physicsExecutor.submit(this::loop);
         scheduleAutoComet();
     }
@@ -110,52 +272,264 @@ public class Simulation {
      */
     public void stop() {
         running = false;
+        events.stop();
         if (physicsExecutor != null) physicsExecutor.shutdownNow();
-        if (scheduler != null) scheduler.shutdownNow();
+        synchronized (timers) {
+            if (nextComet != null) nextComet.cancel();
+            nextComet = null;
+        }
     }
 
     /**
-     * Physics loop running at roughly 60 FPS.
+     * Physics loop running at the configured rate (roughly 60 Hz by default), publishing a
+     * snapshot after each step. Ticks keep to fixed deadlines rather than sleeping a rounded
+     * remainder, so the rate does not drift with step time; a tick that overruns its period
+     * starts the next one at once and resets the schedule instead of bursting to catch up.
      */
     private void loop() {
+        long deadline = System.nanoTime();
         while (running) {
-            long start = System.nanoTime();
             step();
-            long elapsed = (System.nanoTime() - start) / 1_000_000L;
-            long sleep = Math.max(2, 16 - elapsed);
-            try {
-                Thread.sleep(sleep);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                break;
+            publishFrame();
+            deadline += tickPeriodNanos;
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) {
+                deadline = System.nanoTime();
+                Thread.yield();
             }
+            while (wait > 0) {
+                LockSupport.parkNanos(wait);
+                if (Thread.currentThread().isInterrupted()) return;
+                wait = deadline - System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * @return the timer wheel advanced at the end of every {@link #step()}; its tasks run on the
+     *         stepping thread, in simulated time
+     */
+    public TickScheduler timers() {
+        return timers;
+    }
+
+    /**
+     * Shift the newest published state back and publish a fresh one.
+     */
+    void publishFrame() {
+        Frames last = frames;
+        SimulationSnapshot snap = snapshot();
+        frames = new Frames(last == null ? null : last.current(), snap);
+        inputLatency.published(snap.inputSeq(), snap.timeNanos());
+        SnapshotRing ring = exportRing;
+        if (ring != null) {
+            long start = System.nanoTime();
+            ring.write(snap);
+            long now = System.nanoTime();
+            metrics.record(PhysicsMetrics.Probe.RING_EXPORT, now - start, now);
         }
     }
 
+    /**
+     * Also write every published state to a shared-memory ring for viewers in other processes
+     * (see {@link SnapshotRingReader}). The physics thread never waits for them. Slots are sized
+     * for half again the body budget and the grid of a view up to {@link #RING_VIEW_WIDTH} by
+     * {@link #RING_VIEW_HEIGHT}, since the grid grows with the window; larger frames are skipped.
+     *
+     * @param file ring file, created or truncated (e.g. under {@code /dev/shm})
+     * @return the ring, to close when done
+     */
+    public SnapshotRing exportSnapshots(Path file) throws IOException {
+        int bodies = bodyBudget + bodyBudget / 2;
+        SnapshotRing ring = SnapshotRing.create(file, SnapshotRing.DEFAULT_SLOTS,
+                SnapshotRing.slotBytesFor(bodies, Math.max(gridCols * gridRows,
+                        (RING_VIEW_WIDTH / CELL_SIZE + 2) * (RING_VIEW_HEIGHT / CELL_SIZE + 2))));
+        exportRing = ring;
+        return ring;
+    }
+
+    /**
+     * @return the last two states published by the physics loop, or null if it has not ticked yet.
+     *         Reading this never touches the bodies lock.
+     */
+    @Override
+    public Frames latestFrames() {
+        return frames;
+    }
+
+    /**
+     * Set the physics tick rate. Each tick advances the disk by one fixed step, so a lower rate
+     * (e.g. 30 Hz under heavy load) also slows the simulated motion; interpolation keeps it smooth.
+     */
+    public void setPhysicsRate(int hz) {
+        tickPeriodNanos = 1_000_000_000L / Math.max(1, hz);
+    }
+
+    /** @return current physics quality knobs. */
+    public PhysicsQuality getPhysicsQuality() {
+        return quality;
+    }
+
+    /** Replace the physics quality knobs; takes effect from the next step or spawn. */
+    public void setPhysicsQuality(PhysicsQuality quality) {
+        this.quality = quality;
+    }
+
+    /** @return smoothed time spent in {@link #step()}. */
+    public LoadMeter stepMeter() {
+        return stepMeter;
+    }
+
+    /**
+     * Sample conservation diagnostics every {@code ticks} steps (see {@link ConservationMonitor}).
+     *
+     * @param ticks steps between samples; 0 turns diagnostics off
+     */
+    public void setDiagnosticsInterval(int ticks) {
+        diagnosticsInterval = Math.max(0, ticks);
+    }
+
+    /** @return conservation diagnostics (sampled only while an interval is set). */
+    public ConservationMonitor conservation() {
+        return conservation;
+    }
+
+    /** @return physics constants of this simulation. */
+    public PhysicsConfig config() {
+        return config;
+    }
+
+    /** @return incrementally maintained disk statistics. */
+    public DiskAnalytics analytics() {
+        return analytics;
+    }
+
+    /** @return tracer of tool input latency. */
+    public InputLatency inputLatency() {
+        return inputLatency;
+    }
+
+    /**
+     * Apply a tool input and register it for latency tracing.
+     *
+     * @param tool       tool the input drives
+     * @param eventNanos {@link System#nanoTime()}-based time of the input event
+     * @param action     the tool call (e.g. {@link #applyWind}); it runs with the bodies lock held
+     */
+    public void applyInput(ToolMode tool, long eventNanos, Runnable action) {
+        long handled = System.nanoTime();
+        synchronized (bodies) {
+            long locked = System.nanoTime();
+            action.run();
+            inputLatency.applied(tool, Math.min(eventNanos, handled), handled, locked, System.nanoTime());
+        }
+    }
+
+    /** @return per-phase step, snapshot and paint histograms. */
+    public PhysicsMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Cap the number of live bodies. Tool spawns beyond the cap are refused and, if the disk is
+     * already over it, the next step coalesces dust in the densest cells until it fits again.
+     */
+    public void setBodyBudget(int budget) {
+        this.bodyBudget = Math.max(1_000, budget);
+    }
+
+    /**
+     * Check collisions from cached {@link NeighborList} pairs instead of sweeping the whole grid
+     * every step. Pays off on settled disks, where neighbors change slowly and most grid cells are
+     * empty; the collision stride of the physics quality is then ignored.
+     *
+     * @param skin extra distance in pixels cached pairs may close before a body is re-checked on
+     *             the grid (clamped to half a grid cell), or 0 for the grid sweep
+     */
+    public void setNeighborSkin(float skin) {
+        neighborSkin = Math.max(0f, Math.min(CELL_SIZE / 2f, skin));
+    }
+
+    /** @return the neighbor-list skin, or 0 when collisions sweep the grid. */
+    public float getNeighborSkin() {
+        return neighborSkin;
+    }
+
+    /** @return current live-body cap. */
+    public int getBodyBudget() {
+        return bodyBudget;
+    }
+
+    /** @return total grains refused by spawn admission so far. */
+    public long getThrottledSpawns() {
+        synchronized (bodies) {
+            return throttledSpawns;
+        }
+    }
+
+    /** @return total grains merged away by coalescing so far. */
+    public long getCoalescedBodies() {
+        synchronized (bodies) {
+            return coalescedBodies;
+        }
+    }
+
+    /** @return physics ticks per second currently targeted. */
+    public int getPhysicsRate() {
+        return (int) (1_000_000_000L / tickPeriodNanos);
+    }
+
     /**
      * Seed the simulation with the sun plus a dense dust disk.
      */
     private void initBodies() {
-        bodies.clear();
-        Body sun = new Body();
-        sun.x = width / 2f;
-        sun.y = height / 2f;
-        sun.mass = 1_200_000f;
-        sun.radius = 26f;
-        sun.color = new java.awt.Color(255, 160, 40);
-        sun.isSun = true;
-        sun.particleCount = 0;
-        bodies.add(sun);
+        initSunOnly();
+        addDisk(80_000, 0);
+    }
+
+    /**
+     * Replace every body with the sun plus a fresh disk of {@code grains} dust grains. Used by
+     * benchmarks to build disks of a given size and shape.
+     *
+     * @param grains   grains to add
+     * @param clusters 0 for a uniform disk, otherwise the number of clumps the grains are gathered into
+     */
+    void seedDisk(int grains, int clusters) {
+        synchronized (bodies) {
+            initSunOnly();
+            addDisk(grains, clusters);
+        }
+    }
 
+    /**
+     * Add dust on near-circular orbits between 10% and 48% of the view's smaller side, spread
+     * uniformly or gathered around {@code clusters} random points of the disk.
+     */
+    private void addDisk(int grains, int clusters) {
+        Body sun = bodies.get(0);
         float minR = Math.min(width, height) * 0.10f;
         float maxR = Math.min(width, height) * 0.48f;
-        for (int i = 0; i < 80_000; i++) {
-            float r = minR + random.nextFloat() * (maxR - minR);
-            double angle = random.nextDouble() * Math.PI * 2;
+        float[] clumpR = new float[clusters];
+        double[] clumpAngle = new double[clusters];
+        for (int k = 0; k < clusters; k++) {
+            clumpR[k] = minR + random.nextFloat() * (maxR - minR);
+            clumpAngle[k] = random.nextDouble() * Math.PI * 2;
+        }
+        for (int i = 0; i < grains; i++) {
+            float r;
+            double angle;
+            if (clusters == 0) {
+                r = minR + random.nextFloat() * (maxR - minR);
+                angle = random.nextDouble() * Math.PI * 2;
+            } else {
+                int k = random.nextInt(clusters);
+                r = Math.max(minR, Math.min(maxR, clumpR[k] + (float) random.nextGaussian() * 12f));
+                angle = clumpAngle[k] + random.nextGaussian() * 12.0 / clumpR[k];
+            }
             float x = sun.x + (float) (Math.cos(angle) * r);
             float y = sun.y + (float) (Math.sin(angle) * r);
             float mass = 0.25f + random.nextFloat() * 0.9f;
-            float speed = (float) Math.sqrt((G * sun.mass) / r);
+            float speed = (float) Math.sqrt((config.g() * sun.mass) / r);
             float tangentialScale = 0.90f + random.nextFloat() * 0.18f;
             float vx = (float) (-Math.sin(angle) * speed) * tangentialScale + (random.nextFloat() - 0.5f) * 0.12f;
             float vy = (float) (Math.cos(angle) * speed) * tangentialScale + (random.nextFloat() - 0.5f) * 0.12f;
@@ -168,12 +542,14 @@ public class Simulation {
      */
     private void initSunOnly() {
         bodies.clear();
+        analytics.reset();
+        conservation.reset();
         Body sun = new Body();
+        sun.id = nextBodyId++;
         sun.x = width / 2f;
         sun.y = height / 2f;
         sun.mass = 1_200_000f;
         sun.radius = 26f;
-        sun.color = new java.awt.Color(255, 160, 40);
         sun.isSun = true;
         sun.particleCount = 0;
         bodies.add(sun);
@@ -185,9 +561,13 @@ public class Simulation {
     public void resetForSize(int w, int h) {
         synchronized (bodies) {
             bodies.clear();
+            analytics.reset();
+            conservation.reset();
             // rebuild with new width/height centers
-            Simulation fresh = new Simulation(w, h);
+            Simulation fresh = new Simulation(w, h, true, new Random(random.nextLong()), config);
             bodies.addAll(fresh.bodies);
+            nextBodyId = fresh.nextBodyId;
+            for (Body b : bodies) analytics.added(b);
         }
     }
 
@@ -196,6 +576,7 @@ public class Simulation {
      */
     private void addBody(float x, float y, float vx, float vy, float mass, boolean comet) {
         Body b = new Body();
+        b.id = nextBodyId++;
         b.x = x;
         b.y = y;
         b.vx = vx;
@@ -203,37 +584,85 @@ public class Simulation {
         b.mass = mass;
         b.radius = radiusForMass(mass);
         b.stage = stageForParticles(b.particleCount);
-        b.color = PlanetStyling.colorForStage(b.stage);
         b.isComet = comet;
         b.particleCount = Math.max(1, Math.round(mass));
         b.removed = false;
         bodies.add(b);
+        analytics.added(b);
+        conservation.external(b.mass);
     }
 
-    /** Immutable snapshot for rendering. */
+    /**
+     * Immutable snapshot for rendering; small unnamed grains are packed into a dust field sorted by
+     * collision grid cell so renderers can cull and aggregate per cell.
+     */
     public SimulationSnapshot snapshot() {
+        long start = System.nanoTime();
         synchronized (bodies) {
-            List<SimulationSnapshot.BodyView> copy = new ArrayList<>(bodies.size());
+            int cells = gridCols * gridRows;
+            int[] cellStart = new int[cells + 1];
+            int dustCount = 0;
             for (Body b : bodies) {
+                if (isDust(b)) {
+                    cellStart[cellIndex(b) + 1]++;
+                    dustCount++;
+                }
+            }
+            for (int c = 1; c <= cells; c++) cellStart[c] += cellStart[c - 1];
+            int[] cursor = java.util.Arrays.copyOf(cellStart, cells);
+            List<SimulationSnapshot.BodyView> copy = new ArrayList<>(bodies.size() - dustCount);
+            float[] dx = new float[dustCount];
+            float[] dy = new float[dustCount];
+            float[] dvx = new float[dustCount];
+            float[] dvy = new float[dustCount];
+            float[] dr = new float[dustCount];
+            int[] rgb = new int[dustCount];
+            int[] ids = new int[dustCount];
+            long totalParticles = analytics.particles();
+            for (Body b : bodies) {
+                if (isDust(b)) {
+                    int d = cursor[cellIndex(b)]++;
+                    dx[d] = b.x;
+                    dy[d] = b.y;
+                    dvx[d] = b.vx;
+                    dvy[d] = b.vy;
+                    dr[d] = b.radius;
+                    rgb[d] = PlanetStyling.argb(PlanetStyling.paletteIndex(b));
+                    ids[d] = b.id;
+                    continue;
+                }
                 SimulationSnapshot.BodyView v = new SimulationSnapshot.BodyView(
-                        b.x, b.y, b.vx, b.vy, b.radius, b.color, b.isSun, b.name, b.particleCount, b.isComet
+                        b.id, b.x, b.y, b.vx, b.vy, b.radius, PlanetStyling.paletteIndex(b), b.isSun, b.name, b.particleCount, b.isComet
                 );
                 copy.add(v);
             }
-            return new SimulationSnapshot(copy, autoCometsEnabled);
+            SimulationSnapshot.DustField dust = new SimulationSnapshot.DustField(
+                    dustCount, dx, dy, dvx, dvy, dr, rgb, ids, CELL_SIZE, gridCols, gridRows, cellStart);
+            long now = System.nanoTime();
+            metrics.record(PhysicsMetrics.Probe.SNAPSHOT, now - start, now);
+            return new SimulationSnapshot(copy, dust, totalParticles, autoCometsEnabled, now, inputLatency.lastSeq(),
+                    width, height);
         }
     }
 
+    /**
+     * Whether a body is plain dust that renderers may draw as a point sprite.
+     */
+    private boolean isDust(Body b) {
+        return !b.isSun && !b.isComet && b.name == null && b.radius <= DUST_MAX_RADIUS;
+    }
+
     /**
      * Return the heaviest bodies (besides the sun) to approximate mutual gravity.
      */
-    private Body[] topGiants() {
-        Body[] top = new Body[MAX_GIANTS];
-        float[] masses = new float[MAX_GIANTS];
+    Body[] topGiants(int limit) {
+        Body[] top = new Body[limit];
+        float[] masses = new float[limit];
+        if (limit == 0) return top;
         for (int i = 1; i < bodies.size(); i++) { // skip sun
             Body b = bodies.get(i);
             int idx = 0;
-            for (int k = 1; k < MAX_GIANTS; k++) {
+            for (int k = 1; k < limit; k++) {
                 if (top[k] == null || masses[k] < masses[idx]) {
                     idx = k;
                 }
@@ -250,13 +679,14 @@ public class Simulation {
     public void sprinkleDust(float x, float y, int count) {
         synchronized (bodies) {
             Body sun = bodies.get(0);
+            count = scaledSpawn(count);
             for (int i = 0; i < count; i++) {
                 float mass = 0.25f + random.nextFloat() * 0.9f;
                 float dx = x - sun.x;
                 float dy = y - sun.y;
                 float r = (float) Math.sqrt(dx * dx + dy * dy) + 1f;
                 float angle = (float) Math.atan2(dy, dx);
-                float speed = (float) Math.sqrt((G * sun.mass) / r) * (0.90f + random.nextFloat() * 0.18f);
+                float speed = (float) Math.sqrt((config.g() * sun.mass) / r) * (0.90f + random.nextFloat() * 0.18f);
                 float vx = (float) (-Math.sin(angle) * speed) + (random.nextFloat() - 0.5f) * 0.16f;
                 float vy = (float) (Math.cos(angle) * speed) + (random.nextFloat() - 0.5f) * 0.16f;
                 addBody(x + (random.nextFloat() - 0.5f) * 6f, y + (random.nextFloat() - 0.5f) * 6f, vx, vy, mass, false);
@@ -267,6 +697,7 @@ public class Simulation {
     /** Apply a radial push away from a point (wind tool). */
     public void applyWind(float x, float y, float scale) {
         synchronized (bodies) {
+            conservation.disturbed();
             float radius = 200f;
             float baseForce = 0.05f * scale;
             for (int i = 1; i < bodies.size(); i++) {
@@ -287,6 +718,7 @@ public class Simulation {
     /** Apply a pull toward a point and optionally sprinkle a few grains (gravity glove). */
     public void applyGravityGlove(float x, float y, float scale, int extraDust) {
         synchronized (bodies) {
+            conservation.disturbed();
             Body sun = bodies.get(0);
             float radius = 220f;
             float baseForce = 0.06f * scale;
@@ -302,13 +734,14 @@ public class Simulation {
                 b.vx += (dx / dist) * force;
                 b.vy += (dy / dist) * force;
             }
+            extraDust = extraDust > 0 ? scaledSpawn(extraDust) : 0;
             for (int i = 0; i < extraDust; i++) {
                 float mass = 0.25f + random.nextFloat() * 0.9f;
                 float dx = x - sun.x;
                 float dy = y - sun.y;
                 float r = (float) Math.sqrt(dx * dx + dy * dy) + 1f;
                 float angle = (float) Math.atan2(dy, dx);
-                float speed = (float) Math.sqrt((G * sun.mass) / r) * (0.90f + random.nextFloat() * 0.18f);
+                float speed = (float) Math.sqrt((config.g() * sun.mass) / r) * (0.90f + random.nextFloat() * 0.18f);
                 float vx = (float) (-Math.sin(angle) * speed) + (random.nextFloat() - 0.5f) * 0.14f;
                 float vy = (float) (Math.cos(angle) * speed) + (random.nextFloat() - 0.5f) * 0.14f;
                 addBody(x + (random.nextFloat() - 0.5f) * 4f, y + (random.nextFloat() - 0.5f) * 4f, vx, vy, mass, false);
@@ -316,6 +749,24 @@ public class Simulation {
         }
     }
 
+    /**
+     * Scale a requested grain count by the current spawn quality, keeping at least one grain.
+     */
+    private int scaledSpawn(int count) {
+        return admit(Math.max(1, Math.round(count * quality.spawnScale())));
+    }
+
+    /**
+     * Admission control for tool spawns: grant at most the room left under the body budget and
+     * count the rest as throttled. Caller must hold the bodies lock.
+     */
+    private int admit(int count) {
+        int room = Math.max(0, bodyBudget - bodies.size());
+        int granted = Math.min(count, room);
+        throttledSpawns += count - granted;
+        return granted;
+    }
+
     /** Spawn a comet from a screen edge aimed at the sun. */
     public void launchComet() {
         synchronized (bodies) {
@@ -334,14 +785,14 @@ public class Simulation {
             vy = (dy / dist) * speed + (random.nextFloat() - 0.5f) * 0.6f;
             float mass = 120f + random.nextFloat() * 80f;
             addBody(x, y, vx, vy, mass, true);
-            listeners.forEach(l -> l.onSound(SoundEvent.COMET));
-            listeners.forEach(l -> l.onCaption("Comet incoming!", 2200));
+            events.publish(EventBus.Kind.COMET, null, 0);
         }
     }
 
     /** Add small random velocity to all bodies (shake). */
     public void shakeDisk() {
         synchronized (bodies) {
+            conservation.disturbed();
             for (int i = 1; i < bodies.size(); i++) {
                 Body b = bodies.get(i);
                 b.vx += (random.nextFloat() - 0.5f) * 0.8f;
@@ -363,17 +814,21 @@ public class Simulation {
                 float distSq = dx * dx + dy * dy;
                 if (distSq > maxR * maxR && b.mass < 20f) {
                     b.removed = true;
+                    analytics.removed(b);
+                    conservation.external(-b.mass);
                 }
             }
             compact();
         }
     }
 
-    /** Toggle auto-comet spawning. */
+    /** Toggle auto-comet spawning; re-enabling starts a fresh random delay. */
     public void setAutoCometsEnabled(boolean enabled) {
-        autoCometsEnabled = enabled;
-        if (enabled) {
-            scheduleAutoComet();
+        synchronized (timers) {
+            autoCometsEnabled = enabled;
+            if (nextComet != null) nextComet.cancel();
+            nextComet = null;
+            if (enabled) scheduleAutoComet();
         }
     }
 
@@ -387,6 +842,7 @@ public class Simulation {
         synchronized (bodies) {
             this.width = w;
             this.height = h;
+            resizeGrid();
             bodies.clear();
             initBodies();
         }
@@ -397,6 +853,7 @@ public class Simulation {
         synchronized (bodies) {
             this.width = targetW;
             this.height = targetH;
+            resizeGrid();
             Body sun = bodies.get(0);
             float targetX = targetW / 2f;
             float targetY = targetH / 2f;
@@ -410,53 +867,245 @@ public class Simulation {
         }
     }
 
+    /**
+     * Size the collision grid (and its per-cell arrays) to cover the current view, so bodies are
+     * only clamped into edge cells once they leave it. Keeps the grid if the size is unchanged.
+     */
+    private void resizeGrid() {
+        int cols = width / CELL_SIZE + 2;
+        int rows = height / CELL_SIZE + 2;
+        if (grid != null && cols == gridCols && rows == gridRows) return;
+        gridCols = cols;
+        gridRows = rows;
+        grid = new ArrayList<>(cols * rows);
+        for (int i = 0; i < cols * rows; i++) {
+            grid.add(new ArrayList<>(24));
+        }
+        activeCells = new boolean[cols * rows];
+        sweptCells = new int[cols * rows];
+        sweep = 0;
+        // cached pairs were found on the old grid
+        neighbors = null;
+    }
+
     /**
      * One physics step: gravity, collisions, clean-up, and recenter.
+     * Called by the physics loop; headless drivers may call it directly without {@link #start()}.
      */
-    private void step() {
+    public void step() {
+        long start = System.nanoTime();
+        long allocStart = PhysicsMetrics.threadAllocatedBytes();
+        StepEvent event = new StepEvent();
+        event.begin();
         synchronized (bodies) {
-            Body sun = bodies.get(0);
-            Body[] giants = topGiants();
-            int count = bodies.size();
-            IntStream.range(1, count).parallel().forEach(i -> {
-                Body b = bodies.get(i);
-                b.removed = false;
-                float dx = sun.x - b.x;
-                float dy = sun.y - b.y;
-                float distSq = dx * dx + dy * dy + GRAVITY_SOFTENING;
-                float dist = (float) Math.sqrt(distSq);
-                float accel = (G * sun.mass / distSq);
-                b.vx += accel * dx / dist;
-                b.vy += accel * dy / dist;
-                for (Body giant : giants) {
-                    if (giant == null || giant == b) continue;
-                    float gdx = giant.x - b.x;
-                    float gdy = giant.y - b.y;
-                    float gDistSq = gdx * gdx + gdy * gdy + GRAVITY_SOFTENING;
-                    float gDist = (float) Math.sqrt(gDistSq);
-                    float gAccel = (G * PLANET_GRAVITY_SCALE * giant.mass / gDistSq);
-                    b.vx += gAccel * gdx / gDist;
-                    b.vy += gAccel * gdy / gDist;
-                }
-                b.vx *= DRAG;
-                b.vy *= DRAG;
-                b.x += b.vx;
-                b.y += b.vy;
-            });
+            long locked = System.nanoTime();
+            event.lockWait = locked - start;
+            PhysicsQuality q = quality;
+            integrate(q.giants());
+            long t = lap(event, PhysicsMetrics.Probe.GRAVITY, locked);
             clearGrid();
-            for (int i = 1; i < bodies.size(); i++) bucketBody(bodies.get(i));
-            resolveCollisions();
+            t = lap(event, PhysicsMetrics.Probe.GRID_CLEAR, t);
+            int stride = Math.max(1, q.collisionStride());
+            bucketBodies(stride);
+            t = lap(event, PhysicsMetrics.Probe.BUCKETING, t);
+            resolveCollisions(stride);
+            sweepFastBodies();
+            t = lap(event, PhysicsMetrics.Probe.COLLISIONS, t);
             compact();
+            // sized from the live bodies, now that this tick's merges and the ghosts are gone
+            int excess = bodies.size() - Math.round(bodyBudget * COALESCE_TARGET);
+            if (bodies.size() > bodyBudget && excess > 0 && coalesceDust(excess) > 0) compact();
+            t = lap(event, PhysicsMetrics.Probe.COMPACTION, t);
             recenter();
+            t = lap(event, PhysicsMetrics.Probe.RECENTER, t);
             physicsTick++;
-            if (physicsTick % 45 == 0) checkDenseDust();
+            int every = diagnosticsInterval;
+            if (every > 0 && physicsTick % every == 0) conservation.sample(bodies, physicsTick, q);
+            if (physicsTick % 45 == 0) {
+                checkDenseDust();
+                t = lap(event, PhysicsMetrics.Probe.DENSE_DUST, t);
+            }
+            metrics.record(PhysicsMetrics.Probe.BODIES, bodies.size(), t);
+            metrics.record(PhysicsMetrics.Probe.MERGES, mergesThisTick, t);
+            metrics.record(PhysicsMetrics.Probe.SWEPT_MERGES, sweptMergesThisTick, t);
+            events.endTick(physicsTick, mergesThisTick);
+            analytics.endTick(physicsTick, mergesThisTick, bodies);
+            event.tick = physicsTick;
+            event.bodies = bodies.size();
+            event.merges = mergesThisTick;
+            event.mergeEventsSkipped = Math.max(0, mergesThisTick - mergeEventsThisTick);
+            mergesThisTick = 0;
+            sweptMergesThisTick = 0;
+            mergeEventsThisTick = 0;
+            stageEventsThisTick = 0;
+        }
+        timers.advance();
+        // diagnostics print outside the lock so a slow console never holds up the renderer
+        conservation.printWarnings();
+        event.commit();
+        long end = System.nanoTime();
+        stepMeter.record(end - start);
+        metrics.record(PhysicsMetrics.Probe.STEP, end - start, end);
+        if (allocStart >= 0) {
+            metrics.record(PhysicsMetrics.Probe.ALLOCATED, PhysicsMetrics.threadAllocatedBytes() - allocStart, end);
+        }
+    }
+
+    /**
+     * Apply the sun's pull and that of the heaviest bodies to every body, then drag and move it
+     * (parallel over bodies).
+     *
+     * @param giantLimit heaviest bodies whose pull is applied
+     */
+    void integrate(int giantLimit) {
+        Body sun = bodies.get(0);
+        Body[] giants = sharedGiants != null ? sharedGiants : topGiants(giantLimit);
+        int count = bodies.size();
+        float g = config.g();
+        float giantG = g * config.planetGravityScale();
+        float softening = config.softening();
+        float drag = config.drag();
+        IntStream.range(1, count).parallel().forEach(i -> {
+            Body b = bodies.get(i);
+            b.removed = false;
+            float dx = sun.x - b.x;
+            float dy = sun.y - b.y;
+            float distSq = dx * dx + dy * dy + softening;
+            float dist = (float) Math.sqrt(distSq);
+            float accel = (g * sun.mass / distSq);
+            b.vx += accel * dx / dist;
+            b.vy += accel * dy / dist;
+            for (Body giant : giants) {
+                if (giant == null || giant.id == b.id) continue;
+                float gdx = giant.x - b.x;
+                float gdy = giant.y - b.y;
+                float gDistSq = gdx * gdx + gdy * gdy + softening;
+                float gDist = (float) Math.sqrt(gDistSq);
+                float gAccel = (giantG * giant.mass / gDistSq);
+                b.vx += gAccel * gdx / gDist;
+                b.vy += gAccel * gdy / gDist;
+            }
+            b.vx *= drag;
+            b.vy *= drag;
+            b.x += b.vx;
+            b.y += b.vy;
+        });
+    }
+
+    /**
+     * Put every body except the sun into its grid cell and note the fast ones; with a collision
+     * stride above one, also mark the cells around non-dust bodies as active.
+     */
+    void bucketBodies(int stride) {
+        if (stride > 1) Arrays.fill(activeCells, false);
+        fastBodies.clear();
+        analytics.beginRadial(bodies.get(0), width, height);
+        float fastSq = FAST_SPEED * FAST_SPEED;
+        for (int i = 1; i < bodies.size(); i++) {
+            Body b = bodies.get(i);
+            bucketBody(b);
+            if (!b.ghost) analytics.radial(b);
+            if (stride > 1 && !isDust(b)) markActive(b);
+            if (b.vx * b.vx + b.vy * b.vy > fastSq) fastBodies.add(b);
+        }
+        analytics.endRadial();
+    }
+
+    /**
+     * Record the time since {@code since} against a step phase, in the metrics and the step's
+     * Flight Recorder event.
+     *
+     * @return the current time, to start the next phase
+     */
+    private long lap(StepEvent event, PhysicsMetrics.Probe phase, long since) {
+        long now = System.nanoTime();
+        metrics.record(phase, now - since, now);
+        event.phase(phase, now - since);
+        return now;
+    }
+
+    /**
+     * Merge light dust grains in bulk, densest grid cells first, until {@code excess} bodies have
+     * been removed. Each cell's grains collapse into one clump at their center of mass with their
+     * total momentum, so orbits are preserved on average. Runs after compact(), on the grid buckets still
+     * left from this step, which skip bodies flagged removed or ghost; merged grains are flagged removed
+     * for a second compact().
+     *
+     * @return bodies removed
+     */
+    private int coalesceDust(int excess) {
+        int cells = gridCols * gridRows;
+        int[] counts = new int[cells];
+        List<Integer> dense = new ArrayList<>();
+        for (int c = 0; c < cells; c++) {
+            for (Body b : grid.get(c)) {
+                if (!b.removed && !b.ghost && isDust(b) && b.mass < COALESCE_MAX_MASS) counts[c]++;
+            }
+            if (counts[c] >= 2) dense.add(c);
+        }
+        dense.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+        int removed = 0;
+        for (int c : dense) {
+            if (removed >= excess) break;
+            // k grains merged into one removes k - 1 bodies
+            int take = Math.min(counts[c], excess - removed + 1);
+            Body into = null;
+            float mass = 0f, mx = 0f, my = 0f, mvx = 0f, mvy = 0f;
+            long particles = 0;
+            int merged = 0;
+            for (Body b : grid.get(c)) {
+                if (merged == take) break;
+                if (b.removed || b.ghost || !isDust(b) || b.mass >= COALESCE_MAX_MASS) continue;
+                mass += b.mass;
+                mx += b.x * b.mass;
+                my += b.y * b.mass;
+                mvx += b.vx * b.mass;
+                mvy += b.vy * b.mass;
+                particles += b.particleCount;
+                if (into == null) {
+                    into = b;
+                } else {
+                    b.removed = true;
+                    analytics.removed(b);
+                }
+                merged++;
+            }
+            float oldMass = into.mass;
+            long oldParticles = into.particleCount;
+            Stage oldStage = into.stage;
+            into.mass = mass;
+            into.x = mx / mass;
+            into.y = my / mass;
+            into.vx = mvx / mass;
+            into.vy = mvy / mass;
+            into.radius = radiusForMass(mass);
+            into.particleCount = particles;
+            updateStageAndName(into);
+            analytics.grew(into, oldMass, oldParticles, oldStage);
+            removed += merged - 1;
+        }
+        coalescedBodies += removed;
+        return removed;
+    }
+
+    /**
+     * Mark the 3x3 block of cells around a non-dust body as active, so pairs it could touch are
+     * never deferred whichever cell owns the neighbour check.
+     */
+    private void markActive(Body b) {
+        int col = clamp((int) Math.floor(b.x / CELL_SIZE), 0, gridCols - 1);
+        int row = clamp((int) Math.floor(b.y / CELL_SIZE), 0, gridRows - 1);
+        for (int r = Math.max(0, row - 1); r <= Math.min(gridRows - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(gridCols - 1, col + 1); c++) {
+                activeCells[r * gridCols + c] = true;
+            }
         }
     }
 
     /**
      * Clear the spatial hash grid before repopulating.
      */
-    private void clearGrid() {
+    void clearGrid() {
         for (List<Body> cell : grid) cell.clear();
     }
 
@@ -464,25 +1113,42 @@ public class Simulation {
      * Place a body into a spatial hash cell.
      */
     private void bucketBody(Body b) {
-        int col = clamp((int) (b.x / CELL_SIZE), 0, gridCols - 1);
-        int row = clamp((int) (b.y / CELL_SIZE), 0, gridRows - 1);
-        grid.get(row * gridCols + col).add(b);
+        grid.get(cellIndex(b)).add(b);
+    }
+
+    /**
+     * Row-major grid cell for a body, clamped to the grid edges.
+     */
+    private int cellIndex(Body b) {
+        int col = clamp((int) Math.floor(b.x / CELL_SIZE), 0, gridCols - 1);
+        int row = clamp((int) Math.floor(b.y / CELL_SIZE), 0, gridRows - 1);
+        return row * gridCols + col;
     }
 
     /**
-     * Resolve collisions across all grid cells and neighbors.
+     * Resolve collisions across grid cells and their neighbors. With a stride above one, quiet
+     * cells are only checked on their turn (one step in {@code stride}, staggered by cell index).
      */
-    private void resolveCollisions() {
+    void resolveCollisions(int stride) {
+        float skin = neighborSkin;
+        if (skin > 0f) {
+            if (neighbors == null || neighbors.skin() != skin) neighbors = new NeighborList(skin, config.mergeReach());
+            resolveNeighbors(neighbors);
+            return;
+        }
+        neighbors = null;
         for (int row = 0; row < gridRows; row++) {
             for (int col = 0; col < gridCols; col++) {
-                List<Body> cell = grid.get(row * gridCols + col);
+                int idx = row * gridCols + col;
+                if (stride > 1 && !activeCells[idx] && (idx + physicsTick) % stride != 0) continue;
+                List<Body> cell = grid.get(idx);
                 for (int i = 0; i < cell.size(); i++) {
                     Body a = cell.get(i);
                     if (a.removed) continue;
                     for (int j = i + 1; j < cell.size(); j++) {
                         Body b = cell.get(j);
                         if (b.removed) continue;
-                        if (close(a, b)) mergeIntoFirst(a, b);
+                        if (close(a, b)) collide(a, b);
                     }
                 }
                 checkNeighbor(cell, col + 1, row);
@@ -493,6 +1159,116 @@ public class Simulation {
         }
     }
 
+    /**
+     * Resolve collisions from cached neighbor pairs, rebuilding the list when it can no longer
+     * vouch for enough of the disk, then check the bodies it does not cover against their own
+     * cell and the eight around it.
+     */
+    private void resolveNeighbors(NeighborList list) {
+        if (list.refresh(bodies)) list.rebuild(bodies, grid, gridCols, gridRows, CELL_SIZE, FAST_SPEED, config);
+        for (int i = 0, n = list.pairCount(); i < n; i++) {
+            Body a = list.first(i);
+            Body b = list.second(i);
+            if (a.removed || b.removed) continue;
+            if (close(a, b)) collide(a, b);
+        }
+        for (Body a : list.dirty()) {
+            if (a.removed) continue;
+            int col = clamp((int) Math.floor(a.x / CELL_SIZE), 0, gridCols - 1);
+            int row = clamp((int) Math.floor(a.y / CELL_SIZE), 0, gridRows - 1);
+            for (int r = Math.max(0, row - 1); r <= Math.min(gridRows - 1, row + 1) && !a.removed; r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(gridCols - 1, col + 1) && !a.removed; c++) {
+                    for (Body b : grid.get(r * gridCols + c)) {
+                        if (b == a || b.removed) continue;
+                        if (close(a, b)) {
+                            collide(a, b);
+                            if (a.removed) break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Continuous collision detection for fast bodies only. Each walks the grid cells its step
+     * crossed (a DDA traversal from its previous position to its current one) and tests every
+     * body in and around them for a touch at any time during the step, using the two bodies'
+     * motion relative to each other. Costs a few cells per fast body, so comets sweep up the dust
+     * lanes they cross without substepping everyone.
+     */
+    void sweepFastBodies() {
+        for (Body b : fastBodies) {
+            if (b.removed || b.ghost) continue;
+            sweep++;
+            float x0 = b.x - b.vx;
+            float y0 = b.y - b.vy;
+            int col = (int) Math.floor(x0 / CELL_SIZE);
+            int row = (int) Math.floor(y0 / CELL_SIZE);
+            int endCol = (int) Math.floor(b.x / CELL_SIZE);
+            int endRow = (int) Math.floor(b.y / CELL_SIZE);
+            int stepCol = b.vx > 0 ? 1 : -1;
+            int stepRow = b.vy > 0 ? 1 : -1;
+            // step parameter (0..1) at which the path crosses the next column / row line, and per cell
+            float nextCol = b.vx == 0 ? Float.POSITIVE_INFINITY
+                    : ((col + (stepCol > 0 ? 1 : 0)) * CELL_SIZE - x0) / b.vx;
+            float nextRow = b.vy == 0 ? Float.POSITIVE_INFINITY
+                    : ((row + (stepRow > 0 ? 1 : 0)) * CELL_SIZE - y0) / b.vy;
+            float perCol = b.vx == 0 ? Float.POSITIVE_INFINITY : CELL_SIZE / Math.abs(b.vx);
+            float perRow = b.vy == 0 ? Float.POSITIVE_INFINITY : CELL_SIZE / Math.abs(b.vy);
+            int ring = 1 + (int) (b.radius * config.mergeReach() / CELL_SIZE);
+            int cells = Math.abs(endCol - col) + Math.abs(endRow - row);
+            for (int n = 0; n <= cells && !b.removed; n++) {
+                sweepAround(b, col, row, ring);
+                if (nextCol < nextRow) {
+                    col += stepCol;
+                    nextCol += perCol;
+                } else {
+                    row += stepRow;
+                    nextRow += perRow;
+                }
+            }
+        }
+    }
+
+    /** Test a swept body against the bodies in the cells within {@code ring} of a path cell. */
+    private void sweepAround(Body b, int col, int row, int ring) {
+        col = clamp(col, 0, gridCols - 1);
+        row = clamp(row, 0, gridRows - 1);
+        for (int r = Math.max(0, row - ring); r <= Math.min(gridRows - 1, row + ring); r++) {
+            for (int c = Math.max(0, col - ring); c <= Math.min(gridCols - 1, col + ring); c++) {
+                int idx = r * gridCols + c;
+                if (sweptCells[idx] == sweep) continue;
+                sweptCells[idx] = sweep;
+                for (Body o : grid.get(idx)) {
+                    if (o == b || o.removed || !touchedDuringStep(b, o)) continue;
+                    int before = mergesThisTick;
+                    collide(b, o);
+                    sweptMergesThisTick += mergesThisTick - before;
+                    if (b.removed) return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether two bodies came within merge reach at some point during the step, both moving in a
+     * straight line from their previous positions.
+     */
+    private boolean touchedDuringStep(Body a, Body b) {
+        // b's offset from a at the start of the step, and its change over the step
+        float dx = (b.x - b.vx) - (a.x - a.vx);
+        float dy = (b.y - b.vy) - (a.y - a.vy);
+        float mx = b.vx - a.vx;
+        float my = b.vy - a.vy;
+        float len = mx * mx + my * my;
+        float t = len == 0 ? 0 : Math.max(0f, Math.min(1f, -(dx * mx + dy * my) / len));
+        float cx = dx + mx * t;
+        float cy = dy + my * t;
+        float min = (a.radius + b.radius) * config.mergeReach();
+        return cx * cx + cy * cy <= min * min;
+    }
+
     /**
      * Check collisions against a neighboring cell.
      */
@@ -504,7 +1280,7 @@ public class Simulation {
             if (a.removed) continue;
             for (Body b : neighbor) {
                 if (b.removed || a == b) continue;
-                if (close(a, b)) mergeIntoFirst(a, b);
+                if (close(a, b)) collide(a, b);
             }
         }
     }
@@ -515,14 +1291,36 @@ public class Simulation {
     private boolean close(Body a, Body b) {
         float dx = b.x - a.x;
         float dy = b.y - a.y;
-        float min = (a.radius + b.radius) * 1.35f;
+        float min = (a.radius + b.radius) * config.mergeReach();
         return dx * dx + dy * dy <= min * min;
     }
 
+    /**
+     * Merge two touching bodies, unless a ghost is involved: two ghosts are left to their owners,
+     * and an owned body touching a ghost records a {@link GhostClaim} if its id is the lower.
+     */
+    private void collide(Body a, Body b) {
+        if (!a.ghost && !b.ghost) {
+            mergeIntoFirst(a, b);
+            return;
+        }
+        if (a.ghost && b.ghost) return;
+        Body owned = a.ghost ? b : a;
+        Body ghost = a.ghost ? a : b;
+        if (owned.id < ghost.id) {
+            ghostClaims.add(new GhostClaim(owned.id, ghost.id));
+            ghost.removed = true;
+        }
+    }
+
     /**
      * Merge two bodies into the first, conserving momentum and updating labels.
      */
     private void mergeIntoFirst(Body a, Body b) {
+        float absorbed = b.mass;
+        float oldMass = a.mass;
+        long oldParticles = a.particleCount;
+        Stage oldStage = a.stage;
         float newMass = a.mass + b.mass;
         float newX = (a.x * a.mass + b.x * b.mass) / newMass;
         float newY = (a.y * a.mass + b.y * b.mass) / newMass;
@@ -538,25 +1336,40 @@ public class Simulation {
         // Preserve existing name if present; otherwise inherit from b if available
         if (a.name == null && b.name != null) {
             a.name = b.name;
+            analytics.named();
         }
         // Comet tails stop once merged with any non-comet body
         a.isComet = a.isComet && b.isComet;
         updateStageAndName(a);
-        if (shouldPlayMergeChime(a, b) && canPlayMergeChime()) {
-            listeners.forEach(l -> l.onSound(SoundEvent.MERGE));
+        analytics.removed(b);
+        analytics.grew(a, oldMass, oldParticles, oldStage);
+        mergesThisTick++;
+        if (mergeEventsThisTick < MergeEvent.MAX_PER_TICK) {
+            // Counted whether or not recording is on, so a disabled event costs at most the cap per tick
+            mergeEventsThisTick++;
+            MergeEvent event = new MergeEvent();
+            if (event.shouldCommit()) {
+                event.planet = a.name;
+                event.mass = a.mass;
+                event.absorbedMass = absorbed;
+                event.particles = a.particleCount;
+                event.comet = a.isComet;
+                event.commit();
+            }
         }
+        if (shouldPlayMergeChime(a, b)) events.publish(EventBus.Kind.NOTABLE_MERGE, null, 0);
         b.removed = true;
     }
 
     /**
-     * Remove flagged bodies and keep ordering stable.
+     * Remove flagged bodies and this step's ghosts, keeping ordering stable.
      */
-    private void compact() {
+    void compact() {
         List<Body> keep = new ArrayList<>(bodies.size());
         keep.add(bodies.get(0));
         for (int i = 1; i < bodies.size(); i++) {
             Body b = bodies.get(i);
-            if (!b.removed) keep.add(b);
+            if (!b.removed && !b.ghost) keep.add(b);
         }
         bodies.clear();
         bodies.addAll(keep);
@@ -565,7 +1378,7 @@ public class Simulation {
     /**
      * Recenters the whole system to keep the sun at the viewport center.
      */
-    private void recenter() {
+    void recenter() {
         Body sun = bodies.get(0);
         float targetX = width / 2f;
         float targetY = height / 2f;
@@ -579,23 +1392,99 @@ public class Simulation {
     }
 
     /**
-     * Detect over-dense dust near the star to narrate what is happening.
+     * Pull every body toward these giants, gathered across all sectors of a distributed disk,
+     * instead of the local heaviest bodies. Used by {@link SectorWorker}; null restores local giants.
      */
-    private void checkDenseDust() {
-        Body sun = bodies.get(0);
-        int dense = 0;
-        float nearR = Math.min(width, height) * 0.18f;
-        float nearRSq = nearR * nearR;
-        for (int i = 1; i < bodies.size(); i++) {
-            Body b = bodies.get(i);
-            float dx = b.x - sun.x;
-            float dy = b.y - sun.y;
-            if (dx * dx + dy * dy < nearRSq) dense++;
+    void shareGiants(Body[] giants) {
+        sharedGiants = giants;
+    }
+
+    /** Take ownership of a body arriving from another sector. */
+    void adopt(Body b) {
+        synchronized (bodies) {
+            b.ghost = false;
+            b.removed = false;
+            bodies.add(b);
+            analytics.added(b);
+        }
+    }
+
+    /** Add read-only copies of neighbouring sectors' bodies for the next step only. */
+    void addGhosts(List<Body> ghosts) {
+        synchronized (bodies) {
+            for (Body g : ghosts) {
+                g.ghost = true;
+                g.removed = false;
+                bodies.add(g);
+            }
         }
+    }
+
+    /**
+     * Remove the owned bodies (never the sun) that leave this simulation, e.g. for another sector.
+     *
+     * @return the bodies removed, in order
+     */
+    List<Body> release(Predicate<Body> leaving) {
+        synchronized (bodies) {
+            List<Body> out = new ArrayList<>();
+            for (int i = 1; i < bodies.size(); i++) {
+                Body b = bodies.get(i);
+                if (!b.removed && leaving.test(b)) {
+                    b.removed = true;
+                    analytics.removed(b);
+                    out.add(b);
+                }
+            }
+            if (!out.isEmpty()) compact();
+            for (Body b : out) b.removed = false;
+            return out;
+        }
+    }
+
+    /** Merge a body handed over by another sector into an owned one, as a collision would. */
+    void absorb(Body into, Body arriving) {
+        synchronized (bodies) {
+            analytics.added(arriving);
+            mergeIntoFirst(into, arriving);
+        }
+    }
+
+    /** @return and forget the ghost claims recorded by steps since the last call. */
+    List<GhostClaim> drainGhostClaims() {
+        synchronized (bodies) {
+            List<GhostClaim> out = new ArrayList<>(ghostClaims);
+            ghostClaims.clear();
+            return out;
+        }
+    }
+
+    /** Replace every body but the sun, e.g. with the bodies gathered from sector workers. */
+    void replaceBodies(List<Body> replacement) {
+        synchronized (bodies) {
+            Body sun = bodies.get(0);
+            bodies.clear();
+            bodies.add(sun);
+            bodies.addAll(replacement);
+            analytics.reset();
+            for (Body b : bodies) analytics.added(b);
+        }
+    }
+
+    /** @return the live bodies, sun first; only for a thread that also steps this simulation. */
+    List<Body> bodyList() {
+        return bodies;
+    }
+
+    /**
+     * Narrate over-dense dust near the star, using the count gathered during bucketing.
+     */
+    private void checkDenseDust() {
+        int dense = analytics.denseNearSun();
         if (dense > 5000) {
-            listeners.forEach(l -> l.onCaption("So much dust near the sun!", 3500));
+            events.publish(EventBus.Kind.CAPTION, "So much dust near the sun!", 3500);
         } else if (dense > 2000) {
-            listeners.forEach(l -> l.onCaption("Dust cloud crowding the sun.", 3000));
+            events.publish(EventBus.Kind.CAPTION, "Dust cloud crowding the sun.", 3000);
         }
     }
 
@@ -617,26 +1506,28 @@ public class Simulation {
     }
 
     /**
-     * Update stage, color, and naming when a body grows.
+     * Update stage (which also sets the body's color) and naming when a body grows.
      */
     private void updateStageAndName(Body b) {
         Stage newStage = stageForParticles(b.particleCount);
         if (b.stage != newStage) {
             b.stage = newStage;
-            b.color = PlanetStyling.colorForStage(newStage);
-            if (b.name != null) {
-                switch (newStage) {
-                    case ROCK -> listeners.forEach(l -> l.onCaption(b.name + " is rocky!", 2500));
-                    case OCEAN -> listeners.forEach(l -> l.onCaption(b.name + " is sloshy with oceans!", 2500));
-                    case GARDEN -> listeners.forEach(l -> l.onCaption(b.name + " is turning green!", 2500));
-                    case MYSTERY -> listeners.forEach(l -> l.onCaption(b.name + " is a mystery world now!", 2500));
-                    default -> { }
+            if (b.name != null) events.publish(EventBus.Kind.STAGE, b.name, newStage.ordinal());
+            if (stageEventsThisTick < StageChangeEvent.MAX_PER_TICK) {
+                stageEventsThisTick++;
+                StageChangeEvent event = new StageChangeEvent();
+                if (event.shouldCommit()) {
+                    event.planet = b.name;
+                    event.stage = newStage.name();
+                    event.particles = b.particleCount;
+                    event.commit();
                 }
             }
         }
         if (b.name == null && b.particleCount >= 5_000) {
             b.name = PlanetStyling.nextName();
-            listeners.forEach(l -> l.onCaption("New planet: " + b.name + "!", 3000));
+            analytics.named();
+            events.publish(EventBus.Kind.PLANET, b.name, 0);
         }
     }
 
@@ -647,16 +1538,6 @@ public class Simulation {
         return (a.name != null || b.name != null || a.particleCount >= 5_000 || b.particleCount >= 5_000);
     }
 
-    /**
-     * Rate-limit merge chimes to avoid audio spam.
-     */
-    private boolean canPlayMergeChime() {
-        long now = System.currentTimeMillis();
-        if (now - lastMergeChimeMs < 150) return false;
-        lastMergeChimeMs = now;
-        return true;
-    }
-
     /** Clamp helper. */
     private int clamp(int val, int min, int max) {
         if (val < min) return min;
@@ -665,16 +1546,31 @@ public class Simulation {
     }
 
     /**
-     * Schedule the next auto-comet if enabled.
+     * Schedule the next auto-comet on the timer wheel while the physics loop runs and comets are
+     * enabled; each comet schedules the one after it.
      */
     private void scheduleAutoComet() {
-        if (scheduler == null) return;
-        scheduler.schedule(() -> {
-            if (autoCometsEnabled) {
-                launchComet();
-            }
-            if (running) scheduleAutoComet();
-        }, nextCometDelayMs(), TimeUnit.MILLISECONDS);
+        synchronized (timers) {
+            if (!running || !autoCometsEnabled || nextComet != null && nextComet.isPending()) return;
+            nextComet = timers.schedule(TickScheduler.ticks(nextCometDelayMs()), () -> {
+                synchronized (timers) {
+                    // a toggle since scheduling cancelled this comet or replaced it
+                    if (nextComet == null || nextComet.isPending()) return;
+                    nextComet = null;
+                }
+                if (!overBudget()) launchComet();
+                scheduleAutoComet();
+            });
+        }
+    }
+
+    /**
+     * @return true when the disk is at or over its body budget (auto-comets wait for room).
+     */
+    private boolean overBudget() {
+        synchronized (bodies) {
+            return bodies.size() >= bodyBudget;
+        }
     }
 
     /**
@@ -18,4 +18,14 @@ public interface SimulationListener {
      * @param event specific sound event type
      */
     void onSound(SoundEvent event);
+
+    /**
+     * Called once per physics tick in which something happened, after that tick's captions and
+     * sounds. Delivered on the event dispatcher thread, never on the physics thread.
+     *
+     * @param summary coalesced counts for the tick
+     */
+    default void onTick(TickSummary summary) {
+        // optional
+    }
 }
@@ -1,15 +1,56 @@
 package com.example.PlanetFormationDemo;
 
-import java.awt.Color;
 import java.util.List;
 
 /**
  * Immutable view of simulation state for rendering.
+ *
+ * @param bodies            sun (always first), comets, named planets, and clumps too big to count as dust
+ * @param dust              small unnamed grains packed into parallel arrays (no per-grain objects)
+ * @param totalParticles    aggregated particle count over every non-sun body
+ * @param autoCometsEnabled auto-comet flag at snapshot time
+ * @param timeNanos         {@link System#nanoTime()} when the snapshot was taken
+ * @param inputSeq          sequence number of the last tool input applied before the snapshot
+ *                          (see {@link InputLatency}), 0 if none
+ * @param viewWidth         width of the simulated view in world pixels (the grid overhangs it)
+ * @param viewHeight        height of the simulated view in world pixels
  */
-public record SimulationSnapshot(List<BodyView> bodies, boolean autoCometsEnabled) {
+public record SimulationSnapshot(List<BodyView> bodies, DustField dust, long totalParticles,
+                                 boolean autoCometsEnabled, long timeNanos, long inputSeq,
+                                 int viewWidth, int viewHeight) {
     /**
-     * Immutable projection of a single body for rendering.
+     * @return number of bodies excluding the sun, including dust grains.
      */
-    public record BodyView(float x, float y, float vx, float vy, float radius,
-                           Color color, boolean sun, String name, long particles, boolean comet) {}
+    public int bodyCount() {
+        return bodies.size() - 1 + dust.count();
+    }
+
+    /**
+     * Immutable projection of a single body for rendering; {@code id} is the body's stable
+     * identifier and {@code palette} a {@link PlanetStyling} palette index, resolved to a color by
+     * the view.
+     */
+    public record BodyView(int id, float x, float y, float vx, float vy, float radius,
+                           int palette, boolean sun, String name, long particles, boolean comet) {}
+
+    /**
+     * Struct-of-arrays projection of dust grains; only the first {@code count} entries are valid.
+     * Colors are packed ARGB from {@link PlanetStyling#argb(int)}; {@code id} holds each grain's body identifier.
+     * Grains are ordered by spatial grid cell (row-major), with cell {@code c} holding indices
+     * {@code cellStart[c]} (inclusive) to {@code cellStart[c + 1]} (exclusive), so renderers can cull
+     * by visible cell range. Positions outside the grid are clamped into edge cells, as in physics.
+     * Arrays are owned by the snapshot and must not be mutated by readers.
+     */
+    public record DustField(int count, float[] x, float[] y, float[] vx, float[] vy, float[] radius, int[] rgb,
+                            int[] id, int cellSize, int cols, int rows, int[] cellStart) {
+        /** @return grid column containing world x, clamped to the grid. */
+        public int colOf(float wx) {
+            return Math.max(0, Math.min(cols - 1, (int) Math.floor(wx / cellSize)));
+        }
+
+        /** @return grid row containing world y, clamped to the grid. */
+        public int rowOf(float wy) {
+            return Math.max(0, Math.min(rows - 1, (int) Math.floor(wy / cellSize)));
+        }
+    }
 }
@@ -0,0 +1,548 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Draws simulation snapshots onto any Graphics2D so on-screen and offscreen frames look the same.
+ * The per-frame path allocates nothing in steady state: colors, strokes, and label glyphs are cached,
+ * and HUD text is assembled in reusable buffers.
+ */
+public class SnapshotPainter {
+    /** Extra world-space margin so tails and labels near a clip edge are not culled. */
+    private static final int CULL_MARGIN = 200;
+    /** World-space margin for dust culling (largest grain radius plus slack). */
+    private static final float DUST_MARGIN = 3f;
+    /** Generous bound on how far a grain moves in one step; widens culling while interpolating. */
+    private static final float MAX_DUST_STEP = 16f;
+    /** Density LOD only kicks in when zoomed out below this factor. */
+    private static final float LOD_MAX_ZOOM = 1.0f;
+    /** Smallest on-screen edge of an aggregated density tile, in pixels. */
+    private static final float LOD_TILE_PX = 8f;
+    /** Tile coverage (grain area / tile area) at which grains are replaced by one patch. */
+    private static final float LOD_COVERAGE = 1.0f;
+    /** Highest density pyramid level built. */
+    private static final int LOD_MAX_LEVEL = 4;
+    /** Background gradient colors. */
+    private static final Color BG_TOP = new Color(5, 8, 20);
+    private static final Color BG_BOTTOM = new Color(10, 12, 35);
+    /** Faint orbit ring color and stroke. */
+    private static final Color RING_COLOR = new Color(255, 255, 255, 12);
+    private static final BasicStroke RING_STROKE = new BasicStroke(1f);
+    /** Inner glow drawn over the sun. */
+    private static final Color SUN_CORE = new Color(255, 210, 70, 200);
+    /** Label shadow and text colors. */
+    private static final Color LABEL_SHADOW = new Color(0, 0, 0, 190);
+    private static final Color LABEL_TEXT = new Color(255, 255, 255, 240);
+    /** HUD text color. */
+    private static final Color HUD_TEXT = new Color(240, 240, 255, 230);
+    /** Baseline of the first HUD line; later lines follow 18 pixels apart. */
+    private static final int HUD_FIRST_LINE = 22;
+    /** Metrics overlay backdrop. */
+    private static final Color METRICS_BACKDROP = new Color(0, 0, 0, 160);
+    /** Body colors by {@link PlanetStyling} palette index. */
+    private static final Color[] BODY_COLORS = new Color[PlanetStyling.paletteSize()];
+    /** Alpha used for comet tails. */
+    private static final int TAIL_ALPHA = 120;
+    /** Glyph vectors are laid out once in untransformed space and scaled by the zoom at draw time. */
+    private static final FontRenderContext LABEL_FRC = new FontRenderContext(null, true, true);
+
+    static {
+        for (int i = 0; i < BODY_COLORS.length; i++) BODY_COLORS[i] = new Color(PlanetStyling.argb(i), true);
+    }
+
+    /** Base HUD font. */
+    private final Font hudFont = new Font("SansSerif", Font.BOLD, 14);
+    /** Metrics overlay font (fixed width so columns line up). */
+    private final Font metricsFont = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    /** Planet label font. */
+    private final Font labelFont = hudFont.deriveFont(Font.BOLD, 13f);
+    /** Colors for dust, tails, and LOD patches. */
+    private final ColorCache palette = new ColorCache();
+    /** Comet tail strokes by width. */
+    private final StrokeCache strokes = new StrokeCache();
+    /** Laid-out planet labels keyed by name; relaid only when the displayed count changes. */
+    private final ConcurrentHashMap<String, Label> labels = new ConcurrentHashMap<>();
+    /** Per-thread scratch shapes (tiles paint concurrently). */
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    /** Reusable HUD line builder and character buffer (HUD is painted from one thread). */
+    private final StringBuilder hudLine = new StringBuilder(128);
+    private char[] hudChars = new char[128];
+    /** Raster splatter used in {@link DustMode#SPLAT}. */
+    private final DustSplatter splatter = new DustSplatter();
+    /** Current dust draw mode. */
+    private volatile DustMode dustMode = DustMode.VECTOR;
+    /** Quality knobs set by the governor. */
+    private volatile RenderQuality quality = RenderQuality.FULL;
+    /** Dust field the cached pyramid was built from. */
+    private SimulationSnapshot.DustField pyramidSource;
+    /** Density pyramid for the most recent dust field (shared by tiles of one frame). */
+    private final DensityPyramid pyramid = new DensityPyramid(LOD_MAX_LEVEL);
+
+    /**
+     * Render-side quality knobs, lowered by {@link QualityGovernor} to hold a frame budget.
+     *
+     * @param lodBias    extra density-pyramid levels: aggregated tiles must be {@code 2^lodBias} times
+     *                   larger on screen, LOD applies up to {@code 2^lodBias}x zoom, and the coverage
+     *                   needed to draw a tile as one patch halves per level
+     * @param forceSplat splat dust into the raster whatever the user's draw mode
+     */
+    public record RenderQuality(int lodBias, boolean forceSplat) {
+        /** Full quality: the user's draw mode and the default LOD thresholds. */
+        public static final RenderQuality FULL = new RenderQuality(0, false);
+    }
+
+    /**
+     * Reusable shapes for one painting thread; fillOval would allocate a fresh ellipse per call.
+     * Also holds the draw counts of the thread's last {@link #paintBodies} call.
+     */
+    private static final class Scratch {
+        /** Clip bounds in frame coordinates. */
+        final Rectangle clip = new Rectangle();
+        /** Grain/body outline. */
+        final Ellipse2D.Float oval = new Ellipse2D.Float();
+        /** Bodies (sun, planets, comets) drawn. */
+        int bodiesDrawn;
+        /** Dust primitives drawn: grains plus aggregated LOD patches. */
+        int dustDrawn;
+        /** Density pyramid level used, or -1 when every grain was drawn. */
+        int lodLevel;
+    }
+
+    /**
+     * Planet label glyphs for one displayed particle-count bucket.
+     */
+    private static final class Label {
+        /** {@link FormatUtil#countBucket(long)} the glyphs were laid out for. */
+        final long bucket;
+        /** Laid-out "name — count" glyphs. */
+        final GlyphVector glyphs;
+
+        Label(long bucket, GlyphVector glyphs) {
+            this.bucket = bucket;
+            this.glyphs = glyphs;
+        }
+    }
+
+    /** @return current dust draw mode. */
+    public DustMode getDustMode() {
+        return dustMode;
+    }
+
+    /** Switch how dust grains are drawn. */
+    public void setDustMode(DustMode mode) {
+        this.dustMode = mode;
+    }
+
+    /** @return dust draw mode actually used, after quality overrides. */
+    public DustMode effectiveDustMode() {
+        return quality.forceSplat() ? DustMode.SPLAT : dustMode;
+    }
+
+    /** @return current render quality knobs. */
+    public RenderQuality getRenderQuality() {
+        return quality;
+    }
+
+    /** Replace the render quality knobs; takes effect from the next frame. */
+    public void setRenderQuality(RenderQuality quality) {
+        this.quality = quality;
+    }
+
+    /** Clamp helper. */
+    private float clamp(float val, float min, float max) {
+        if (val < min) return min;
+        if (val > max) return max;
+        return val;
+    }
+
+    /**
+     * Fill the vertical background gradient.
+     */
+    public void paintBackground(Graphics2D g2, int width, int height) {
+        g2.setPaint(new java.awt.GradientPaint(0, 0, BG_TOP, 0, height, BG_BOTTOM));
+        g2.fillRect(0, 0, width, height);
+    }
+
+    /**
+     * Draw rings, dust, and bodies with vector dust; see
+     * {@link #paintScene(Graphics2D, SimulationSnapshot, int, int, float, BufferedImage)}.
+     */
+    public void paintScene(Graphics2D g2, SimulationSnapshot snap, int width, int height, float zoom) {
+        paintScene(g2, snap, width, height, zoom, null);
+    }
+
+    /**
+     * Draw the orbit rings and then every moving element; equivalent to {@link #paintRings} followed
+     * by {@link #paintBodies}.
+     */
+    public void paintScene(Graphics2D g2, SimulationSnapshot snap, int width, int height, float zoom,
+                           BufferedImage frame) {
+        paintRings(g2, snap, width, height, zoom);
+        paintBodies(g2, snap, width, height, zoom, 0f, frame);
+    }
+
+    /**
+     * Draw the faint orbit rings around the sun. Depends only on viewport size, zoom, and sun position,
+     * so callers may cache the result.
+     */
+    public void paintRings(Graphics2D g2, SimulationSnapshot snap, int width, int height, float zoom) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        java.awt.geom.AffineTransform original = g2.getTransform();
+        SimulationSnapshot.BodyView sun = snap.bodies().get(0);
+        float cx = sun.x();
+        float cy = sun.y();
+        g2.translate(cx * (1 - zoom), cy * (1 - zoom));
+        g2.scale(zoom, zoom);
+        g2.setColor(RING_COLOR);
+        g2.setStroke(RING_STROKE);
+        for (int r = 80; r < Math.min(width, height) * 0.45; r += 70) {
+            g2.drawOval((int) (cx - r), (int) (cy - r), r * 2, r * 2);
+        }
+        g2.setTransform(original);
+    }
+
+    /**
+     * Draw dust, bodies, comet tails, and labels with the zoom transform applied around the sun.
+     * Bodies outside the current clip are skipped, so tile renderers only pay for what they cover.
+     *
+     * @param g2     target graphics whose user space matches {@code frame} pixels (transform is restored on return)
+     * @param snap   snapshot to draw
+     * @param width  viewport width
+     * @param height viewport height
+     * @param zoom   view zoom factor around the sun
+     * @param lag    physics steps to rewind positions along their velocity, in [0, 1]; positions are
+     *               advanced as {@code x += v} each step, so this interpolates toward the previous state
+     * @param frame  {@code TYPE_INT_RGB} image behind {@code g2} for raster splatting, or null to draw dust as vectors
+     */
+    public void paintBodies(Graphics2D g2, SimulationSnapshot snap, int width, int height, float zoom,
+                            float lag, BufferedImage frame) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Scratch tmp = scratch.get();
+        Rectangle screenClip = tmp.clip;
+        screenClip.setBounds(0, 0, width, height);
+        g2.getClipBounds(screenClip); // leaves the full-frame bounds in place when unclipped
+
+        // apply zoom around sun (undone by the inverse ops below; getTransform() would allocate)
+        SimulationSnapshot.BodyView sun = snap.bodies().get(0);
+        float cx = sun.x();
+        float cy = sun.y();
+        float offX = cx * (1 - zoom);
+        float offY = cy * (1 - zoom);
+        g2.translate(offX, offY);
+        g2.scale(zoom, zoom);
+
+        // visible region in world space
+        float viewMinX = (screenClip.x - offX) / zoom;
+        float viewMinY = (screenClip.y - offY) / zoom;
+        float viewMaxX = (screenClip.x + screenClip.width - offX) / zoom;
+        float viewMaxY = (screenClip.y + screenClip.height - offY) / zoom;
+        float minX = viewMinX - CULL_MARGIN;
+        float minY = viewMinY - CULL_MARGIN;
+        float maxX = viewMaxX + CULL_MARGIN;
+        float maxY = viewMaxY + CULL_MARGIN;
+
+        // dust: only visible grid cells, with dense tiles aggregated when zoomed out
+        float dustMargin = DUST_MARGIN + lag * MAX_DUST_STEP;
+        RenderQuality q = quality;
+        int level = lodLevel(snap.dust(), zoom, q.lodBias());
+        float minCover = LOD_COVERAGE / (1 << q.lodBias());
+        DensityPyramid lod = level >= 0 ? pyramidFor(snap.dust()) : null;
+        tmp.lodLevel = level;
+        if ((q.forceSplat() || dustMode == DustMode.SPLAT) && frame != null) {
+            tmp.dustDrawn = splatter.splat(frame, snap.dust(), lod, level, minCover, zoom, offX, offY, lag, screenClip);
+        } else {
+            tmp.dustDrawn = paintDustVector(g2, tmp.oval, snap.dust(), lod, level, minCover, lag,
+                    viewMinX - dustMargin, viewMinY - dustMargin, viewMaxX + dustMargin, viewMaxY + dustMargin);
+        }
+
+        // bodies
+        int drawn = 0;
+        for (int i = snap.bodies().size() - 1; i >= 0; i--) {
+            SimulationSnapshot.BodyView b = snap.bodies().get(i);
+            float bx = b.x() - b.vx() * lag;
+            float by = b.y() - b.vy() * lag;
+            if (bx < minX || bx > maxX || by < minY || by > maxY) continue;
+            drawn++;
+            if (b.sun()) {
+                g2.setColor(BODY_COLORS[b.palette()]);
+                fillOval(g2, tmp.oval, (int) (bx - b.radius() * 1.6f), (int) (by - b.radius() * 1.6f),
+                        (int) (b.radius() * 3.2f), (int) (b.radius() * 3.2f));
+                g2.setColor(SUN_CORE);
+                fillOval(g2, tmp.oval, (int) (bx - b.radius()), (int) (by - b.radius()),
+                        (int) (b.radius() * 2), (int) (b.radius() * 2));
+            } else {
+                // Tail for fast movers (comets): proportional to speed, opposite velocity
+                if (b.comet()) {
+                    float speed = (float) Math.sqrt(b.vx() * b.vx() + b.vy() * b.vy());
+                    float tailLen = clamp(speed * 12f, 24f, 180f);
+                    float nx = -b.vx() / (speed + 1e-5f);
+                    float ny = -b.vy() / (speed + 1e-5f);
+                    int x1 = (int) bx;
+                    int y1 = (int) by;
+                    int x2 = (int) (bx + nx * tailLen);
+                    int y2 = (int) (by + ny * tailLen);
+                    g2.setColor(palette.get(PlanetStyling.argb(b.palette()), TAIL_ALPHA));
+                    g2.setStroke(strokes.get(Math.max(2f, b.radius() * 0.45f)));
+                    g2.drawLine(x1, y1, x2, y2);
+                }
+                g2.setColor(BODY_COLORS[b.palette()]);
+                fillOval(g2, tmp.oval, (int) (bx - b.radius()), (int) (by - b.radius()),
+                        (int) (b.radius() * 2), (int) (b.radius() * 2));
+                if (b.name() != null) {
+                    GlyphVector label = labelFor(b.name(), b.particles());
+                    int lx = (int) (bx - b.radius());
+                    int ly = (int) (by - b.radius() - 14);
+                    g2.setColor(LABEL_SHADOW);
+                    g2.drawGlyphVector(label, lx + 1, ly + 1);
+                    g2.setColor(LABEL_TEXT);
+                    g2.drawGlyphVector(label, lx, ly);
+                }
+            }
+        }
+
+        tmp.bodiesDrawn = drawn;
+
+        g2.scale(1 / zoom, 1 / zoom);
+        g2.translate(-offX, -offY);
+    }
+
+    /** @return bodies drawn by the calling thread's last {@link #paintBodies} call. */
+    public int bodiesDrawn() {
+        return scratch.get().bodiesDrawn;
+    }
+
+    /** @return dust grains and LOD patches drawn by the calling thread's last {@link #paintBodies} call. */
+    public int dustDrawn() {
+        return scratch.get().dustDrawn;
+    }
+
+    /** @return density pyramid level of the calling thread's last {@link #paintBodies} call, or -1 for none. */
+    public int lodLevel() {
+        return scratch.get().lodLevel;
+    }
+
+    /**
+     * Same integer geometry as {@link Graphics2D#fillOval}, but through a reused ellipse.
+     */
+    private static void fillOval(Graphics2D g2, Ellipse2D.Float oval, int x, int y, int w, int h) {
+        oval.setFrame(x, y, w, h);
+        g2.fill(oval);
+    }
+
+    /**
+     * Return cached label glyphs for a planet, laying them out again only when the displayed count changes.
+     */
+    private GlyphVector labelFor(String name, long particles) {
+        long bucket = FormatUtil.countBucket(particles);
+        Label label = labels.get(name);
+        if (label == null || label.bucket != bucket) {
+            String text = FormatUtil.appendCount(new StringBuilder(name).append(" — "), particles).toString();
+            label = new Label(bucket, labelFont.createGlyphVector(LABEL_FRC, text));
+            labels.put(name, label);
+        }
+        return label.glyphs;
+    }
+
+    /**
+     * Pick the density pyramid level for a zoom factor and LOD bias, or -1 to draw every grain.
+     */
+    private int lodLevel(SimulationSnapshot.DustField dust, float zoom, int bias) {
+        if (zoom >= LOD_MAX_ZOOM * (1 << bias) || dust.count() == 0) return -1;
+        float tilePx = LOD_TILE_PX * (1 << bias);
+        int level = 0;
+        while (level < LOD_MAX_LEVEL && (dust.cellSize() << level) * zoom < tilePx) level++;
+        return level;
+    }
+
+    /**
+     * Return the density pyramid for a dust field, building it once per snapshot.
+     */
+    private synchronized DensityPyramid pyramidFor(SimulationSnapshot.DustField dust) {
+        if (pyramidSource != dust) {
+            pyramid.build(dust);
+            pyramidSource = dust;
+        }
+        return pyramid;
+    }
+
+    /**
+     * Draw visible dust as antialiased ovals, or as flat patches for dense pyramid tiles.
+     * Bounds are in world space; only grid cells overlapping them are visited.
+     *
+     * @return grains and patches drawn
+     */
+    private int paintDustVector(Graphics2D g2, Ellipse2D.Float oval, SimulationSnapshot.DustField dust, DensityPyramid lod,
+                                 int level, float minCover, float lag,
+                                 float minX, float minY, float maxX, float maxY) {
+        int c0 = dust.colOf(minX);
+        int c1 = dust.colOf(maxX);
+        int r0 = dust.rowOf(minY);
+        int r1 = dust.rowOf(maxY);
+        if (lod == null) {
+            return paintCellsVector(g2, oval, dust, c0, c1, r0, r1, lag, minX, minY, maxX, maxY);
+        }
+        int drawn = 0;
+        int ts = lod.tileSize(level);
+        int span = 1 << level;
+        for (int tr = r0 >> level; tr <= r1 >> level; tr++) {
+            for (int tc = c0 >> level; tc <= c1 >> level; tc++) {
+                if (lod.count(level, tc, tr) == 0) continue;
+                float cover = lod.coverage(level, tc, tr);
+                if (cover >= minCover) {
+                    g2.setColor(palette.get(lod.averageRgb(level, tc, tr), (int) (255 * Math.min(1f, cover))));
+                    // no AA so neighbouring patches meet without seams
+                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+                    g2.fillRect(tc * ts, tr * ts, ts, ts);
+                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    drawn++;
+                } else {
+                    drawn += paintCellsVector(g2, oval, dust, Math.max(c0, tc * span), Math.min(c1, tc * span + span - 1),
+                            Math.max(r0, tr * span), Math.min(r1, tr * span + span - 1), lag, minX, minY, maxX, maxY);
+                }
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Draw the grains of grid cells [c0..c1] x [r0..r1], switching color only when consecutive grains differ.
+     *
+     * @return grains drawn
+     */
+    private int paintCellsVector(Graphics2D g2, Ellipse2D.Float oval, SimulationSnapshot.DustField dust, int c0, int c1, int r0, int r1,
+                                  float lag, float minX, float minY, float maxX, float maxY) {
+        float[] xs = dust.x();
+        float[] ys = dust.y();
+        float[] vxs = dust.vx();
+        float[] vys = dust.vy();
+        float[] rs = dust.radius();
+        int[] rgb = dust.rgb();
+        int[] start = dust.cellStart();
+        int lastRgb = 0;
+        boolean colorSet = false;
+        int drawn = 0;
+        for (int row = r0; row <= r1; row++) {
+            int to = start[row * dust.cols() + c1 + 1];
+            for (int i = start[row * dust.cols() + c0]; i < to; i++) {
+                float x = xs[i] - vxs[i] * lag;
+                float y = ys[i] - vys[i] * lag;
+                if (x < minX || x > maxX || y < minY || y > maxY) continue;
+                if (!colorSet || rgb[i] != lastRgb) {
+                    lastRgb = rgb[i];
+                    colorSet = true;
+                    g2.setColor(palette.get(lastRgb | 0xFF000000));
+                }
+                float r = rs[i];
+                fillOval(g2, oval, (int) (x - r), (int) (y - r), (int) (r * 2), (int) (r * 2));
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Draw the HUD text block in screen space, except the counters line (see
+     * {@link #paintHudCounters}). Lines are built in a reused buffer, so only the first frames (or a
+     * longer caption) allocate.
+     *
+     * @param g2         target graphics
+     * @param caption    current story caption
+     * @param tool       active tool name
+     * @param autoComets whether auto-comets are on
+     * @param zoom       view zoom factor
+     */
+    public void paintHud(Graphics2D g2, String caption, ToolMode tool, boolean autoComets, float zoom) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setFont(hudFont);
+        g2.setColor(HUD_TEXT);
+        int line = HUD_FIRST_LINE;
+        StringBuilder sb = hudLine;
+        sb.setLength(0);
+        sb.append("Captain's Log: ").append(caption);
+        drawHudLine(g2, line);
+        sb.setLength(0);
+        sb.append("Current Tool [1/2/3]: ").append(tool.name());
+        drawHudLine(g2, line + 36);
+        sb.setLength(0);
+        sb.append("Auto comets [C]: ").append(autoComets ? "ON" : "OFF");
+        drawHudLine(g2, line + 54);
+        sb.setLength(0);
+        FormatUtil.appendTenths(sb.append("Zoom (wheel): "), Math.round(zoom * 10)).append('x');
+        drawHudLine(g2, line + 72);
+        sb.setLength(0);
+        sb.append("Dust draw [D]: ").append(dustMode.name());
+        if (quality.forceSplat() && dustMode != DustMode.SPLAT) sb.append(" (SPLAT to hold frame budget)");
+        drawHudLine(g2, line + 90);
+    }
+
+    /**
+     * Draw the HUD's body and dust counters, the second HUD line. They change with nearly every
+     * merge, so they are drawn each frame rather than cached with the rest of the HUD.
+     *
+     * @param g2   target graphics
+     * @param snap snapshot providing body/dust totals
+     */
+    public void paintHudCounters(Graphics2D g2, SimulationSnapshot snap) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setFont(hudFont);
+        g2.setColor(HUD_TEXT);
+        StringBuilder sb = hudLine;
+        sb.setLength(0);
+        sb.append("Bodies: ").append(snap.bodyCount()).append("  |  Aggregated dust: ").append(snap.totalParticles());
+        drawHudLine(g2, HUD_FIRST_LINE + 18);
+    }
+
+    /**
+     * Paint the metrics overlay: one row per metric with the last interval's p50, p99 and max.
+     * Called only when the interval summaries change (about once a second).
+     *
+     * @param g2      target graphics, sized {@code width x height}
+     * @param metrics metrics to show
+     * @param width   overlay width
+     * @param height  overlay height
+     */
+    public void paintMetrics(Graphics2D g2, PhysicsMetrics metrics, int width, int height) {
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(METRICS_BACKDROP);
+        g2.fillRoundRect(0, 0, width, height, 10, 10);
+        g2.setFont(metricsFont);
+        g2.setColor(HUD_TEXT);
+        int y = 18;
+        g2.drawString(String.format("%-13s %9s %9s %9s", "Metrics [M]", "p50", "p99", "max"), 10, y);
+        for (Metric m : metrics.all()) {
+            y += 15;
+            LogHistogram.Distribution d = m.last();
+            g2.drawString(String.format("%-13s %9s %9s %9s", m.name(), formatMetric(m.unit(), d.p50()),
+                    formatMetric(m.unit(), d.p99()), formatMetric(m.unit(), d.max())), 10, y);
+        }
+    }
+
+    /** Format a metric value for the overlay: milliseconds, plain counts, or KiB. */
+    private static String formatMetric(MetricUnit unit, long value) {
+        return switch (unit) {
+            case NANOS -> String.format("%.2fms", value / 1_000_000.0);
+            case COUNT -> FormatUtil.formatCount(value);
+            case BYTES -> String.format("%dK", value / 1024);
+        };
+    }
+
+    /**
+     * Draw the current contents of the HUD line builder without creating a String.
+     */
+    private void drawHudLine(Graphics2D g2, int y) {
+        int len = hudLine.length();
+        if (hudChars.length < len) hudChars = new char[len * 2];
+        hudLine.getChars(0, len, hudChars, 0);
+        g2.drawChars(hudChars, 0, len, 16, y);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory-mapped ring of snapshot frames for viewers and recorders in other processes on the same
+ * host. The physics thread writes each published snapshot into the next slot and never waits for
+ * readers: every slot is guarded by a seqlock (odd while being written, even once complete), and
+ * a {@link SnapshotRingReader} that raced the writer or fell a whole ring behind simply retries
+ * with the newest frame. A reader crashing leaves nothing locked.
+ *
+ * <p>File layout (native byte order, as writer and readers share the host):
+ * <pre>
+ * header   int magic, int version, int slots, int slotBytes,
+ *          long latest (number of the newest complete frame, 0 before any), long overflows
+ * slot k   long seq (2n-1 while frame n is written, 2n when complete),
+ *          long timeNanos, long inputSeq, long totalParticles,
+ *          int flags, int bodies, int dust, int names, int cellSize, int cols, int rows,
+ *          int viewWidth, int viewHeight, int pad,
+ *          names (short length + UTF-8 bytes each), padded to 8,
+ *          bodies (int id; float x, y, vx, vy, radius; int palette, flags, name index, pad; long particles),
+ *          dust (float x[], y[], vx[], vy[], radius[]; int rgb[], id[]; int cellStart[cols * rows + 1])
+ * </pre>
+ * Frames that do not fit a slot are skipped and counted in the header's {@code overflows}.
+ */
+public final class SnapshotRing implements AutoCloseable {
+    /** File identification ("PLNT"). */
+    static final int MAGIC = 0x504C4E54;
+    /** Layout version. */
+    static final int VERSION = 3;
+    /** Header size; slots start here. */
+    static final int HEADER_BYTES = 64;
+    /** Header field offsets. */
+    static final int SLOTS_OFFSET = 8;
+    static final int SLOT_BYTES_OFFSET = 12;
+    static final int LATEST_OFFSET = 16;
+    static final int OVERFLOWS_OFFSET = 24;
+    /** Fixed part of a slot, before the names table. */
+    static final int SLOT_HEADER_BYTES = 72;
+    /** Bytes per body record. */
+    static final int BODY_BYTES = 48;
+    /** Bytes per dust grain across its arrays. */
+    static final int DUST_BYTES = 28;
+    /** Frame flag: auto-comets enabled. */
+    static final int FLAG_AUTO_COMETS = 1;
+    /** Body flags. */
+    static final int BODY_SUN = 1;
+    static final int BODY_COMET = 2;
+    /** Slots written by default: enough for a reader a few frames behind to still find a complete one. */
+    public static final int DEFAULT_SLOTS = 4;
+    /** Atomic access to the header's and slots' 8-byte words. */
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /** Open file channel (kept for the mapping's lifetime). */
+    private final FileChannel channel;
+    /** Mapping of the whole file. */
+    private final MappedByteBuffer map;
+    /** Number of slots. */
+    private final int slots;
+    /** Bytes per slot (multiple of 8). */
+    private final int slotBytes;
+    /** Number of the last frame written. */
+    private long frame;
+    /** Names table of the frame being written: name to index (writer thread only). */
+    private final Map<String, Integer> names = new HashMap<>();
+
+    private SnapshotRing(FileChannel channel, MappedByteBuffer map, int slots, int slotBytes) {
+        this.channel = channel;
+        this.map = map;
+        this.slots = slots;
+        this.slotBytes = slotBytes;
+    }
+
+    /**
+     * Create (or truncate) a ring file and map it.
+     *
+     * @param file      ring file, typically on a tmpfs such as {@code /dev/shm}
+     * @param slots     frames kept
+     * @param slotBytes bytes per frame; see {@link #slotBytesFor}
+     */
+    public static SnapshotRing create(Path file, int slots, int slotBytes) throws IOException {
+        if (slots < 2) throw new IllegalArgumentException("A ring needs at least 2 slots: " + slots);
+        int aligned = (slotBytes + 7) & ~7;
+        long size = HEADER_BYTES + (long) slots * aligned;
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Ring too large: " + size + " bytes");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        map.order(ByteOrder.nativeOrder());
+        map.putInt(SLOTS_OFFSET, slots);
+        map.putInt(SLOT_BYTES_OFFSET, aligned);
+        LONGS.setRelease(map, LATEST_OFFSET, 0L);
+        LONGS.setRelease(map, OVERFLOWS_OFFSET, 0L);
+        map.putInt(4, VERSION);
+        // magic last: a reader that sees it sees the geometry too
+        VarHandle.releaseFence();
+        map.putInt(0, MAGIC);
+        return new SnapshotRing(channel, map, slots, aligned);
+    }
+
+    /**
+     * @param bodies largest number of bodies a frame will carry (e.g. the body budget)
+     * @param cells  collision grid cells ({@code cols * rows})
+     * @return slot size for frames of up to that many bodies, with room for a names table
+     */
+    public static int slotBytesFor(int bodies, int cells) {
+        return SLOT_HEADER_BYTES + 64 * 1024 + bodies * Math.max(BODY_BYTES, DUST_BYTES) + (cells + 1) * 4;
+    }
+
+    /**
+     * Write a snapshot into the next slot. Called by the publishing thread only; never blocks.
+     *
+     * @return false if the frame did not fit a slot and was skipped
+     */
+    public boolean write(SimulationSnapshot snap) {
+        List<SimulationSnapshot.BodyView> bodies = snap.bodies();
+        SimulationSnapshot.DustField dust = snap.dust();
+        int cells = dust.cols() * dust.rows();
+        names.clear();
+        int nameBytes = 0;
+        for (SimulationSnapshot.BodyView b : bodies) {
+            if (b.name() != null && !names.containsKey(b.name())) {
+                names.put(b.name(), names.size());
+                nameBytes += 2 + b.name().getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        nameBytes = (nameBytes + 7) & ~7;
+        long need = SLOT_HEADER_BYTES + nameBytes + (long) bodies.size() * BODY_BYTES
+                + (long) dust.count() * DUST_BYTES + (cells + 1L) * 4;
+        if (need > slotBytes) {
+            LONGS.getAndAdd(map, OVERFLOWS_OFFSET, 1L);
+            return false;
+        }
+
+        long n = ++frame;
+        int base = HEADER_BYTES + (int) ((n - 1) % slots) * slotBytes;
+        ByteBuffer slot = map.slice(base, slotBytes).order(ByteOrder.nativeOrder());
+        LONGS.setVolatile(map, base, 2 * n - 1);
+        VarHandle.storeStoreFence();
+
+        slot.putLong(8, snap.timeNanos());
+        slot.putLong(16, snap.inputSeq());
+        slot.putLong(24, snap.totalParticles());
+        slot.putInt(32, snap.autoCometsEnabled() ? FLAG_AUTO_COMETS : 0);
+        slot.putInt(36, bodies.size());
+        slot.putInt(40, dust.count());
+        slot.putInt(44, names.size());
+        slot.putInt(48, dust.cellSize());
+        slot.putInt(52, dust.cols());
+        slot.putInt(56, dust.rows());
+        slot.putInt(60, snap.viewWidth());
+        slot.putInt(64, snap.viewHeight());
+
+        slot.position(SLOT_HEADER_BYTES);
+        String[] ordered = new String[names.size()];
+        names.forEach((name, i) -> ordered[i] = name);
+        for (String name : ordered) {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            slot.putShort((short) utf8.length).put(utf8);
+        }
+        slot.position(SLOT_HEADER_BYTES + nameBytes);
+        for (SimulationSnapshot.BodyView b : bodies) {
+            slot.putInt(b.id()).putFloat(b.x()).putFloat(b.y()).putFloat(b.vx()).putFloat(b.vy()).putFloat(b.radius())
+                    .putInt(b.palette())
+                    .putInt((b.sun() ? BODY_SUN : 0) | (b.comet() ? BODY_COMET : 0))
+                    .putInt(b.name() == null ? -1 : names.get(b.name()))
+                    .putInt(0)
+                    .putLong(b.particles());
+        }
+        int count = dust.count();
+        int p = slot.position();
+        p = putFloats(slot, p, dust.x(), count);
+        p = putFloats(slot, p, dust.y(), count);
+        p = putFloats(slot, p, dust.vx(), count);
+        p = putFloats(slot, p, dust.vy(), count);
+        p = putFloats(slot, p, dust.radius(), count);
+        p = putInts(slot, p, dust.rgb(), count);
+        p = putInts(slot, p, dust.id(), count);
+        putInts(slot, p, dust.cellStart(), cells + 1);
+
+        LONGS.setRelease(map, base, 2 * n);
+        LONGS.setRelease(map, LATEST_OFFSET, n);
+        return true;
+    }
+
+    /** @return frames skipped because they did not fit a slot. */
+    public long overflows() {
+        return (long) LONGS.getAcquire(map, OVERFLOWS_OFFSET);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int putFloats(ByteBuffer slot, int at, float[] values, int count) {
+        slot.position(at);
+        slot.asFloatBuffer().put(values, 0, count);
+        return at + count * 4;
+    }
+
+    private static int putInts(ByteBuffer slot, int at, int[] values, int count) {
+        slot.position(at);
+        slot.asIntBuffer().put(values, 0, count);
+        return at + count * 4;
+    }
+}
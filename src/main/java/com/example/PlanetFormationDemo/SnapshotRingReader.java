@@ -0,0 +1,206 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads frames from a {@link SnapshotRing} written by a simulation in another process. Each call
+ * to {@link #latestFrames()} decodes the newest complete frame if it is new; a copy that raced the
+ * writer fails its seqlock check and is retried, and after {@link #MAX_ATTEMPTS} failures the
+ * previous frames are returned, so a slow viewer sees fewer frames but never stalls the writer.
+ * The mapping is read-only. Use from one thread (views compose on one thread at a time).
+ */
+public final class SnapshotRingReader implements SnapshotSource, AutoCloseable {
+    /** Decode attempts per call before giving up on this call. */
+    private static final int MAX_ATTEMPTS = 4;
+
+    /** Open file channel (kept for the mapping's lifetime). */
+    private final FileChannel channel;
+    /** Read-only mapping of the whole file. */
+    private final MappedByteBuffer map;
+    /** Number of slots. */
+    private final int slots;
+    /** Bytes per slot. */
+    private final int slotBytes;
+    /** Number of the last frame decoded, 0 before any. */
+    private long decoded;
+    /** Last two decoded frames, or null before the first. */
+    private Simulation.Frames frames;
+    /** Copies discarded because the writer overwrote the slot meanwhile. */
+    private long torn;
+
+    private SnapshotRingReader(FileChannel channel, MappedByteBuffer map) {
+        this.channel = channel;
+        this.map = map;
+        this.slots = map.getInt(SnapshotRing.SLOTS_OFFSET);
+        this.slotBytes = map.getInt(SnapshotRing.SLOT_BYTES_OFFSET);
+    }
+
+    /**
+     * Map an existing ring file read-only.
+     *
+     * @throws IOException if the file is not a ring of this layout version
+     */
+    public static SnapshotRingReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            map.order(ByteOrder.nativeOrder());
+            if (map.capacity() < SnapshotRing.HEADER_BYTES || map.getInt(0) != SnapshotRing.MAGIC) {
+                throw new IOException(file + " is not a snapshot ring");
+            }
+            VarHandle.acquireFence();
+            if (map.getInt(4) != SnapshotRing.VERSION) {
+                throw new IOException(file + " has ring version " + map.getInt(4) + ", expected "
+                        + SnapshotRing.VERSION);
+            }
+            return new SnapshotRingReader(channel, map);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Simulation.Frames latestFrames() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long n = (long) SnapshotRing.LONGS.getAcquire(map, SnapshotRing.LATEST_OFFSET);
+            if (n == decoded) return frames;
+            SimulationSnapshot snap = read(n);
+            if (snap != null) {
+                decoded = n;
+                frames = new Simulation.Frames(frames == null ? null : frames.current(), snap);
+                return frames;
+            }
+            torn++;
+        }
+        return frames;
+    }
+
+    /** @return copies discarded because the writer overwrote their slot mid-read. */
+    public long tornReads() {
+        return torn;
+    }
+
+    /** @return frames the writer skipped because they did not fit a slot. */
+    public long overflows() {
+        return (long) SnapshotRing.LONGS.getAcquire(map, SnapshotRing.OVERFLOWS_OFFSET);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Copy frame {@code n} out of its slot.
+     *
+     * @return the frame, or null if it was being (or has been) overwritten
+     */
+    private SimulationSnapshot read(long n) {
+        int base = SnapshotRing.HEADER_BYTES + (int) ((n - 1) % slots) * slotBytes;
+        long seq = (long) SnapshotRing.LONGS.getAcquire(map, base);
+        if (seq != 2 * n) return null;
+        SimulationSnapshot snap;
+        try {
+            snap = decode(map.slice(base, slotBytes).order(ByteOrder.nativeOrder()));
+        } catch (RuntimeException e) {
+            // counts read mid-write can be anything; the seq check below rejects the copy anyway
+            snap = null;
+        }
+        VarHandle.loadLoadFence();
+        if ((long) SnapshotRing.LONGS.getAcquire(map, base) != seq) return null;
+        return snap;
+    }
+
+    /** Decode one slot; counts are bounds-checked since a racing writer can leave them torn. */
+    private SimulationSnapshot decode(ByteBuffer slot) {
+        long timeNanos = slot.getLong(8);
+        long inputSeq = slot.getLong(16);
+        long totalParticles = slot.getLong(24);
+        int flags = slot.getInt(32);
+        int bodyCount = slot.getInt(36);
+        int dustCount = slot.getInt(40);
+        int nameCount = slot.getInt(44);
+        int cellSize = slot.getInt(48);
+        int cols = slot.getInt(52);
+        int rows = slot.getInt(56);
+        int viewWidth = slot.getInt(60);
+        int viewHeight = slot.getInt(64);
+        long cells = (long) cols * rows;
+        if (bodyCount < 0 || dustCount < 0 || nameCount < 0 || cols <= 0 || rows <= 0
+                || viewWidth <= 0 || viewHeight <= 0
+                || (long) bodyCount * SnapshotRing.BODY_BYTES + (long) dustCount * SnapshotRing.DUST_BYTES
+                + (cells + 1) * 4 > slotBytes) {
+            throw new IllegalStateException("torn slot header");
+        }
+
+        slot.position(SnapshotRing.SLOT_HEADER_BYTES);
+        String[] names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            byte[] utf8 = new byte[slot.getShort() & 0xFFFF];
+            slot.get(utf8);
+            names[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        slot.position((slot.position() + 7) & ~7);
+        List<SimulationSnapshot.BodyView> bodies = new ArrayList<>(bodyCount);
+        for (int i = 0; i < bodyCount; i++) {
+            int id = slot.getInt();
+            float x = slot.getFloat();
+            float y = slot.getFloat();
+            float vx = slot.getFloat();
+            float vy = slot.getFloat();
+            float radius = slot.getFloat();
+            int palette = slot.getInt();
+            int bodyFlags = slot.getInt();
+            int name = slot.getInt();
+            slot.getInt();
+            long particles = slot.getLong();
+            bodies.add(new SimulationSnapshot.BodyView(id, x, y, vx, vy, radius,
+                    Math.floorMod(palette, PlanetStyling.paletteSize()), (bodyFlags & SnapshotRing.BODY_SUN) != 0,
+                    name < 0 ? null : names[name], particles, (bodyFlags & SnapshotRing.BODY_COMET) != 0));
+        }
+        float[] x = new float[dustCount];
+        float[] y = new float[dustCount];
+        float[] vx = new float[dustCount];
+        float[] vy = new float[dustCount];
+        float[] radius = new float[dustCount];
+        int[] rgb = new int[dustCount];
+        int[] ids = new int[dustCount];
+        int[] cellStart = new int[(int) cells + 1];
+        int p = slot.position();
+        p = getFloats(slot, p, x);
+        p = getFloats(slot, p, y);
+        p = getFloats(slot, p, vx);
+        p = getFloats(slot, p, vy);
+        p = getFloats(slot, p, radius);
+        p = getInts(slot, p, rgb);
+        p = getInts(slot, p, ids);
+        getInts(slot, p, cellStart);
+        SimulationSnapshot.DustField dust = new SimulationSnapshot.DustField(dustCount, x, y, vx, vy, radius, rgb,
+                ids, cellSize, cols, rows, cellStart);
+        return new SimulationSnapshot(bodies, dust, totalParticles,
+                (flags & SnapshotRing.FLAG_AUTO_COMETS) != 0, timeNanos, inputSeq, viewWidth, viewHeight);
+    }
+
+    private static int getFloats(ByteBuffer slot, int at, float[] into) {
+        slot.position(at);
+        slot.asFloatBuffer().get(into);
+        return at + into.length * 4;
+    }
+
+    private static int getInts(ByteBuffer slot, int at, int[] into) {
+        slot.position(at);
+        slot.asIntBuffer().get(into);
+        return at + into.length * 4;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * Where views get published simulation state: the in-process {@link Simulation}, or a
+ * {@link SnapshotRingReader} attached to one running in another process.
+ */
+public interface SnapshotSource {
+    /**
+     * @return the last two published states, or null if none has been published yet. Must not
+     *         block on the simulation.
+     */
+    Simulation.Frames latestFrames();
+}
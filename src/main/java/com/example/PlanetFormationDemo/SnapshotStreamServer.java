@@ -0,0 +1,543 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded HTTP/WebSocket server that streams a simulation to browsers. {@code GET /} serves a
+ * canvas viewer, and {@code GET /stream} upgrades to a WebSocket carrying {@link StreamEncoder}
+ * messages. One encoder thread samples the published frames at up to {@link #DEFAULT_FPS}
+ * frames a second and encodes each frame once for all subscribers.
+ *
+ * <p>Each client has a one-frame mailbox and its own sender thread, and acknowledges every frame
+ * it has drawn with {@code ack}; at most {@link #MAX_IN_FLIGHT} frames go unacknowledged. A
+ * subscriber that kept up gets the shared delta. One that fell behind, or whose {@code fps} cap
+ * made it skip frames, simply picks up the newest frame as a keyframe. So every client runs at the rate its
+ * link sustains, and a stalled tablet never slows the encoder or the others.
+ *
+ * <p>Clients send text commands: {@code ack}; {@code fps N}; {@code wand|wind|glove x y} in world
+ * coordinates (a press; add {@code drag} for a drag); {@code comet}, {@code shake}, {@code clean} and
+ * {@code comets on|off}.
+ *
+ * <p>The server listens on loopback unless given a host to bind. Connections are capped as a
+ * whole, not only once upgraded, and one that does not finish its request head within
+ * {@link #HANDSHAKE_TIMEOUT_MS} is dropped, so idle or half-open sockets cannot pile up threads.
+ *
+ * <p>Usage (headless, no Swing): {@code SnapshotStreamServer [port] [width] [height] [host]}; or run
+ * the demo with {@code --stream-port=N} (and {@code --stream-host=addr}) to stream the window's
+ * simulation.
+ */
+public final class SnapshotStreamServer implements AutoCloseable {
+    /** Encoder sampling rate, and each client's default cap. */
+    public static final int DEFAULT_FPS = 30;
+    /** Clients accepted at once; further upgrades are refused. */
+    public static final int MAX_CLIENTS = 64;
+    /** Connections open at once, upgraded or not; further ones are closed on accept. */
+    public static final int MAX_CONNECTIONS = MAX_CLIENTS + 16;
+    /** Time a connection has to send its request head. */
+    static final int HANDSHAKE_TIMEOUT_MS = 5000;
+    /** Largest client message accepted (commands are short). */
+    private static final int MAX_MESSAGE = 4096;
+    /**
+     * Frames sent but not yet acknowledged per client. Socket and browser buffers would otherwise
+     * queue seconds of stale frames for a slow viewer before its sends ever blocked.
+     */
+    private static final int MAX_IN_FLIGHT = 2;
+    /** Largest HTTP request head accepted. */
+    private static final int MAX_REQUEST = 8192;
+    /** Handshake suffix from RFC 6455. */
+    private static final String WS_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    /** Streamed simulation. */
+    private final Simulation simulation;
+    /** Listening socket. */
+    private final ServerSocket server;
+    /** Connection threads (accept loop, then a reader and a sender per client). */
+    private final ExecutorService threads = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "StreamServer");
+        t.setDaemon(true);
+        return t;
+    });
+    /** Subscribed clients. */
+    private final CopyOnWriteArrayList<Client> clients = new CopyOnWriteArrayList<>();
+    /** Permits for open connections, taken on accept and returned when the connection ends. */
+    private final Semaphore connections = new Semaphore(MAX_CONNECTIONS);
+    /** Permits for subscribed clients, taken before the upgrade and returned when the client closes. */
+    private final Semaphore clientSlots = new Semaphore(MAX_CLIENTS);
+    /** Shared encoder (encoder thread only). */
+    private final StreamEncoder encoder = new StreamEncoder();
+    /** Bytes written to clients. */
+    private final AtomicLong bytesSent = new AtomicLong();
+    /** Keyframes and deltas sent. */
+    private final AtomicLong keyframesSent = new AtomicLong();
+    private final AtomicLong deltasSent = new AtomicLong();
+    /** Run flag. */
+    private volatile boolean running;
+    /** Encoder thread, or null when stopped. */
+    private Thread encoderThread;
+
+    /**
+     * Bind the server on loopback; call {@link #start()} to begin serving.
+     *
+     * @param simulation simulation to stream and command
+     * @param port       TCP port, or 0 for any free one (see {@link #port()})
+     */
+    public SnapshotStreamServer(Simulation simulation, int port) throws IOException {
+        this(simulation, null, port);
+    }
+
+    /**
+     * Bind the server; call {@link #start()} to begin serving.
+     *
+     * @param simulation simulation to stream and command
+     * @param host       address to listen on ({@code 0.0.0.0} for every interface), or null for loopback
+     * @param port       TCP port, or 0 for any free one (see {@link #port()})
+     */
+    public SnapshotStreamServer(Simulation simulation, String host, int port) throws IOException {
+        this.simulation = simulation;
+        this.server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(host == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host),
+                port));
+    }
+
+    /** Start accepting clients and encoding frames. */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        threads.execute(this::acceptLoop);
+        encoderThread = new Thread(this::encodeLoop, "StreamEncoder");
+        encoderThread.setDaemon(true);
+        encoderThread.start();
+    }
+
+    /** Stop serving and disconnect every client. */
+    @Override
+    public synchronized void close() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            // closing anyway
+        }
+        for (Client c : clients) c.close();
+        if (encoderThread != null) encoderThread.interrupt();
+        threads.shutdownNow();
+    }
+
+    /** @return the bound TCP port. */
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** @return subscribed clients. */
+    public int clientCount() {
+        return clients.size();
+    }
+
+    /** @return bytes sent to clients so far. */
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    /** @return keyframes sent so far (to new or out-of-step clients). */
+    public long keyframesSent() {
+        return keyframesSent.get();
+    }
+
+    /** @return deltas sent so far. */
+    public long deltasSent() {
+        return deltasSent.get();
+    }
+
+    /** Sample published frames and hand each encoded frame to every client's mailbox. */
+    private void encodeLoop() {
+        long period = 1_000_000_000L / DEFAULT_FPS;
+        SimulationSnapshot last = null;
+        long lastFrame = 0;
+        while (running) {
+            long start = System.nanoTime();
+            Simulation.Frames frames = simulation.latestFrames();
+            SimulationSnapshot snap = frames == null ? null : frames.current();
+            if (snap != null && snap != last && !clients.isEmpty()) {
+                last = snap;
+                boolean withKey = false;
+                for (Client c : clients) withKey |= c.lastSent != lastFrame;
+                StreamEncoder.Encoded encoded = encoder.encode(snap, withKey);
+                lastFrame = encoded.frame();
+                long now = System.nanoTime();
+                simulation.metrics().record(PhysicsMetrics.Probe.STREAM_ENCODE, now - start, now);
+                for (Client c : clients) c.offer(encoded);
+            }
+            long sleep = period - (System.nanoTime() - start);
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1_000_000L, (int) (sleep % 1_000_000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                if (!connections.tryAcquire()) {
+                    socket.close();
+                    continue;
+                }
+                try {
+                    socket.setTcpNoDelay(true);
+                    threads.execute(() -> {
+                        try {
+                            serve(socket);
+                        } finally {
+                            connections.release();
+                        }
+                    });
+                } catch (IOException | RuntimeException e) {
+                    connections.release();
+                    socket.close();
+                    throw e;
+                }
+            } catch (IOException e) {
+                if (running) System.err.println("Stream server: accept failed: " + e.getMessage());
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    /** Answer one HTTP request: the viewer page, a WebSocket upgrade, or an error. */
+    private void serve(Socket socket) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            String head = readHead(in);
+            String[] lines = head.split("\r\n");
+            String[] request = lines[0].split(" ");
+            String path = request.length > 1 ? request[1] : "/";
+            String key = null;
+            boolean upgrade = false;
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon < 0) continue;
+                String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = lines[i].substring(colon + 1).trim();
+                if (name.equals("sec-websocket-key")) key = value;
+                if (name.equals("upgrade")) upgrade = value.equalsIgnoreCase("websocket");
+            }
+            if (path.equals("/stream") && upgrade && key != null) {
+                if (!clientSlots.tryAcquire()) {
+                    respond(out, "503 Service Unavailable", "text/plain", "Too many viewers\n".getBytes(StandardCharsets.UTF_8));
+                    socket.close();
+                    return;
+                }
+                // the client owns the slot from here on and returns it when it closes
+                Client client = new Client(socket, in, out);
+                try {
+                    out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                            + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+                    // subscribed clients idle between commands, so only the handshake is timed
+                    socket.setSoTimeout(0);
+                } catch (IOException e) {
+                    client.close();
+                    return;
+                }
+                clients.add(client);
+                threads.execute(client::sendLoop);
+                client.readLoop();
+            } else if (path.equals("/") || path.equals("/index.html")) {
+                respond(out, "200 OK", "text/html; charset=utf-8", viewerPage());
+                socket.close();
+            } else {
+                respond(out, "404 Not Found", "text/plain", "Not found\n".getBytes(StandardCharsets.UTF_8));
+                socket.close();
+            }
+        } catch (IOException e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already gone
+            }
+        }
+    }
+
+    /** A subscribed WebSocket client. */
+    private final class Client {
+        /** Connection. */
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        /** Newest frame not yet sent, or null (guarded by this). */
+        private StreamEncoder.Encoded pending;
+        /** Number of the last frame sent (read by the encoder to decide on keyframes). */
+        volatile long lastSent;
+        /** Frames sent and frames acknowledged (guarded by this). */
+        private long sentCount;
+        private long ackCount;
+        /** Minimum nanoseconds between sends (the client's fps cap). */
+        private volatile long minInterval = 1_000_000_000L / DEFAULT_FPS;
+        /** Whether the connection is closed. */
+        private volatile boolean closed;
+
+        Client(Socket socket, InputStream in, OutputStream out) {
+            this.socket = socket;
+            this.in = in;
+            this.out = out;
+        }
+
+        /** Replace the pending frame with a newer one. */
+        synchronized void offer(StreamEncoder.Encoded encoded) {
+            pending = encoded;
+            notifyAll();
+        }
+
+        /** Record an acknowledgement and wake the sender if it was waiting for one. */
+        synchronized void ack() {
+            if (ackCount < sentCount) {
+                ackCount++;
+                notifyAll();
+            }
+        }
+
+        /** Send the newest frame whenever acknowledgements and the fps cap allow, as a delta when in step. */
+        void sendLoop() {
+            long lastSendAt = 0;
+            try {
+                while (!closed) {
+                    StreamEncoder.Encoded e;
+                    synchronized (this) {
+                        while ((pending == null || sentCount - ackCount >= MAX_IN_FLIGHT) && !closed) wait();
+                        e = pending;
+                        pending = null;
+                    }
+                    if (e == null) break;
+                    long wait = lastSendAt + minInterval - System.nanoTime();
+                    if (wait > 0) {
+                        // too early for this client: keep the frame unless a newer one arrives meanwhile
+                        synchronized (this) {
+                            if (pending == null) pending = e;
+                            wait(Math.max(1, wait / 1_000_000L));
+                        }
+                        continue;
+                    }
+                    byte[] message;
+                    if (e.delta() != null && lastSent == e.frame() - 1) {
+                        message = e.delta();
+                        deltasSent.incrementAndGet();
+                    } else if (e.key() != null) {
+                        message = e.key();
+                        keyframesSent.incrementAndGet();
+                    } else {
+                        continue; // out of step and no keyframe this time; the encoder makes one next frame
+                    }
+                    synchronized (this) {
+                        sentCount++;
+                    }
+                    writeFrame(0x2, message, message.length);
+                    lastSent = e.frame();
+                    lastSendAt = System.nanoTime();
+                    bytesSent.addAndGet(message.length);
+                }
+            } catch (IOException | InterruptedException e) {
+                // disconnected
+            } finally {
+                close();
+            }
+        }
+
+        /** Read client frames: commands, pings, close. */
+        void readLoop() {
+            DataInputStream data = new DataInputStream(in);
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            try {
+                while (!closed) {
+                    int b0 = data.readUnsignedByte();
+                    int b1 = data.readUnsignedByte();
+                    boolean fin = (b0 & 0x80) != 0;
+                    int opcode = b0 & 0x0F;
+                    long len = b1 & 0x7F;
+                    if (len == 126) len = data.readUnsignedShort();
+                    else if (len == 127) len = data.readLong();
+                    if ((b1 & 0x80) == 0 || len < 0 || len > MAX_MESSAGE) break; // clients must mask; commands are short
+                    byte[] mask = new byte[4];
+                    data.readFully(mask);
+                    byte[] payload = new byte[(int) len];
+                    data.readFully(payload);
+                    for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+                    switch (opcode) {
+                        case 0x8 -> {
+                            writeFrame(0x8, payload, Math.min(2, payload.length));
+                            return;
+                        }
+                        case 0x9 -> writeFrame(0xA, payload, payload.length);
+                        case 0xA -> { }
+                        default -> {
+                            message.write(payload);
+                            if (message.size() > MAX_MESSAGE) return;
+                            if (fin) {
+                                if (opcode == 0x1 || opcode == 0x0) command(message.toString(StandardCharsets.UTF_8));
+                                message.reset();
+                            }
+                        }
+                    }
+                }
+            } catch (EOFException | SocketException e) {
+                // disconnected
+            } catch (IOException e) {
+                System.err.println("Stream server: client error: " + e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        /** Apply one text command. */
+        private void command(String text) {
+            String[] p = text.trim().split("\\s+");
+            try {
+                switch (p[0]) {
+                    case "ack" -> ack();
+                    case "fps" -> minInterval = 1_000_000_000L / Math.max(1, Math.min(DEFAULT_FPS, Integer.parseInt(p[1])));
+                    case "wand", "wind", "glove" -> {
+                        float x = Float.parseFloat(p[1]);
+                        float y = Float.parseFloat(p[2]);
+                        boolean press = p.length < 4 || !p[3].equals("drag");
+                        ToolMode tool = switch (p[0]) {
+                            case "wand" -> ToolMode.STAR_WAND;
+                            case "wind" -> ToolMode.WIND;
+                            default -> ToolMode.GRAVITY_GLOVE;
+                        };
+                        simulation.applyInput(tool, System.nanoTime(), () -> {
+                            switch (tool) {
+                                case STAR_WAND -> simulation.sprinkleDust(x, y, press ? 30 : 18);
+                                case WIND -> simulation.applyWind(x, y, press ? 1.0f : 1.4f);
+                                case GRAVITY_GLOVE -> simulation.applyGravityGlove(x, y, press ? 1.0f : 1.5f, press ? 10 : 3);
+                            }
+                        });
+                    }
+                    case "comet" -> simulation.launchComet();
+                    case "shake" -> simulation.shakeDisk();
+                    case "clean" -> simulation.cleanUpDust();
+                    case "comets" -> simulation.setAutoCometsEnabled(p.length > 1 && p[1].equals("on"));
+                    default -> { }
+                }
+            } catch (RuntimeException e) {
+                // malformed command from a client; ignore it
+            }
+        }
+
+        /** Write one unmasked server frame; senders and the reader's control replies share the socket. */
+        private void writeFrame(int opcode, byte[] payload, int len) throws IOException {
+            byte[] head;
+            if (len < 126) {
+                head = new byte[] {(byte) (0x80 | opcode), (byte) len};
+            } else if (len < 65536) {
+                head = new byte[] {(byte) (0x80 | opcode), 126, (byte) (len >>> 8), (byte) len};
+            } else {
+                head = new byte[10];
+                head[0] = (byte) (0x80 | opcode);
+                head[1] = 127;
+                for (int i = 0; i < 8; i++) head[9 - i] = (byte) ((long) len >>> (8 * i));
+            }
+            synchronized (out) {
+                out.write(head);
+                out.write(payload, 0, len);
+                out.flush();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                // reader and sender both close on the way out; the slot is returned once
+                if (closed) return;
+                closed = true;
+                notifyAll();
+            }
+            clients.remove(this);
+            clientSlots.release();
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already gone
+            }
+        }
+    }
+
+    /** Read an HTTP request head up to the blank line. */
+    private static String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) throw new EOFException("connection closed in request head");
+            head.write(b);
+            if (head.size() > MAX_REQUEST) throw new IOException("request head too large");
+            matched = (b == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+        return head.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void respond(OutputStream out, String status, String type, byte[] body) throws IOException {
+        out.write(("HTTP/1.1 " + status + "\r\nContent-Type: " + type + "\r\nContent-Length: " + body.length
+                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.write(body);
+        out.flush();
+    }
+
+    /** @return the {@code Sec-WebSocket-Accept} value for a client key. */
+    static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(sha1.digest((key + WS_GUID).getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 unavailable", e);
+        }
+    }
+
+    /** Command-line entry point: run a simulation headless and stream it. */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 1280;
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : 720;
+        String host = args.length > 3 ? args[3] : null;
+        Simulation sim = new Simulation(width, height);
+        SnapshotStreamServer server = new SnapshotStreamServer(sim, host, port);
+        sim.start();
+        server.start();
+        System.out.println("Streaming on http://localhost:" + server.port() + "/");
+        Thread.currentThread().join();
+    }
+
+    /** @return the bundled browser viewer. */
+    private static byte[] viewerPage() throws IOException {
+        try (InputStream page = SnapshotStreamServer.class.getResourceAsStream("viewer.html")) {
+            if (page == null) throw new IOException("viewer.html missing from the classpath");
+            return page.readAllBytes();
+        }
+    }
+}
@@ -1,51 +1,55 @@
 package com.example.PlanetFormationDemo;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.SourceDataLine;
+import java.util.Random;
 
 /**
- * Minimal sound helper: generates tiny PCM buffers (whoosh/chime) with no external assets.
+ * Minimal sound synthesis: builds tiny 16-bit PCM sample banks (whoosh/chime) with no external
+ * assets. Banks are generated once and replayed by the {@link AudioMixer}.
  */
 public final class Sound {
     /** Audio sample rate for generated PCM buffers. */
-    private static final float SAMPLE_RATE = 44100f;
+    public static final float SAMPLE_RATE = 44100f;
 
     /** Utility class; do not instantiate. */
     private Sound() {}
 
     /**
-     * Play a noise-based whoosh for a comet.
+     * Noise-based whoosh for a comet.
+     *
+     * @param millis length of the cue
+     * @param seed   noise seed; different seeds give audibly different variants
      */
-    public static void playWhoosh(double millis) {
-        playBuffer(genNoiseEnvelope(millis));
+    public static short[] whoosh(double millis, long seed) {
+        return genNoiseEnvelope(millis, new Random(seed));
     }
 
     /**
-     * Play a sine-based chime for planet merges.
+     * Sine-based chime for planet merges.
+     *
+     * @param millis length of the cue
      */
-    public static void playChime(double millis) {
-        playBuffer(genSineEnvelope(new double[]{660, 990}, millis));
+    public static short[] chime(double millis) {
+        return genSineEnvelope(new double[]{660, 990}, millis);
     }
 
     /** Create a short decaying noise envelope. */
-    private static byte[] genNoiseEnvelope(double ms) {
+    private static short[] genNoiseEnvelope(double ms, Random random) {
         int len = (int) (SAMPLE_RATE * ms / 1000.0);
-        byte[] buf = new byte[len];
+        short[] buf = new short[len];
         for (int i = 0; i < len; i++) {
             double t = i / (double) len;
             // Quick attack, smooth decay
             double env = Math.sin(Math.PI * t) * (1 - t);
-            double noise = (Math.random() * 2.0 - 1.0) * env;
-            buf[i] = (byte) (Math.max(-1, Math.min(1, noise)) * 70);
+            double noise = (random.nextDouble() * 2.0 - 1.0) * env;
+            buf[i] = (short) (Math.max(-1, Math.min(1, noise)) * 70 * 256);
         }
         return buf;
     }
 
     /** Create a multi-frequency sine envelope. */
-    private static byte[] genSineEnvelope(double[] freqs, double ms) {
+    private static short[] genSineEnvelope(double[] freqs, double ms) {
         int len = (int) (SAMPLE_RATE * ms / 1000.0);
-        byte[] buf = new byte[len];
+        short[] buf = new short[len];
         for (int i = 0; i < len; i++) {
             double t = i / SAMPLE_RATE;
             double env = 1.0 - (i / (double) len); // linear decay
@@ -54,25 +58,8 @@ public final class Sound {
                 s += Math.sin(2 * Math.PI * f * t);
             }
             s /= freqs.length;
-            buf[i] = (byte) (s * env * 80);
+            buf[i] = (short) (s * env * 80 * 256);
         }
         return buf;
     }
-
-    /** Play the given PCM buffer on a background thread. */
-    private static void playBuffer(byte[] data) {
-        new Thread(() -> {
-            try {
-                AudioFormat fmt = new AudioFormat(SAMPLE_RATE, 8, 1, true, false);
-                SourceDataLine line = AudioSystem.getSourceDataLine(fmt);
-                line.open(fmt);
-                line.start();
-                line.write(data, 0, data.length);
-                line.drain();
-                line.close();
-            } catch (Exception ignored) {
-                // keep silent if audio unavailable
-            }
-        }, "SoundThread").start();
-    }
 }
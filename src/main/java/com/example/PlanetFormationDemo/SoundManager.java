@@ -1,17 +1,53 @@
 package com.example.PlanetFormationDemo;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * Plays synthesized sound cues for simulation events.
+ * Plays synthesized sound cues for simulation events through a shared {@link AudioMixer}.
+ * Cue samples are synthesized once up front; events only queue a bank for mixing.
  */
 public class SoundManager implements SimulationListener {
+    /** Whoosh variants, picked round-robin so repeated comets do not sound identical. */
+    private static final int WHOOSH_VARIANTS = 4;
+
     /** Whether sound playback is currently enabled. */
     private volatile boolean enabled = true;
+    /** Mixer owning the output line. */
+    private final AudioMixer mixer = new AudioMixer();
+    /** Precomputed comet whooshes. */
+    private final short[][] whooshes = new short[WHOOSH_VARIANTS][];
+    /** Precomputed merge chime. */
+    private final short[] chime = Sound.chime(220);
+    /** Next whoosh variant (events arrive from the physics and comet threads). */
+    private final AtomicInteger nextWhoosh = new AtomicInteger();
+
+    /** Synthesize the cue banks. */
+    public SoundManager() {
+        for (int i = 0; i < WHOOSH_VARIANTS; i++) {
+            whooshes[i] = Sound.whoosh(400, i);
+        }
+    }
+
+    /** Open the audio line and start mixing. */
+    public void start() {
+        mixer.start();
+    }
+
+    /** Stop mixing and release the audio line. */
+    public void stop() {
+        mixer.stop();
+    }
 
     /** Enable or disable audio output. */
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
 
+    /** @return the mixer, for latency and drop statistics. */
+    public AudioMixer mixer() {
+        return mixer;
+    }
+
     /** Captions are ignored for sound playback. */
     @Override
     public void onCaption(String text, int durationMs) {
@@ -22,8 +58,8 @@ public class SoundManager implements SimulationListener {
     public void onSound(SoundEvent event) {
         if (!enabled) return;
         switch (event) {
-            case COMET -> Sound.playWhoosh(400);
-            case MERGE -> Sound.playChime(220);
+            case COMET -> mixer.play(whooshes[Math.floorMod(nextWhoosh.getAndIncrement(), WHOOSH_VARIANTS)]);
+            case MERGE -> mixer.play(chime);
         }
     }
 }
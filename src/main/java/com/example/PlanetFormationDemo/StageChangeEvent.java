@@ -0,0 +1,28 @@
+package com.example.PlanetFormationDemo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a body moving to a new {@link Stage}; at most
+ * {@link #MAX_PER_TICK} are recorded per physics step.
+ */
+@Name("com.example.PlanetFormationDemo.StageChange")
+@Label("Stage Change")
+@Category({"Planet Formation", "Physics"})
+@StackTrace(false)
+public class StageChangeEvent extends jdk.jfr.Event {
+    /** Stage change events recorded per physics step at most. */
+    static final int MAX_PER_TICK = 4;
+
+    @Label("Planet")
+    String planet;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Particles")
+    long particles;
+}
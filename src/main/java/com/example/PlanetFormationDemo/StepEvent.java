@@ -0,0 +1,88 @@
+package com.example.PlanetFormationDemo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event covering one {@link Simulation#step()}: the event duration is the whole
+ * step, and the fields break it into lock wait and phases so a recording lines GC pauses and
+ * contention on the body list up with what the physics was doing.
+ */
+@Name("com.example.PlanetFormationDemo.Step")
+@Label("Physics Step")
+@Category({"Planet Formation", "Physics"})
+@Description("One physics step with per-phase durations and body counts")
+@StackTrace(false)
+public class StepEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Bodies")
+    @Description("Live bodies at the end of the step")
+    int bodies;
+
+    @Label("Merges")
+    int merges;
+
+    @Label("Merge Events Skipped")
+    @Description("Merges not recorded as individual events because of the per-tick cap")
+    int mergeEventsSkipped;
+
+    @Label("Lock Wait")
+    @Description("Time spent waiting for the body list lock")
+    @Timespan
+    long lockWait;
+
+    @Label("Gravity")
+    @Timespan
+    long gravity;
+
+    @Label("Grid Clear")
+    @Timespan
+    long gridClear;
+
+    @Label("Bucketing")
+    @Timespan
+    long bucketing;
+
+    @Label("Collisions")
+    @Description("Collision detection, merging and dust coalescing")
+    @Timespan
+    long collisions;
+
+    @Label("Compaction")
+    @Timespan
+    long compaction;
+
+    @Label("Recenter")
+    @Timespan
+    long recenter;
+
+    @Label("Dense Dust Check")
+    @Description("Zero on ticks where the periodic check does not run")
+    @Timespan
+    long denseDust;
+
+    /**
+     * Store a phase duration in its field.
+     *
+     * @param phase one of the step-phase probes
+     * @param nanos time spent in the phase
+     */
+    void phase(PhysicsMetrics.Probe phase, long nanos) {
+        switch (phase) {
+            case GRAVITY -> gravity = nanos;
+            case GRID_CLEAR -> gridClear = nanos;
+            case BUCKETING -> bucketing = nanos;
+            case COLLISIONS -> collisions = nanos;
+            case COMPACTION -> compaction = nanos;
+            case RECENTER -> recenter = nanos;
+            case DENSE_DUST -> denseDust = nanos;
+            default -> { }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.PlanetFormationDemo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes snapshots into compact binary stream messages, once per frame for every subscriber of a
+ * {@link SnapshotStreamServer}. Bodies and dust become one list of entities sorted by body id.
+ * Positions are quantized to 16 bits over twice the view (so comets a little off screen stay
+ * representable), radii to 1/16 px; {@code worldW} and {@code worldH} carry the view's size.
+ *
+ * <p>A keyframe carries every entity. A delta applies only on top of the previous frame. It
+ * carries the ids removed, the entities added, the radius/palette changes, and per surviving
+ * entity a position residual against a constant-velocity prediction (last position plus last
+ * displacement). Orbiting dust therefore costs about two bytes a grain in a delta, against about
+ * eleven in a keyframe: an 8-byte entity record plus its displacement, two varints of one or two
+ * bytes each. Clients repeat the same integer arithmetic, so encoder and decoders never drift
+ * apart.
+ *
+ * <p>Message layout (little-endian; varints are LEB128, signed ones zigzagged):
+ * <pre>
+ * u8 type (1 key, 2 delta), u32 frame, f32 worldW, f32 worldH, f64 particles, u8 flags,
+ * u8 paletteSize, u32 argb[paletteSize], varint names, (varint id, u8 len, UTF-8)[names],
+ * key:   varint count, (entity, svarint vx, svarint vy)[count]
+ * delta: varint removed, varint idGap[removed], varint added, entity[added],
+ *        varint changed, (varint keptIndexGap, u16 radius, u8 palette)[changed],
+ *        (svarint dx, svarint dy)[kept]
+ * entity = varint idGap, u16 x, u16 y, u16 radius, u8 palette (0x80 sun, 0x40 comet)
+ * </pre>
+ * Id gaps are {@code id - previousId - 1} with the previous id starting at -1; a keyframe carries
+ * each entity's last displacement so its receivers predict like everyone else. Not thread-safe:
+ * frames are encoded by one thread.
+ */
+public final class StreamEncoder {
+    /** Message types. */
+    public static final int KEYFRAME = 1;
+    public static final int DELTA = 2;
+    /** Entity palette flags. */
+    static final int SUN = 0x80;
+    static final int COMET = 0x40;
+    /** Largest quantized coordinate. */
+    private static final int Q_MAX = 65535;
+
+    /**
+     * One encoded frame, shared by every subscriber.
+     *
+     * @param frame number of the frame, counting from 1
+     * @param key   keyframe message, or null if no subscriber needed one
+     * @param delta delta message against frame {@code frame - 1}, or null for the first frame
+     */
+    public record Encoded(long frame, byte[] key, byte[] delta) {}
+
+    /** Entity state of the last frame (current) and the one being built, swapped every frame; sorted by id. */
+    private State current = new State();
+    private State next = new State();
+    /** Number of the last frame encoded. */
+    private long frame;
+    /** View size of the last frame; a change forces a fresh chain. */
+    private float worldW;
+    private float worldH;
+    /** Sort keys (id in the high half, source index in the low half). */
+    private long[] order = new long[0];
+    /** Section buffers of a delta. */
+    private final Out removed = new Out();
+    private final Out added = new Out();
+    private final Out changed = new Out();
+    private final Out residuals = new Out();
+
+    /**
+     * Encode a snapshot as the next frame.
+     *
+     * @param snap    snapshot to encode
+     * @param withKey whether to also encode a keyframe (some subscriber is out of step)
+     * @return the frame's messages
+     */
+    public Encoded encode(SimulationSnapshot snap, boolean withKey) {
+        // the grid overhangs the view by a cell or two, so it is not the extent viewers show
+        float w = snap.viewWidth();
+        float h = snap.viewHeight();
+        boolean chain = frame > 0 && w == worldW && h == worldH;
+        worldW = w;
+        worldH = h;
+        gather(snap, w, h);
+        long n = ++frame;
+        // the delta also fills in displacements, which the keyframe carries
+        byte[] delta = chain ? delta(snap, n) : null;
+        byte[] key = withKey || delta == null ? key(snap, n) : null;
+        State done = current;
+        current = next;
+        next = done;
+        return new Encoded(n, key, delta);
+    }
+
+    /** Quantize the snapshot's entities into {@link #next}, sorted by id. */
+    private void gather(SimulationSnapshot snap, float w, float h) {
+        List<SimulationSnapshot.BodyView> bodies = snap.bodies();
+        SimulationSnapshot.DustField dust = snap.dust();
+        int bodyCount = bodies.size();
+        int total = bodyCount + dust.count();
+        if (order.length < total) order = new long[total + total / 4];
+        for (int i = 0; i < bodyCount; i++) order[i] = ((long) bodies.get(i).id() << 32) | i;
+        int[] dustIds = dust.id();
+        for (int i = 0; i < dust.count(); i++) order[bodyCount + i] = ((long) dustIds[i] << 32) | (bodyCount + i);
+        Arrays.sort(order, 0, total);
+
+        State s = next;
+        s.ensure(total);
+        s.count = total;
+        for (int k = 0; k < total; k++) {
+            int src = (int) order[k];
+            s.ids[k] = (int) (order[k] >>> 32);
+            if (src < bodyCount) {
+                SimulationSnapshot.BodyView b = bodies.get(src);
+                s.qx[k] = quantize(b.x(), w);
+                s.qy[k] = quantize(b.y(), h);
+                s.radius[k] = radius(b.radius());
+                s.palette[k] = b.palette() | (b.sun() ? SUN : 0) | (b.comet() ? COMET : 0);
+                s.names[k] = b.name();
+            } else {
+                int d = src - bodyCount;
+                s.qx[k] = quantize(dust.x()[d], w);
+                s.qy[k] = quantize(dust.y()[d], h);
+                s.radius[k] = radius(dust.radius()[d]);
+                s.palette[k] = PlanetStyling.paletteOf(dust.rgb()[d]);
+                s.names[k] = null;
+            }
+            s.vx[k] = 0;
+            s.vy[k] = 0;
+        }
+    }
+
+    private byte[] key(SimulationSnapshot snap, long n) {
+        State s = next;
+        Out out = header(KEYFRAME, n, snap, s);
+        out.varint(s.count);
+        int prev = -1;
+        for (int k = 0; k < s.count; k++) {
+            entity(out, s, k, prev);
+            out.svarint(s.vx[k]);
+            out.svarint(s.vy[k]);
+            prev = s.ids[k];
+        }
+        return out.toByteArray();
+    }
+
+    /** Encode {@link #next} against {@link #current}, carrying predictions over into {@link #next}. */
+    private byte[] delta(SimulationSnapshot snap, long n) {
+        State o = current;
+        State s = next;
+        removed.reset();
+        added.reset();
+        changed.reset();
+        residuals.reset();
+        int removedCount = 0;
+        int addedCount = 0;
+        int changedCount = 0;
+        int prevRemoved = -1;
+        int prevAdded = -1;
+        int kept = 0;
+        int prevChanged = -1;
+        int i = 0;
+        int j = 0;
+        while (i < o.count || j < s.count) {
+            if (j == s.count || (i < o.count && o.ids[i] < s.ids[j])) {
+                removed.varint(o.ids[i] - prevRemoved - 1);
+                prevRemoved = o.ids[i];
+                removedCount++;
+                i++;
+            } else if (i == o.count || o.ids[i] > s.ids[j]) {
+                entity(added, s, j, prevAdded);
+                prevAdded = s.ids[j];
+                addedCount++;
+                j++;
+            } else {
+                int px = o.qx[i] + o.vx[i];
+                int py = o.qy[i] + o.vy[i];
+                residuals.svarint(s.qx[j] - px);
+                residuals.svarint(s.qy[j] - py);
+                s.vx[j] = s.qx[j] - o.qx[i];
+                s.vy[j] = s.qy[j] - o.qy[i];
+                if (s.radius[j] != o.radius[i] || s.palette[j] != o.palette[i]) {
+                    changed.varint(kept - prevChanged - 1);
+                    changed.u16(s.radius[j]);
+                    changed.u8(s.palette[j]);
+                    prevChanged = kept;
+                    changedCount++;
+                }
+                kept++;
+                i++;
+                j++;
+            }
+        }
+        Out out = header(DELTA, n, snap, s);
+        out.varint(removedCount);
+        out.append(removed);
+        out.varint(addedCount);
+        out.append(added);
+        out.varint(changedCount);
+        out.append(changed);
+        out.append(residuals);
+        return out.toByteArray();
+    }
+
+    /** Message header shared by both types. */
+    private Out header(int type, long n, SimulationSnapshot snap, State s) {
+        Out out = new Out();
+        out.u8(type);
+        out.u32((int) n);
+        out.f32(worldW);
+        out.f32(worldH);
+        out.f64(snap.totalParticles());
+        out.u8(snap.autoCometsEnabled() ? 1 : 0);
+        out.u8(PlanetStyling.paletteSize());
+        for (int p = 0; p < PlanetStyling.paletteSize(); p++) out.u32(PlanetStyling.argb(p));
+        int named = 0;
+        for (SimulationSnapshot.BodyView b : snap.bodies()) if (b.name() != null) named++;
+        out.varint(named);
+        for (int k = 0; k < s.count && named > 0; k++) {
+            if (s.names[k] == null) continue;
+            byte[] utf8 = s.names[k].getBytes(StandardCharsets.UTF_8);
+            int len = Math.min(255, utf8.length);
+            out.varint(s.ids[k]);
+            out.u8(len);
+            out.bytes(utf8, len);
+            named--;
+        }
+        return out;
+    }
+
+    private static void entity(Out out, State s, int k, int prevId) {
+        out.varint(s.ids[k] - prevId - 1);
+        out.u16(s.qx[k]);
+        out.u16(s.qy[k]);
+        out.u16(s.radius[k]);
+        out.u8(s.palette[k]);
+    }
+
+    /** Map a coordinate in {@code [-extent/2, 1.5 * extent)} onto {@code 0..65535}, clamping outside. */
+    private static int quantize(float v, float extent) {
+        int q = Math.round((v + extent * 0.5f) * (Q_MAX / (2f * extent)));
+        return Math.max(0, Math.min(Q_MAX, q));
+    }
+
+    private static int radius(float r) {
+        return Math.max(0, Math.min(Q_MAX, Math.round(r * 16f)));
+    }
+
+    /** Entities of one frame in parallel arrays, sorted by id. */
+    private static final class State {
+        int count;
+        int[] ids = new int[0];
+        int[] qx = new int[0];
+        int[] qy = new int[0];
+        /** Last quantized displacement, the prediction for the next frame. */
+        int[] vx = new int[0];
+        int[] vy = new int[0];
+        int[] radius = new int[0];
+        int[] palette = new int[0];
+        String[] names = new String[0];
+
+        void ensure(int n) {
+            if (ids.length >= n) return;
+            int cap = n + n / 4;
+            ids = new int[cap];
+            qx = new int[cap];
+            qy = new int[cap];
+            vx = new int[cap];
+            vy = new int[cap];
+            radius = new int[cap];
+            palette = new int[cap];
+            names = new String[cap];
+        }
+    }
+
+    /** Growable little-endian byte sink. */
+    private static final class Out {
+        private byte[] buf = new byte[1024];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        private void room(int n) {
+            if (size + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+        }
+
+        void u8(int v) {
+            room(1);
+            buf[size++] = (byte) v;
+        }
+
+        void u16(int v) {
+            room(2);
+            buf[size++] = (byte) v;
+            buf[size++] = (byte) (v >>> 8);
+        }
+
+        void u32(int v) {
+            room(4);
+            for (int s = 0; s < 32; s += 8) buf[size++] = (byte) (v >>> s);
+        }
+
+        void f32(float v) {
+            u32(Float.floatToIntBits(v));
+        }
+
+        void f64(double v) {
+            long bits = Double.doubleToLongBits(v);
+            u32((int) bits);
+            u32((int) (bits >>> 32));
+        }
+
+        void varint(int v) {
+            room(5);
+            while ((v & ~0x7F) != 0) {
+                buf[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte) v;
+        }
+
+        void svarint(int v) {
+            varint((v << 1) ^ (v >> 31));
+        }
+
+        void bytes(byte[] b, int len) {
+            room(len);
+            System.arraycopy(b, 0, buf, size, len);
+            size += len;
+        }
+
+        void append(Out o) {
+            bytes(o.buf, o.size);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.BasicStroke;
+
+/**
+ * Width-quantized BasicStroke instances, created on first use and reused afterwards.
+ */
+public final class StrokeCache {
+    /** Stroke widths are rounded to 1/STEPS_PER_PX of a pixel. */
+    private static final int STEPS_PER_PX = 4;
+    /** Widest stroke cached; wider requests are clamped. */
+    private static final int MAX_PX = 32;
+
+    /** Cached strokes by quantized width. */
+    private final BasicStroke[] strokes = new BasicStroke[MAX_PX * STEPS_PER_PX + 1];
+
+    /**
+     * @return a stroke whose width is {@code width} rounded to the cache resolution
+     */
+    public BasicStroke get(float width) {
+        int idx = Math.max(1, Math.min(strokes.length - 1, Math.round(width * STEPS_PER_PX)));
+        BasicStroke s = strokes[idx];
+        if (s == null) {
+            s = new BasicStroke(idx / (float) STEPS_PER_PX);
+            strokes[idx] = s;
+        }
+        return s;
+    }
+}
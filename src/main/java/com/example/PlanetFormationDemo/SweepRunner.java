@@ -0,0 +1,182 @@
+package com.example.PlanetFormationDemo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless parameter sweep: runs every combination of physics constants in a grid, each with
+ * several seeds, for a fixed number of steps, and writes one CSV row of outcomes per run. Runs
+ * share one bounded fork/join pool, which also carries each simulation's parallel gravity pass, so
+ * the machine is never oversubscribed however many runs there are; steps per second are therefore
+ * measured under that sharing and are comparable only within one sweep.
+ *
+ * <p>Usage: {@code SweepRunner <out.csv> [name=v1,v2,...]... [seeds=N] [steps=N] [size=WxH] [threads=N]}
+ * where {@code name} is a {@link Simulation.PhysicsConfig} component, e.g.
+ * {@code SweepRunner sweep.csv g=0.0006,0.0008,0.001 drag=0.9999,0.9998 seeds=4 steps=3600}.
+ */
+public final class SweepRunner {
+    /** Utility class; do not instantiate. */
+    private SweepRunner() {}
+
+    /**
+     * Outcome of one run.
+     *
+     * @param config          physics constants
+     * @param seed            random seed
+     * @param steps           steps run
+     * @param planets         named planets alive at the end
+     * @param firstPlanetTick tick by which the first planet was named, or -1 if none was
+     * @param bodies          bodies alive at the end, sun excluded
+     * @param largestMass     mass of the heaviest body at the end
+     * @param stepsPerSecond  steps per wall-clock second
+     */
+    public record Result(Simulation.PhysicsConfig config, long seed, int steps, int planets, long firstPlanetTick,
+                         int bodies, float largestMass, double stepsPerSecond) {}
+
+    /**
+     * Run a sweep and write its results.
+     *
+     * @param out     CSV destination, overwritten
+     * @param configs physics constants to try
+     * @param seeds   runs per config, seeded 1..seeds
+     * @param steps   steps per run
+     * @param width   view width
+     * @param height  view height
+     * @param threads pool parallelism
+     * @return results in config-then-seed order
+     */
+    public static List<Result> sweep(Path out, List<Simulation.PhysicsConfig> configs, int seeds, int steps,
+                                     int width, int height, int threads) throws IOException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        int total = configs.size() * seeds;
+        AtomicInteger done = new AtomicInteger();
+        List<Future<Result>> futures = new ArrayList<>(total);
+        try {
+            for (Simulation.PhysicsConfig config : configs) {
+                for (long seed = 1; seed <= seeds; seed++) {
+                    long s = seed;
+                    futures.add(pool.submit(() -> {
+                        Result r = run(config, s, steps, width, height);
+                        System.out.printf(Locale.ROOT, "[%d/%d] %s seed=%d: %d planets, %.1f steps/s%n",
+                                done.incrementAndGet(), total, config, s, r.planets(), r.stepsPerSecond());
+                        return r;
+                    }));
+                }
+            }
+            List<Result> results = new ArrayList<>(total);
+            for (Future<Result> f : futures) {
+                try {
+                    results.add(f.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Sweep run failed", e.getCause());
+                }
+            }
+            try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                writeCsv(w, results);
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Step one seeded simulation and collect its outcome. */
+    private static Result run(Simulation.PhysicsConfig config, long seed, int steps, int width, int height) {
+        Simulation sim = new Simulation(width, height, true, seed, config);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < steps; i++) sim.step();
+            double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+            DiskAnalytics.Stats stats = sim.analytics().latest();
+            return new Result(config, seed, steps, stats.planets(), stats.firstPlanetTick(), stats.bodies(),
+                    stats.largestMass(), steps / seconds);
+        } finally {
+            sim.stop();
+        }
+    }
+
+    /** Write results as CSV with a header row. */
+    public static void writeCsv(Writer out, List<Result> results) throws IOException {
+        out.write("g,drag,softening,planetGravityScale,mergeReach,seed,steps,planets,firstPlanetTick,"
+                + "bodies,largestMass,stepsPerSecond\n");
+        for (Result r : results) {
+            Simulation.PhysicsConfig c = r.config();
+            out.write(String.format(Locale.ROOT, "%s,%s,%s,%s,%s,%d,%d,%d,%d,%d,%s,%.2f%n",
+                    c.g(), c.drag(), c.softening(), c.planetGravityScale(), c.mergeReach(), r.seed(), r.steps(),
+                    r.planets(), r.firstPlanetTick(), r.bodies(), r.largestMass(), r.stepsPerSecond()));
+        }
+    }
+
+    /**
+     * Expand value lists per constant into every combination, starting from the defaults.
+     *
+     * @param axes constant name to the values to try, in sweep order
+     * @return one config per combination, the last axis varying fastest
+     */
+    public static List<Simulation.PhysicsConfig> grid(Map<String, float[]> axes) {
+        List<Simulation.PhysicsConfig> configs = List.of(Simulation.PhysicsConfig.DEFAULT);
+        for (Map.Entry<String, float[]> axis : axes.entrySet()) {
+            List<Simulation.PhysicsConfig> next = new ArrayList<>();
+            for (Simulation.PhysicsConfig c : configs) {
+                for (float v : axis.getValue()) next.add(c.with(axis.getKey(), v));
+            }
+            configs = next;
+        }
+        return configs;
+    }
+
+    /** Command-line entry point; the simulation core does not load AWT. */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SweepRunner <out.csv> [name=v1,v2,...]... [seeds=N] [steps=N] "
+                    + "[size=WxH] [threads=N]");
+            System.exit(2);
+        }
+        Path out = Path.of(args[0]);
+        int seeds = 3;
+        int steps = 3600;
+        int width = 1280;
+        int height = 720;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Map<String, float[]> axes = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected name=value: " + args[i]);
+            String name = args[i].substring(0, eq);
+            String value = args[i].substring(eq + 1);
+            switch (name) {
+                case "seeds" -> seeds = Integer.parseInt(value);
+                case "steps" -> steps = Integer.parseInt(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                case "size" -> {
+                    String[] wh = value.split("x");
+                    width = Integer.parseInt(wh[0]);
+                    height = Integer.parseInt(wh[1]);
+                }
+                default -> {
+                    String[] parts = value.split(",");
+                    float[] values = new float[parts.length];
+                    for (int k = 0; k < parts.length; k++) values[k] = Float.parseFloat(parts[k]);
+                    axes.put(name, values);
+                }
+            }
+        }
+        List<Simulation.PhysicsConfig> configs = grid(axes);
+        long start = System.nanoTime();
+        sweep(out, configs, seeds, steps, width, height, threads);
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+        System.out.println("Swept " + configs.size() + " configs x " + seeds + " seeds in " + ms + " ms -> " + out);
+    }
+}
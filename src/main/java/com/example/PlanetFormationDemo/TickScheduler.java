@@ -0,0 +1,177 @@
+package com.example.PlanetFormationDemo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel driven by the physics tick, so timed behaviour (auto-comets, caption
+ * expiry, chime cooldowns) follows simulated time rather than wall time and costs no thread of its
+ * own. Four levels of 64 slots cover 64<sup>4</sup> ticks (about three days at 60 Hz); an entry
+ * sits in the coarsest level its delay needs and cascades down as its tick approaches, so
+ * scheduling and cancelling are O(1) and a tick touches only the entries that are due. Longer
+ * delays park in the top level and cascade again until due.
+ *
+ * <p>Entries may be scheduled and cancelled from any thread. Due tasks run on the thread calling
+ * {@link #advance()} (the physics thread), outside the wheel's lock, so they may reschedule.
+ */
+public final class TickScheduler {
+    /** Nominal tick length that millisecond delays are converted with (the default 60 Hz rate). */
+    public static final long MILLIS_PER_TICK = 16;
+    /** Slots per level (power of two) and the bits of the tick each level consumes. */
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    /** Wheel levels. */
+    private static final int LEVELS = 4;
+    /** Longest delay placed directly; longer ones wait in the top level. */
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    /** Slot lists per level: sentinel heads of circular doubly linked lists. */
+    private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+    /** Ticks advanced so far. */
+    private long now;
+    /** Entries waiting. */
+    private int pending;
+    /** Due tasks collected under the lock and run outside it (advancing thread only). */
+    private final List<Runnable> due = new ArrayList<>();
+
+    /** A scheduled task; cancel it through {@link #cancel()}. */
+    public static final class Timeout {
+        /** Tick the task runs on. */
+        private long deadline;
+        /** Task to run, or null for a list head. */
+        private final Runnable task;
+        /** Slot list links; null when not scheduled. */
+        private Timeout prev;
+        private Timeout next;
+        /** Scheduler holding the entry. */
+        private final TickScheduler owner;
+
+        private Timeout(TickScheduler owner, long deadline, Runnable task) {
+            this.owner = owner;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /** Unschedule the task; does nothing if it already ran or was cancelled. */
+        public void cancel() {
+            synchronized (owner) {
+                if (next == null) return;
+                owner.unlink(this);
+            }
+        }
+
+        /** @return true while the task is waiting to run. */
+        public boolean isPending() {
+            synchronized (owner) {
+                return next != null;
+            }
+        }
+    }
+
+    /** Create an empty wheel at tick 0. */
+    public TickScheduler() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timeout head = new Timeout(this, 0, null);
+                head.prev = head;
+                head.next = head;
+                wheel[level][slot] = head;
+            }
+        }
+    }
+
+    /** @return whole ticks covering {@code millis} of simulated time at the nominal rate (at least 1). */
+    public static long ticks(long millis) {
+        return Math.max(1, (millis + MILLIS_PER_TICK - 1) / MILLIS_PER_TICK);
+    }
+
+    /**
+     * Run a task after a delay.
+     *
+     * @param delayTicks ticks from now; values below 1 run on the next tick
+     * @param task       task, run on the advancing thread
+     * @return handle for cancelling
+     */
+    public synchronized Timeout schedule(long delayTicks, Runnable task) {
+        Timeout t = new Timeout(this, now + Math.max(1, delayTicks), task);
+        insert(t);
+        pending++;
+        return t;
+    }
+
+    /** @return ticks advanced so far. */
+    public synchronized long now() {
+        return now;
+    }
+
+    /** @return entries waiting to run. */
+    public synchronized int pending() {
+        return pending;
+    }
+
+    /**
+     * Advance one tick: cascade coarser slots that come due, then run every task whose tick has
+     * arrived. Call from a single thread.
+     */
+    public void advance() {
+        synchronized (this) {
+            now++;
+            for (int level = 1; level < LEVELS; level++) {
+                // a level cascades when every finer level has wrapped around
+                if ((now & ((1L << (SLOT_BITS * level)) - 1)) != 0) break;
+                cascade(level, (int) (now >>> (SLOT_BITS * level)) & MASK);
+            }
+            Timeout head = wheel[0][(int) now & MASK];
+            for (Timeout t = head.next; t != head; ) {
+                Timeout next = t.next;
+                unlink(t);
+                due.add(t.task);
+                t = next;
+            }
+        }
+        if (due.isEmpty()) return;
+        for (int i = 0; i < due.size(); i++) due.get(i).run();
+        due.clear();
+    }
+
+    /** Move every entry of a slot down to the level its remaining delay needs. */
+    private void cascade(int level, int slot) {
+        Timeout head = wheel[level][slot];
+        for (Timeout t = head.next; t != head; ) {
+            Timeout next = t.next;
+            t.prev.next = t.next;
+            t.next.prev = t.prev;
+            insert(t);
+            t = next;
+        }
+    }
+
+    /** Link an entry into the slot for its deadline. */
+    private void insert(Timeout t) {
+        long delta = t.deadline - now;
+        long at = t.deadline;
+        int level = 0;
+        if (delta >= SPAN) {
+            // beyond the wheel: wait in the top level and cascade again when that slot comes round
+            at = now + SPAN - 1;
+            level = LEVELS - 1;
+        } else {
+            while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) level++;
+        }
+        Timeout head = wheel[level][(int) (at >>> (SLOT_BITS * level)) & MASK];
+        t.prev = head.prev;
+        t.next = head;
+        head.prev.next = t;
+        head.prev = t;
+    }
+
+    /** Remove a scheduled entry from its slot. */
+    private void unlink(Timeout t) {
+        t.prev.next = t.next;
+        t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+        pending--;
+    }
+}
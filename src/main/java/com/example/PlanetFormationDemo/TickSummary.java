@@ -0,0 +1,15 @@
+package com.example.PlanetFormationDemo;
+
+/**
+ * Everything notable that happened during one physics tick, coalesced by the {@link EventBus}.
+ *
+ * @param tick          physics tick the events belong to
+ * @param merges        body-body merges resolved in the tick
+ * @param notableMerges merges involving a named or large body (the ones that chime)
+ * @param newPlanets    bodies that became named planets
+ * @param stageChanges  named planets that changed stage
+ * @param comets        comets launched
+ * @param dropped       events lost because the ring buffer was full
+ */
+public record TickSummary(int tick, int merges, int notableMerges, int newPlanets, int stageChanges,
+                          int comets, int dropped) {}
@@ -0,0 +1,86 @@
+package com.example.PlanetFormationDemo;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless batch driver: steps a simulation as fast as possible and writes a PNG sequence.
+ *
+ * <p>Usage: {@code TimeLapseRenderer <outDir> [frames] [stepsPerFrame] [width] [height]}
+ */
+public final class TimeLapseRenderer {
+    /** Utility class; do not instantiate. */
+    private TimeLapseRenderer() {}
+
+    /**
+     * Run a time-lapse render.
+     *
+     * @param outDir        directory receiving {@code frame-00000.png} files
+     * @param frames        number of frames to write
+     * @param stepsPerFrame physics steps between frames
+     * @param width         frame width
+     * @param height        frame height
+     */
+    public static void render(File outDir, int frames, int stepsPerFrame, int width, int height)
+            throws IOException, InterruptedException {
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Cannot create " + outDir);
+        }
+        Simulation sim = new Simulation(width, height);
+        CaptionManager captions = new CaptionManager(sim.timers());
+        sim.addListener(captions);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        // PNG encoding is single-threaded per image, so overlap it with stepping/rendering;
+        // the bounded queue applies backpressure instead of buffering the whole run.
+        ThreadPoolExecutor encoders = new ThreadPoolExecutor(cores, cores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cores * 2), r -> {
+                    Thread t = new Thread(r, "PngEncoder");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try (OffscreenRenderer renderer = new OffscreenRenderer(width, height)) {
+            for (int frame = 0; frame < frames; frame++) {
+                for (int s = 0; s < stepsPerFrame; s++) sim.step();
+                BufferedImage img = renderer.render(sim.snapshot(), captions.currentCaption(),
+                        ToolMode.STAR_WAND, sim.isAutoCometsEnabled(), 1.0f);
+                BufferedImage copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                img.copyData(copy.getRaster());
+                File target = new File(outDir, String.format("frame-%05d.png", frame));
+                encoders.execute(() -> {
+                    try {
+                        OffscreenRenderer.writePng(copy, target);
+                    } catch (IOException e) {
+                        System.err.println("Failed to write " + target + ": " + e.getMessage());
+                    }
+                });
+            }
+        } finally {
+            encoders.shutdown();
+            encoders.awaitTermination(1, TimeUnit.HOURS);
+        }
+    }
+
+    /** Command-line entry point; forces headless AWT. */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 1) {
+            System.err.println("Usage: TimeLapseRenderer <outDir> [frames] [stepsPerFrame] [width] [height]");
+            System.exit(2);
+        }
+        File out = new File(args[0]);
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        int stepsPerFrame = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int width = args.length > 3 ? Integer.parseInt(args[3]) : 1280;
+        int height = args.length > 4 ? Integer.parseInt(args[4]) : 720;
+        long start = System.nanoTime();
+        render(out, frames, stepsPerFrame, width, height);
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+        System.out.println("Rendered " + frames + " frames in " + ms + " ms");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.PlanetFormationDemo;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The incrementally kept statistics must agree with a full rescan of the bodies after every tick,
+ * in particular across merges that absorb the current largest body.
+ */
+public class DiskAnalyticsTest extends TestCase {
+    /** Ticks stepped; merges are frequent while the fresh disk settles. */
+    private static final int TICKS = 1500;
+
+    public void testStatsMatchRescanEveryTick() {
+        Simulation sim = new Simulation(640, 360, false, 20_240_611L);
+        sim.seedDisk(3000, 4);
+        int seeded = -1;
+        for (int t = 0; t < TICKS; t++) {
+            sim.step();
+            DiskAnalytics.Stats stats = sim.analytics().latest();
+            assertMatchesRescan(stats, sim.bodyList());
+            if (seeded < 0) seeded = stats.bodies();
+        }
+        int merged = seeded - sim.analytics().latest().bodies();
+        assertTrue("only " + merged + " bodies merged away", merged > 100);
+    }
+
+    private static void assertMatchesRescan(DiskAnalytics.Stats stats, List<Body> bodies) {
+        String at = "tick " + stats.tick() + ": ";
+        int count = 0;
+        long particles = 0;
+        int planets = 0;
+        int[] stages = new int[Stage.values().length];
+        int[] masses = new int[DiskAnalytics.MASS_BINS];
+        Body largest = null;
+        for (Body b : bodies) {
+            if (b.isSun || b.ghost) continue;
+            count++;
+            particles += b.particleCount;
+            if (b.name != null) planets++;
+            stages[b.stage.ordinal()]++;
+            masses[DiskAnalytics.massBin(b.mass)]++;
+            if (largest == null || b.mass > largest.mass) largest = b;
+        }
+        assertEquals(at + "bodies", count, stats.bodies());
+        assertEquals(at + "particles", particles, stats.particles());
+        assertEquals(at + "planets", planets, stats.planets());
+        assertTrue(at + "stages " + Arrays.toString(stats.stageCounts()),
+                Arrays.equals(stages, stats.stageCounts()));
+        assertTrue(at + "mass bins " + Arrays.toString(stats.massHistogram()),
+                Arrays.equals(masses, stats.massHistogram()));
+        assertNotNull(at + "no bodies", largest);
+        assertEquals(at + "largest mass", largest.mass, stats.largestMass());
+        boolean named = false;
+        for (Body b : bodies) {
+            if (!b.isSun && !b.ghost && b.mass == largest.mass) {
+                named |= b.name == null ? stats.largestName() == null : b.name.equals(stats.largestName());
+            }
+        }
+        assertTrue(at + "largest name " + stats.largestName(), named);
+    }
+}
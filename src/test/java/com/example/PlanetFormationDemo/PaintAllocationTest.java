@@ -0,0 +1,208 @@
+package com.example.PlanetFormationDemo;
+
+import junit.framework.TestCase;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Steady-state frames must not allocate in our paint code. Java2D allocates internally whatever
+ * we do (filling a shape creates a path iterator, text rendering allocates a little per string),
+ * so each frame is compared with a baseline that fills the same number of discs, at the same
+ * places, straight into the same {@link Graphics2D}. What the painter allocates beyond that must
+ * stay under a constant that does not grow with the shapes drawn. Allocation is summed over every
+ * thread, so strips splatted on the common pool count too.
+ */
+public class PaintAllocationTest extends TestCase {
+    /** Frame size. */
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    /** Frames painted before and while measuring. */
+    private static final int WARMUP_FRAMES = 300;
+    private static final int MEASURED_FRAMES = 200;
+    /** Interpolation lag of every frame, so the baseline can cull grains exactly as the painter does. */
+    private static final float LAG = 0.5f;
+    /** Margins around the view, in world pixels, within which the painter draws grains (at that lag) and bodies. */
+    private static final float DUST_MARGIN = 3f + 16f * LAG;
+    private static final float BODY_MARGIN = 200f;
+    /** Allocation per frame allowed beyond the baseline, whatever the number of shapes. */
+    private static final long EXTRA_BYTES_PER_FRAME = 256;
+
+    static {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    private static SimulationSnapshot snapshot;
+
+    /** A settled disk with planets and dust, shared by the tests. */
+    private static synchronized SimulationSnapshot snapshot() {
+        if (snapshot == null) {
+            Simulation sim = new Simulation(WIDTH, HEIGHT, false, 20_240_611L);
+            sim.seedDisk(30_000, 0);
+            for (int i = 0; i < 200; i++) sim.step();
+            snapshot = sim.snapshot();
+        }
+        return snapshot;
+    }
+
+    public void testSplatFramesAllocateOnlyJava2dResidue() {
+        assertSteadyState(DustMode.SPLAT, 1f);
+        assertSteadyState(DustMode.SPLAT, 0.5f);
+    }
+
+    public void testVectorFramesAllocateOnlyJava2dResidue() {
+        assertSteadyState(DustMode.VECTOR, 1f);
+        assertSteadyState(DustMode.VECTOR, 2f);
+    }
+
+    private void assertSteadyState(DustMode mode, float zoom) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) return;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        SimulationSnapshot snap = snapshot();
+        SnapshotPainter painter = new SnapshotPainter();
+        painter.setDustMode(mode);
+        FrameLayers layers = new FrameLayers(painter);
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = frame.createGraphics();
+        try {
+            for (int i = 0; i < WARMUP_FRAMES; i++) paint(painter, layers, snap, frame, g2, zoom);
+            assertTrue(mode + " drew no dust", painter.dustDrawn() > 0);
+            // vector dust is one disc per grain here, so the baseline can fill the same discs
+            if (mode == DustMode.VECTOR) assertEquals("LOD patches at zoom " + zoom, -1, painter.lodLevel());
+            int dust = mode == DustMode.VECTOR ? painter.dustDrawn() : 0;
+            Discs discs = new Discs(snap, zoom, painter.bodiesDrawn(), dust);
+
+            long before = allocatedBytes(threads);
+            for (int i = 0; i < MEASURED_FRAMES; i++) paint(painter, layers, snap, frame, g2, zoom);
+            long painted = (allocatedBytes(threads) - before) / MEASURED_FRAMES;
+
+            for (int i = 0; i < WARMUP_FRAMES; i++) baseline(painter, layers, snap, discs, g2, zoom);
+            before = allocatedBytes(threads);
+            for (int i = 0; i < MEASURED_FRAMES; i++) baseline(painter, layers, snap, discs, g2, zoom);
+            long residue = (allocatedBytes(threads) - before) / MEASURED_FRAMES;
+
+            assertTrue(mode + " at zoom " + zoom + " allocated " + painted + " bytes/frame, " + (painted - residue)
+                            + " over the " + residue + " Java2D needs for " + discs.count + " discs",
+                    painted - residue <= EXTRA_BYTES_PER_FRAME);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /** Compose one frame the way {@link FrameComposer} does. */
+    private static void paint(SnapshotPainter painter, FrameLayers layers, SimulationSnapshot snap,
+                              BufferedImage frame, Graphics2D g2, float zoom) {
+        g2.drawImage(layers.staticLayer(null, snap, WIDTH, HEIGHT, zoom), 0, 0, null);
+        painter.paintBodies(g2, snap, WIDTH, HEIGHT, zoom, LAG, frame);
+        hud(painter, layers, snap, g2, zoom);
+    }
+
+    /** The same frame with the painter's bodies and dust replaced by plain fills of the same discs. */
+    private static void baseline(SnapshotPainter painter, FrameLayers layers, SimulationSnapshot snap, Discs discs,
+                                 Graphics2D g2, float zoom) {
+        g2.drawImage(layers.staticLayer(null, snap, WIDTH, HEIGHT, zoom), 0, 0, null);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.translate(discs.offX, discs.offY);
+        g2.scale(zoom, zoom);
+        Ellipse2D.Float oval = discs.oval;
+        for (int k = 0; k < discs.count; k++) {
+            g2.setColor(discs.color[k]);
+            oval.setFrame(discs.x[k], discs.y[k], discs.size[k], discs.size[k]);
+            g2.fill(oval);
+        }
+        g2.scale(1 / zoom, 1 / zoom);
+        g2.translate(-discs.offX, -discs.offY);
+        hud(painter, layers, snap, g2, zoom);
+    }
+
+    private static void hud(SnapshotPainter painter, FrameLayers layers, SimulationSnapshot snap, Graphics2D g2,
+                            float zoom) {
+        g2.drawImage(layers.hudLayer(null, WIDTH, "Dust settles", ToolMode.STAR_WAND, true, zoom), 0, 0, null);
+        painter.paintHudCounters(g2, snap);
+    }
+
+    /**
+     * Discs the painter fills for a frame, in its order: grains in view (vector mode only), then
+     * bodies from last to first, the sun as glow and core. World space, the painter's colors and
+     * culling. Built once, outside the measurement.
+     */
+    private static final class Discs {
+        final int count;
+        final float[] x;
+        final float[] y;
+        final float[] size;
+        final Color[] color;
+        final float offX;
+        final float offY;
+        final Ellipse2D.Float oval = new Ellipse2D.Float();
+        /** View in world space. */
+        private final float minX;
+        private final float minY;
+        private final float maxX;
+        private final float maxY;
+
+        Discs(SimulationSnapshot snap, float zoom, int bodies, int grains) {
+            SimulationSnapshot.BodyView sun = snap.bodies().get(0);
+            offX = sun.x() * (1 - zoom);
+            offY = sun.y() * (1 - zoom);
+            minX = -offX / zoom;
+            minY = -offY / zoom;
+            maxX = (WIDTH - offX) / zoom;
+            maxY = (HEIGHT - offY) / zoom;
+            // the sun counts once among the bodies drawn but fills two discs
+            int n = grains + bodies + 1;
+            x = new float[n];
+            y = new float[n];
+            size = new float[n];
+            color = new Color[n];
+            int k = 0;
+            SimulationSnapshot.DustField dust = snap.dust();
+            for (int i = 0; i < dust.count() && grains > 0; i++) {
+                float gx = dust.x()[i] - dust.vx()[i] * LAG;
+                float gy = dust.y()[i] - dust.vy()[i] * LAG;
+                if (inView(gx, gy, DUST_MARGIN) && k < n) {
+                    k = put(k, gx, gy, dust.radius()[i], new Color(dust.rgb()[i], true));
+                }
+            }
+            assertEquals("grains in view", grains, k);
+            for (int i = snap.bodies().size() - 1; i >= 0; i--) {
+                SimulationSnapshot.BodyView b = snap.bodies().get(i);
+                float bx = b.x() - b.vx() * LAG;
+                float by = b.y() - b.vy() * LAG;
+                if (!inView(bx, by, BODY_MARGIN) || k >= n) continue;
+                Color c = new Color(PlanetStyling.argb(b.palette()), true);
+                if (b.sun()) k = put(k, bx, by, b.radius() * 1.6f, c);
+                if (k < n) k = put(k, bx, by, b.radius(), c);
+            }
+            assertEquals("discs in view", n, k);
+            count = n;
+        }
+
+        private boolean inView(float wx, float wy, float margin) {
+            return wx >= minX - margin && wx <= maxX + margin && wy >= minY - margin && wy <= maxY + margin;
+        }
+
+        private int put(int k, float cx, float cy, float r, Color c) {
+            x[k] = (int) (cx - r);
+            y[k] = (int) (cy - r);
+            size[k] = (int) (r * 2);
+            color[k] = c;
+            return k + 1;
+        }
+    }
+
+    /** @return bytes allocated so far by all live threads. */
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.PlanetFormationDemo;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Talks to a {@link SnapshotStreamServer} the way the browser viewer does: a raw RFC 6455
+ * handshake, then decoding every message and checking it against the snapshot it was encoded from.
+ * Frames are published by the test itself, so each message maps to a known snapshot.
+ */
+public class SnapshotStreamServerTest extends TestCase {
+    /** View size; deliberately not a multiple of the grid cell, so the grid overhangs it. */
+    private static final int WIDTH = 630;
+    private static final int HEIGHT = 350;
+    /** Key and accept value of the handshake example in RFC 6455, section 1.3. */
+    private static final String KEY = "dGhlIHNhbXBsZSBub25jZQ==";
+    private static final String ACCEPT = "s3pPLMBiTxaQ9kYGzzhZRbK+xOo=";
+    /** How long a read waits for a frame that should come. */
+    private static final int READ_TIMEOUT_MS = 5000;
+    /** How long a read waits for a frame that must not come. */
+    private static final int QUIET_MS = 1000;
+
+    private Simulation sim;
+    private SnapshotStreamServer server;
+    private Socket socket;
+    private DataInputStream in;
+    private OutputStream out;
+    /** Background publisher for the throttling tests, or null. */
+    private Thread publisher;
+    private volatile boolean publishing;
+
+    @Override
+    protected void setUp() throws Exception {
+        sim = new Simulation(WIDTH, HEIGHT, false, 20_240_611L);
+        sim.seedDisk(3000, 0);
+        server = new SnapshotStreamServer(sim, 0);
+        server.start();
+        socket = new Socket("localhost", server.port());
+        socket.setSoTimeout(READ_TIMEOUT_MS);
+        in = new DataInputStream(socket.getInputStream());
+        out = socket.getOutputStream();
+        handshake();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        stopPublishing();
+        socket.close();
+        server.close();
+    }
+
+    public void testHandshakeThenKeyframeAndDeltasMatchSnapshots() throws Exception {
+        Decoder decoder = new Decoder();
+        for (int round = 0; round < 8; round++) {
+            for (int i = 0; i < 3; i++) sim.step();
+            // grains come and go between frames, so deltas carry additions as well as removals
+            if (round % 3 == 1) sim.sprinkleDust(WIDTH * 0.3f, HEIGHT * 0.4f, 25);
+            if (round % 3 == 2) sim.cleanUpDust();
+            sim.publishFrame();
+            SimulationSnapshot snap = sim.latestFrames().current();
+            ByteBuffer message = readMessage();
+            int type = decoder.decode(message);
+            assertEquals("message type of frame " + (round + 1),
+                    round == 0 ? StreamEncoder.KEYFRAME : StreamEncoder.DELTA, type);
+            assertEquals(round + 1L, decoder.frame);
+            assertMatches(snap, decoder);
+            send("ack");
+        }
+    }
+
+    public void testUnacknowledgedFramesAreCapped() throws Exception {
+        startPublishing();
+        readMessage();
+        readMessage();
+        assertNoMessage("a third frame went out with two unacknowledged");
+        send("ack");
+        readMessage();
+        assertNoMessage("a frame went out beyond the acknowledged one");
+    }
+
+    public void testFpsCapSpacesFramesAndSendsKeyframes() throws Exception {
+        send("fps 2");
+        startPublishing();
+        Decoder decoder = new Decoder();
+        long lastAt = 0;
+        long lastFrame = 0;
+        for (int i = 0; i < 3; i++) {
+            int type = decoder.decode(readMessage());
+            long at = System.nanoTime();
+            if (i > 0) {
+                // two a second, less scheduling slack; frames published in between were skipped
+                assertTrue("frames " + (at - lastAt) / 1_000_000L + " ms apart", at - lastAt >= 400_000_000L);
+                assertTrue("frame " + decoder.frame + " follows " + lastFrame, decoder.frame > lastFrame + 1);
+                assertEquals(StreamEncoder.KEYFRAME, type);
+            }
+            lastAt = at;
+            lastFrame = decoder.frame;
+            send("ack");
+        }
+    }
+
+    public void testShakeCommandPushesBodies() throws Exception {
+        float[] before = velocities();
+        send("shake");
+        long deadline = System.nanoTime() + READ_TIMEOUT_MS * 1_000_000L;
+        while (Arrays.equals(before, velocities())) {
+            assertTrue("shake did not reach the simulation", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /** Compare a decoded frame with the snapshot, quantized as the stream format specifies. */
+    private static void assertMatches(SimulationSnapshot snap, Decoder decoder) {
+        assertEquals(WIDTH, snap.viewWidth());
+        assertEquals(HEIGHT, snap.viewHeight());
+        assertEquals("view width", (float) WIDTH, decoder.worldW);
+        assertEquals("view height", (float) HEIGHT, decoder.worldH);
+        assertEquals((double) snap.totalParticles(), decoder.particles);
+        Map<Integer, int[]> expected = new HashMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        for (SimulationSnapshot.BodyView b : snap.bodies()) {
+            int flags = (b.sun() ? StreamEncoder.SUN : 0) | (b.comet() ? StreamEncoder.COMET : 0);
+            expected.put(b.id(), new int[] {quantize(b.x(), WIDTH), quantize(b.y(), HEIGHT),
+                    Math.round(b.radius() * 16f), b.palette() | flags});
+            if (b.name() != null) names.put(b.id(), b.name());
+        }
+        SimulationSnapshot.DustField dust = snap.dust();
+        for (int d = 0; d < dust.count(); d++) {
+            expected.put(dust.id()[d], new int[] {quantize(dust.x()[d], WIDTH), quantize(dust.y()[d], HEIGHT),
+                    Math.round(dust.radius()[d] * 16f), PlanetStyling.paletteOf(dust.rgb()[d])});
+        }
+        assertEquals("entities", expected.size(), decoder.count);
+        for (int k = 0; k < decoder.count; k++) {
+            int id = decoder.ids[k];
+            int[] e = expected.get(id);
+            assertNotNull("unexpected entity " + id, e);
+            int[] got = {decoder.qx[k], decoder.qy[k], decoder.radius[k], decoder.palette[k]};
+            assertTrue("entity " + id + ": " + Arrays.toString(got) + " != " + Arrays.toString(e),
+                    Arrays.equals(e, got));
+        }
+        assertEquals(names, decoder.names);
+    }
+
+    /** The stream's mapping of {@code [-extent/2, 1.5 * extent)} onto 16 bits. */
+    private static int quantize(float v, float extent) {
+        int q = Math.round((v + extent * 0.5f) * (65535 / (2f * extent)));
+        return Math.max(0, Math.min(65535, q));
+    }
+
+    private float[] velocities() {
+        List<Body> bodies = sim.bodyList();
+        synchronized (bodies) {
+            float[] v = new float[bodies.size() * 2];
+            for (int i = 0; i < bodies.size(); i++) {
+                v[2 * i] = bodies.get(i).vx;
+                v[2 * i + 1] = bodies.get(i).vy;
+            }
+            return v;
+        }
+    }
+
+    /** Step and publish continuously, faster than the encoder samples. */
+    private void startPublishing() {
+        publishing = true;
+        publisher = new Thread(() -> {
+            while (publishing) {
+                sim.step();
+                sim.publishFrame();
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "TestPublisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    private void stopPublishing() throws InterruptedException {
+        publishing = false;
+        if (publisher != null) publisher.join();
+    }
+
+    private void handshake() throws IOException {
+        out.write(("GET /stream HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + KEY + "\r\nSec-WebSocket-Version: 13\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.ISO_8859_1).endsWith("\r\n\r\n")) head.write(in.readUnsignedByte());
+        String[] lines = head.toString(StandardCharsets.ISO_8859_1).split("\r\n");
+        assertTrue(lines[0], lines[0].startsWith("HTTP/1.1 101"));
+        String accept = null;
+        for (String line : lines) {
+            if (line.toLowerCase().startsWith("sec-websocket-accept:")) accept = line.substring(21).trim();
+        }
+        assertEquals(ACCEPT, accept);
+    }
+
+    /** Send a masked text frame, as clients must. */
+    private void send(String command) throws IOException {
+        byte[] payload = command.getBytes(StandardCharsets.UTF_8);
+        byte[] mask = {0x12, 0x34, 0x56, 0x78};
+        byte[] frame = new byte[6 + payload.length];
+        frame[0] = (byte) 0x81;
+        frame[1] = (byte) (0x80 | payload.length);
+        System.arraycopy(mask, 0, frame, 2, 4);
+        for (int i = 0; i < payload.length; i++) frame[6 + i] = (byte) (payload[i] ^ mask[i & 3]);
+        out.write(frame);
+        out.flush();
+    }
+
+    /** Read one binary server frame. */
+    private ByteBuffer readMessage() throws IOException {
+        int b0 = in.readUnsignedByte();
+        int b1 = in.readUnsignedByte();
+        assertEquals("binary frame expected", 0x82, b0);
+        assertEquals("server frames are unmasked", 0, b1 & 0x80);
+        long len = b1 & 0x7F;
+        if (len == 126) len = in.readUnsignedShort();
+        else if (len == 127) len = in.readLong();
+        byte[] payload = new byte[(int) len];
+        in.readFully(payload);
+        return ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void assertNoMessage(String why) throws IOException {
+        socket.setSoTimeout(QUIET_MS);
+        try {
+            in.readUnsignedByte();
+            fail(why);
+        } catch (SocketTimeoutException expected) {
+            // nothing came
+        } finally {
+            socket.setSoTimeout(READ_TIMEOUT_MS);
+        }
+    }
+
+    /** Client-side decoder of the {@link StreamEncoder} format, keeping the entity state across frames. */
+    private static final class Decoder {
+        long frame;
+        float worldW;
+        float worldH;
+        double particles;
+        Map<Integer, String> names = new HashMap<>();
+        int count;
+        int[] ids = new int[0];
+        int[] qx = new int[0];
+        int[] qy = new int[0];
+        int[] vx = new int[0];
+        int[] vy = new int[0];
+        int[] radius = new int[0];
+        int[] palette = new int[0];
+
+        /** @return the message type */
+        int decode(ByteBuffer m) {
+            int type = m.get() & 0xFF;
+            long n = m.getInt() & 0xFFFFFFFFL;
+            if (type == StreamEncoder.DELTA) assertEquals("delta out of chain", frame + 1, n);
+            frame = n;
+            worldW = m.getFloat();
+            worldH = m.getFloat();
+            particles = m.getDouble();
+            m.get();
+            int paletteSize = m.get() & 0xFF;
+            for (int p = 0; p < paletteSize; p++) assertEquals(PlanetStyling.argb(p), m.getInt());
+            names = new HashMap<>();
+            for (int i = varint(m); i > 0; i--) {
+                int id = varint(m);
+                byte[] utf8 = new byte[m.get() & 0xFF];
+                m.get(utf8);
+                names.put(id, new String(utf8, StandardCharsets.UTF_8));
+            }
+            if (type == StreamEncoder.KEYFRAME) key(m);
+            else delta(m);
+            assertFalse("trailing bytes", m.hasRemaining());
+            return type;
+        }
+
+        private void key(ByteBuffer m) {
+            count = varint(m);
+            resize(count);
+            int prev = -1;
+            for (int k = 0; k < count; k++) {
+                prev = entity(m, k, prev);
+                vx[k] = svarint(m);
+                vy[k] = svarint(m);
+            }
+        }
+
+        private void delta(ByteBuffer m) {
+            int removedCount = varint(m);
+            int[] removed = new int[removedCount];
+            int prev = -1;
+            for (int i = 0; i < removedCount; i++) prev = removed[i] = prev + 1 + varint(m);
+            int addedCount = varint(m);
+            Decoder added = new Decoder();
+            added.resize(addedCount);
+            prev = -1;
+            for (int i = 0; i < addedCount; i++) prev = added.entity(m, i, prev);
+            // survivors, in id order
+            int keptCount = count - removedCount;
+            int[] kept = new int[keptCount];
+            for (int k = 0, r = 0, o = 0; o < count; o++) {
+                if (r < removedCount && ids[o] == removed[r]) r++;
+                else kept[k++] = o;
+            }
+            int[] keptRadius = new int[keptCount];
+            int[] keptPalette = new int[keptCount];
+            for (int k = 0; k < keptCount; k++) {
+                keptRadius[k] = radius[kept[k]];
+                keptPalette[k] = palette[kept[k]];
+            }
+            int at = -1;
+            for (int i = varint(m); i > 0; i--) {
+                at += 1 + varint(m);
+                keptRadius[at] = m.getShort() & 0xFFFF;
+                keptPalette[at] = m.get() & 0xFF;
+            }
+            Decoder next = new Decoder();
+            next.resize(keptCount + addedCount);
+            int a = 0;
+            int j = 0;
+            for (int k = 0; k <= keptCount; k++) {
+                int id = k < keptCount ? ids[kept[k]] : Integer.MAX_VALUE;
+                while (a < addedCount && added.ids[a] < id) next.copy(j++, added, a++);
+                if (k == keptCount) break;
+                int o = kept[k];
+                int x = qx[o] + vx[o] + svarint(m);
+                int y = qy[o] + vy[o] + svarint(m);
+                next.ids[j] = id;
+                next.qx[j] = x;
+                next.qy[j] = y;
+                next.vx[j] = x - qx[o];
+                next.vy[j] = y - qy[o];
+                next.radius[j] = keptRadius[k];
+                next.palette[j] = keptPalette[k];
+                j++;
+            }
+            count = j;
+            ids = next.ids;
+            qx = next.qx;
+            qy = next.qy;
+            vx = next.vx;
+            vy = next.vy;
+            radius = next.radius;
+            palette = next.palette;
+        }
+
+        private int entity(ByteBuffer m, int k, int prev) {
+            ids[k] = prev + 1 + varint(m);
+            qx[k] = m.getShort() & 0xFFFF;
+            qy[k] = m.getShort() & 0xFFFF;
+            radius[k] = m.getShort() & 0xFFFF;
+            palette[k] = m.get() & 0xFF;
+            return ids[k];
+        }
+
+        private void copy(int to, Decoder from, int k) {
+            ids[to] = from.ids[k];
+            qx[to] = from.qx[k];
+            qy[to] = from.qy[k];
+            radius[to] = from.radius[k];
+            palette[to] = from.palette[k];
+        }
+
+        private void resize(int n) {
+            ids = new int[n];
+            qx = new int[n];
+            qy = new int[n];
+            vx = new int[n];
+            vy = new int[n];
+            radius = new int[n];
+            palette = new int[n];
+        }
+
+        private static int varint(ByteBuffer m) {
+            int v = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = m.get() & 0xFF;
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+        }
+
+        private static int svarint(ByteBuffer m) {
+            int v = varint(m);
+            return (v >>> 1) ^ -(v & 1);
+        }
+    }
+}